@@ -5,6 +5,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.0"
     id("org.openjfx.javafxplugin") version "0.1.0"
     id("org.panteleyev.jpackageplugin") version "1.6.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -20,6 +21,7 @@ val lombokVersion = "1.18.30"
 val sqliteVersion = "3.44.1.0"
 val hibernateVersion = "6.6.6.Final"
 val poiVersion = "5.4.0"
+val jmhCoreVersion = "1.37"
 
 
 java {
@@ -39,6 +41,10 @@ tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
 application {
     mainClass.set("com.example.ta.TradingAnalyticsApplication")
 }
@@ -92,6 +98,8 @@ dependencies {
     // DB
     implementation("org.xerial:sqlite-jdbc:$sqliteVersion")
     implementation("org.hibernate.orm:hibernate-community-dialects:$hibernateVersion")
+    implementation("org.hibernate.orm:hibernate-jcache:$hibernateVersion")
+    implementation("com.github.ben-manes.caffeine:jcache")
 
     // Lombok
     compileOnly("org.projectlombok:lombok:$lombokVersion")
@@ -115,6 +123,60 @@ dependencies {
     testImplementation("org.testfx:testfx-junit5:4.0.18")
 }
 
+// Короткий хэш коммита — метка результатов бенчмарков и нагрузочных прогонов
+val buildRevision = providers.exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+
+// Нагрузочный прогон (src/loadtest/java): генерация журнала и отчет о задержках сценариев
+// ./gradlew loadTest -Ploadtest.trades=1000000 [-Ploadtest.iterations=5 -Ploadtest.export=false]
+sourceSets {
+    create("loadtest") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations {
+    getByName("loadtestImplementation").extendsFrom(configurations.implementation.get())
+    getByName("loadtestRuntimeOnly").extendsFrom(configurations.runtimeOnly.get())
+    getByName("loadtestCompileOnly").extendsFrom(configurations.compileOnly.get())
+    getByName("loadtestAnnotationProcessor").extendsFrom(configurations.annotationProcessor.get())
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Генерирует синтетический журнал сделок и замеряет основные пользовательские сценарии"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set("com.example.ta.loadtest.LoadTestApplication")
+    jvmArgs("-Xmx4g")
+    systemProperty("loadtest.revision", buildRevision.get())
+    listOf("trades", "seed", "years", "anchor-date", "iterations", "db", "export", "report-dir").forEach { name ->
+        providers.gradleProperty("loadtest.$name").orNull?.let { systemProperty("loadtest.$name", it) }
+    }
+}
+
+// JMH benchmarks (src/jmh/java): ./gradlew jmh, фильтр -Pjmh.includes=<regex>
+// Параметры прогона фиксированы, результат сохраняется в JSON с хэшем коммита для сравнения между версиями
+// Бенчмарки используют генератор журнала из src/loadtest
+dependencies {
+    "jmhImplementation"(sourceSets["loadtest"].output)
+}
+
+jmh {
+    jmhVersion.set(jmhCoreVersion)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    timeOnIteration.set("2s")
+    warmup.set("2s")
+    jvmArgs.addAll("-Xms4g", "-Xmx4g", "-Djava.awt.headless=true")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file(buildRevision.map { "results/jmh/results-$it.json" }))
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
 // Spring Boot fat JAR
 tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
     archiveFileName.set("trading-analytics.jar")
@@ -0,0 +1,28 @@
+package com.example.ta;
+
+import com.example.ta.domain.Trade;
+import com.example.ta.loadtest.SyntheticTradeGenerator;
+
+import java.util.List;
+
+/**
+ * Детерминированный набор сделок для бенчмарков: одинаковый seed и фиксированная опорная дата
+ * дают одинаковые данные на любом коммите и в любой день.
+ */
+public final class BenchmarkTrades {
+
+    public static final long SEED = 42L;
+
+    private static final int HISTORY_YEARS = 5;
+
+    private BenchmarkTrades() {
+    }
+
+    public static SyntheticTradeGenerator generator() {
+        return new SyntheticTradeGenerator(SEED, HISTORY_YEARS);
+    }
+
+    public static List<Trade> generate(int count) {
+        return generator().generate(count);
+    }
+}
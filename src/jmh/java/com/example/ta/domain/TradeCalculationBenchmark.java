@@ -0,0 +1,42 @@
+package com.example.ta.domain;
+
+import com.example.ta.BenchmarkTrades;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчет прибыли и движения цены для всего журнала
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TradeCalculationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int trades;
+
+    private List<Trade> journal;
+
+    @Setup
+    public void setUp() {
+        journal = BenchmarkTrades.generate(trades);
+    }
+
+    @Benchmark
+    public void calculateProfitAndMovement(Blackhole blackhole) {
+        for (Trade trade : journal) {
+            trade.calculateProfitAndMovement();
+            blackhole.consume(trade.getProfitLoss());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ta.service;
+
+import com.example.ta.BenchmarkTrades;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatistics;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Построение листов Excel-экспорта в потоковой книге (без записи итогового файла)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelSheetBenchmark {
+
+    private static final int ROW_ACCESS_WINDOW = 200;
+
+    @Param({"1000", "100000", "1000000"})
+    private int trades;
+
+    private List<Trade> journal;
+    private TradeStatistics statistics;
+    private ExcelExportService excelExportService;
+
+    @Setup
+    public void setUp() {
+        journal = BenchmarkTrades.generate(trades);
+
+        statistics = new TradeStatistics();
+        statistics.setTotalTrades(journal.size());
+        statistics.setTotalProfit(journal.stream()
+                .map(Trade::getProfitLoss)
+                .filter(value -> value != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        // Листы строятся без обращения к TradeService
+        excelExportService = new ExcelExportService(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        excelExportService.shutdown();
+    }
+
+    @Benchmark
+    public void buildSheets() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            excelExportService.createStatisticsSheet(workbook.createSheet("Статистика"), statistics, workbook);
+            Consumer<Trade> rowWriter = excelExportService.createTradesSheet(workbook.createSheet("Сделки"), workbook);
+            journal.forEach(rowWriter);
+        } finally {
+            workbook.dispose();
+        }
+    }
+}
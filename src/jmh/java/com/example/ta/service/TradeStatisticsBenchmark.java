@@ -0,0 +1,113 @@
+package com.example.ta.service;
+
+import com.example.ta.BenchmarkTrades;
+import com.example.ta.TradingAnalyticsApplication;
+import com.example.ta.domain.TradeStatistics;
+import com.example.ta.loadtest.SyntheticTradeGenerator;
+import com.example.ta.repository.TradeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика TradeService на заполненном файле SQLite.
+ * Файл БД для каждого набора данных создается один раз (build/jmh-db) и переиспользуется между прогонами;
+ * в имени файла — размер, версия генератора, seed и опорная дата, поэтому изменение генератора дает новый файл.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TradeStatisticsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int trades;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+    private TradeStatisticsAggregator statisticsAggregator;
+    private HibernateCacheService hibernateCacheService;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticTradeGenerator generator = BenchmarkTrades.generator();
+        Path databaseFile = Path.of("build", "jmh-db", generator.datasetName(trades) + ".db").toAbsolutePath();
+        Files.createDirectories(databaseFile.getParent());
+
+        context = new SpringApplicationBuilder(TradingAnalyticsApplication.class)
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .properties(
+                        "spring.datasource.url=jdbc:sqlite:" + databaseFile,
+                        "logging.level.com.example.ta=WARN")
+                .run();
+
+        tradeService = context.getBean(TradeService.class);
+        statisticsAggregator = context.getBean(TradeStatisticsAggregator.class);
+        hibernateCacheService = context.getBean(HibernateCacheService.class);
+        seedIfNeeded(generator, context.getBean(TradeRepository.class), context.getBean(EntityManagerFactory.class));
+
+        // Период отсчитывается от последнего дня сгенерированной истории, а не от дня запуска
+        periodEnd = generator.getAnchorDate();
+        periodStart = periodEnd.minusYears(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seedIfNeeded(SyntheticTradeGenerator generator, TradeRepository tradeRepository,
+                              EntityManagerFactory entityManagerFactory) {
+        // Файл назван по набору данных; неполный файл (прерванная загрузка) заполняется заново
+        if (tradeRepository.count() == trades) {
+            return;
+        }
+        tradeRepository.deleteAllInBatch();
+        generator.load(entityManagerFactory, trades);
+        context.getBean(DailyRollupService.class).rebuildAll();
+        statisticsAggregator.invalidate();
+    }
+
+    /**
+     * Статистика за все время из уже загруженных агрегатов
+     */
+    @Benchmark
+    public TradeStatistics calculateStatistics() {
+        return tradeService.calculateStatistics();
+    }
+
+    /**
+     * Статистика за все время с повторной загрузкой агрегатов из БД (кэш запросов Hibernate тоже сбрасывается)
+     */
+    @Benchmark
+    public TradeStatistics calculateStatisticsCold() {
+        statisticsAggregator.invalidate();
+        hibernateCacheService.evictAll();
+        return tradeService.calculateStatistics();
+    }
+
+    /**
+     * Статистика за последний год
+     */
+    @Benchmark
+    public TradeStatistics getStatistics() {
+        return tradeService.getStatistics(periodStart, periodEnd);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ta.util;
+
+import com.example.ta.BenchmarkTrades;
+import com.example.ta.domain.Trade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Форматирование сумм журнала (как при отрисовке таблицы и выгрузке)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NumberFormatUtilBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int trades;
+
+    private BigDecimal[] values;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkTrades.generate(trades).stream()
+                .map(Trade::getVolumeInCurrency)
+                .toArray(BigDecimal[]::new);
+    }
+
+    @Benchmark
+    public void formatNumber(Blackhole blackhole) {
+        for (BigDecimal value : values) {
+            blackhole.consume(NumberFormatUtil.formatNumber(value, 2));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ta.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Отчет о задержках пользовательских сценариев.
+ * CSV-формат с фиксированным порядком строк, чтобы отчеты разных версий можно было сравнить через diff.
+ */
+public class LatencyReport {
+
+    public record Summary(String journey, int runs, double minMillis, double p50Millis, double p95Millis,
+                          double maxMillis, double meanMillis) {
+    }
+
+    private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+    private final Map<String, String> environment = new LinkedHashMap<>();
+
+    public void addEnvironment(String key, Object value) {
+        environment.put(key, String.valueOf(value));
+    }
+
+    public void record(String journey, long nanos) {
+        samples.computeIfAbsent(journey, key -> new ArrayList<>()).add(nanos);
+    }
+
+    public List<Summary> summarize() {
+        List<Summary> summaries = new ArrayList<>();
+        samples.forEach((journey, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            summaries.add(new Summary(journey, sorted.length,
+                    millis(sorted[0]),
+                    millis(percentile(sorted, 50)),
+                    millis(percentile(sorted, 95)),
+                    millis(sorted[sorted.length - 1]),
+                    millis((long) Arrays.stream(sorted).average().orElse(0))));
+        });
+        return summaries;
+    }
+
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder();
+        environment.forEach((key, value) -> csv.append("# ").append(key).append(": ").append(value).append('\n'));
+        csv.append("journey,runs,min_ms,p50_ms,p95_ms,max_ms,mean_ms\n");
+        for (Summary summary : summarize()) {
+            csv.append(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    summary.journey(), summary.runs(), summary.minMillis(), summary.p50Millis(),
+                    summary.p95Millis(), summary.maxMillis(), summary.meanMillis()));
+        }
+        return csv.toString();
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-32s %5s %10s %10s %10s %10s%n",
+                "Сценарий", "Runs", "p50, мс", "p95, мс", "max, мс", "mean, мс"));
+        for (Summary summary : summarize()) {
+            table.append(String.format(Locale.ROOT, "%-32s %5d %10.1f %10.1f %10.1f %10.1f%n",
+                    summary.journey(), summary.runs(), summary.p50Millis(), summary.p95Millis(),
+                    summary.maxMillis(), summary.meanMillis()));
+        }
+        return table.toString();
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, toCsv(), StandardCharsets.UTF_8);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ta.loadtest;
+
+import com.example.ta.TradingAnalyticsApplication;
+import com.example.ta.repository.TradeRepository;
+import com.example.ta.service.DailyRollupService;
+import com.example.ta.service.ExcelExportService;
+import com.example.ta.service.HibernateCacheService;
+import com.example.ta.service.TradeService;
+import com.example.ta.service.TradeStatisticsAggregator;
+import jakarta.persistence.EntityManagerFactory;
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Нагрузочный прогон на журнале заданного размера: ./gradlew loadTest -Ploadtest.trades=1000000
+ *
+ * <p>Параметры (системные свойства):
+ * loadtest.trades — количество сделок (100000), loadtest.seed — seed генератора (42),
+ * loadtest.years — глубина истории в годах (5), loadtest.anchor-date — последний день истории (2025-01-01),
+ * loadtest.iterations — замеров на сценарий (5),
+ * loadtest.db — файл БД (build/loadtest/trades-N-v2-seed42-5y-2025-01-01.db: размер, версия генератора, seed,
+ * глубина и опорная дата; переиспользуется при совпадении количества сделок),
+ * loadtest.export — замерять экспорт в Excel (true), loadtest.report-dir — каталог отчетов,
+ * loadtest.revision — метка версии в имени отчета.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        int trades = Integer.getInteger("loadtest.trades", 100_000);
+        long seed = Long.getLong("loadtest.seed", 42L);
+        int years = Integer.getInteger("loadtest.years", 5);
+        LocalDate anchorDate = LocalDate.parse(System.getProperty("loadtest.anchor-date",
+                SyntheticTradeGenerator.DEFAULT_ANCHOR_DATE.toString()));
+        int iterations = Integer.getInteger("loadtest.iterations", 5);
+        boolean export = Boolean.parseBoolean(System.getProperty("loadtest.export", "true"));
+        String revision = System.getProperty("loadtest.revision", "local");
+        SyntheticTradeGenerator generator = new SyntheticTradeGenerator(seed, years, anchorDate);
+        Path databaseFile = Path.of(System.getProperty("loadtest.db",
+                        "build/loadtest/" + generator.datasetName(trades) + ".db"))
+                .toAbsolutePath();
+        Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+
+        Files.createDirectories(databaseFile.getParent());
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TradingAnalyticsApplication.class)
+                .web(WebApplicationType.NONE)
+                .headless(false)
+                .properties(
+                        "spring.datasource.url=jdbc:sqlite:" + databaseFile,
+                        "logging.level.com.example.ta=INFO")
+                .run(args);
+
+        try {
+            TradeService tradeService = context.getBean(TradeService.class);
+            TradeStatisticsAggregator statisticsAggregator = context.getBean(TradeStatisticsAggregator.class);
+
+            long loadMillis = prepareDatabase(context, generator, trades);
+            statisticsAggregator.invalidate();
+
+            // Прогресс экспорта публикуется через Platform.runLater — нужен запущенный FX toolkit
+            boolean exportEnabled = export && startFxToolkit();
+
+            LatencyReport report = new LatencyReport();
+            report.addEnvironment("revision", revision);
+            report.addEnvironment("trades", trades);
+            report.addEnvironment("seed", seed);
+            report.addEnvironment("generator_version", SyntheticTradeGenerator.VERSION);
+            report.addEnvironment("anchor_date", anchorDate);
+            report.addEnvironment("iterations", iterations);
+            report.addEnvironment("java", System.getProperty("java.version"));
+            report.addEnvironment("generated", LocalDateTime.now().withNano(0));
+            if (loadMillis >= 0) {
+                report.addEnvironment("bulk_load_ms", loadMillis);
+            }
+
+            int pageSize = context.getEnvironment().getProperty("trading.trades-list.page-size", Integer.class, 200);
+            new LoadTestHarness(tradeService, statisticsAggregator, context.getBean(HibernateCacheService.class),
+                    context.getBean(ExcelExportService.class), pageSize, anchorDate)
+                    .run(report, iterations, exportEnabled);
+
+            Path reportFile = reportDir.resolve("latency-" + trades + "-" + revision + ".csv");
+            report.write(reportFile);
+
+            log.info("Отчет о задержках ({} сделок):\n{}", trades, report.toTable());
+            log.info("Отчет сохранен: {}", reportFile.toAbsolutePath());
+        } finally {
+            context.close();
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Заполнить БД синтетическим журналом, если количество сделок не совпадает с запрошенным.
+     * Параметры генератора входят в имя файла по умолчанию, поэтому совпадение количества проверяет
+     * только полноту загрузки. Возвращает время загрузки или -1, если использован существующий файл.
+     */
+    private static long prepareDatabase(ConfigurableApplicationContext context, SyntheticTradeGenerator generator,
+                                        int trades) {
+        TradeRepository tradeRepository = context.getBean(TradeRepository.class);
+        if (tradeRepository.count() == trades) {
+            log.info("Используется существующая БД с {} сделками", trades);
+            return -1;
+        }
+
+        tradeRepository.deleteAllInBatch();
+        long loadMillis = generator.load(context.getBean(EntityManagerFactory.class), trades);
+
+        // Сделки загружены в обход TradeService — дневные агрегаты пересчитываются целиком
+        context.getBean(DailyRollupService.class).rebuildAll();
+
+        // Статистика планировщика для индексов после массовой загрузки
+        context.getBean(JdbcTemplate.class).execute("ANALYZE");
+        return loadMillis;
+    }
+
+    private static boolean startFxToolkit() {
+        try {
+            Platform.startup(() -> {
+            });
+            Platform.setImplicitExit(false);
+            return true;
+        } catch (IllegalStateException alreadyStarted) {
+            return true;
+        } catch (Exception | Error e) {
+            log.warn("JavaFX недоступен ({}), сценарий экспорта пропущен", e.getMessage());
+            return false;
+        }
+    }
+}
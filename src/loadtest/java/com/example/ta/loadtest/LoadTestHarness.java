@@ -0,0 +1,113 @@
+package com.example.ta.loadtest;
+
+import com.example.ta.domain.PeriodType;
+import com.example.ta.domain.TradeStatistics;
+import com.example.ta.service.ExcelExportService;
+import com.example.ta.service.HibernateCacheService;
+import com.example.ta.service.TradeService;
+import com.example.ta.service.TradeStatisticsAggregator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер основных пользовательских сценариев на уровне сервисов — те же вызовы и в том же порядке,
+ * что выполняют контроллеры в фоне при открытии экрана.
+ */
+@Slf4j
+public class LoadTestHarness {
+
+    private final TradeService tradeService;
+    private final TradeStatisticsAggregator statisticsAggregator;
+    private final HibernateCacheService hibernateCacheService;
+    private final ExcelExportService excelExportService;
+    private final int pageSize;
+    // Последний день синтетической истории — «сегодня» для периодов статистики
+    private final LocalDate today;
+
+    public LoadTestHarness(TradeService tradeService, TradeStatisticsAggregator statisticsAggregator,
+                           HibernateCacheService hibernateCacheService, ExcelExportService excelExportService,
+                           int pageSize, LocalDate today) {
+        this.tradeService = tradeService;
+        this.statisticsAggregator = statisticsAggregator;
+        this.hibernateCacheService = hibernateCacheService;
+        this.excelExportService = excelExportService;
+        this.pageSize = pageSize;
+        this.today = today;
+    }
+
+    /**
+     * Выполнить все сценарии указанное количество раз (плюс один прогревочный прогон, не попадающий в отчет)
+     */
+    public void run(LatencyReport report, int iterations, boolean includeExport) throws Exception {
+        for (int iteration = 0; iteration <= iterations; iteration++) {
+            LatencyReport target = iteration == 0 ? new LatencyReport() : report;
+
+            measure(target, "trades-list.open", this::openTradesList);
+            for (PeriodType period : PeriodType.values()) {
+                measure(target, "statistics." + period.name(), () -> openStatistics(period));
+            }
+            measure(target, "asset-breakdown.ALL_TIME", () -> tradeService.getAssetBreakdown(null, null).size());
+            if (includeExport) {
+                measure(target, "excel.export", this::exportToExcel);
+            }
+            log.info("Итерация {} из {} завершена", iteration, iterations);
+        }
+    }
+
+    /**
+     * TradesListController.loadTrades: количество, сводка и первое окно списка
+     */
+    private Object openTradesList() {
+        long count = tradeService.count();
+        TradeStatistics summary = tradeService.getTradesSummary();
+        return tradeService.findPage(0, pageSize).size() + count + summary.getTotalTrades();
+    }
+
+    /**
+     * StatisticsController.loadCurrentStatistics: статистика за период и данные кривой эквити.
+     * Агрегаты за все время и кэш запросов Hibernate сбрасываются, чтобы замерять загрузку из БД, а не кэш.
+     */
+    private Object openStatistics(PeriodType period) {
+        LocalDate startDate = period == PeriodType.CUSTOM ? today.minusDays(90) : period.getStartDate(today);
+        LocalDate endDate = period == PeriodType.CUSTOM ? today : period.getEndDate(today);
+
+        TradeStatistics statistics;
+        if (period == PeriodType.ALL_TIME) {
+            statisticsAggregator.invalidate();
+            hibernateCacheService.evictAll();
+            statistics = tradeService.calculateStatistics();
+        } else {
+            statistics = tradeService.getStatistics(startDate, endDate);
+        }
+        int equityPoints = period == PeriodType.TODAY || period == PeriodType.CUSTOM
+                ? tradeService.getEquityCurve(startDate, endDate).size()
+                : tradeService.getDailyRollups(startDate, endDate).size();
+        return equityPoints + statistics.getTotalTrades();
+    }
+
+    /**
+     * StatisticsController.exportToExcel за все время, до записи файла
+     */
+    private Object exportToExcel() throws Exception {
+        TradeStatistics statistics = tradeService.calculateStatistics();
+        File file = excelExportService.submitExport(statistics, null, null)
+                .getResult()
+                .get(30, TimeUnit.MINUTES);
+        if (!file.delete()) {
+            log.warn("Не удалось удалить файл экспорта {}", file);
+        }
+        return file;
+    }
+
+    private void measure(LatencyReport report, String journey, Callable<Object> action) throws Exception {
+        long start = System.nanoTime();
+        action.call();
+        long elapsed = System.nanoTime() - start;
+        report.record(journey, elapsed);
+        log.debug("{}: {} мс", journey, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
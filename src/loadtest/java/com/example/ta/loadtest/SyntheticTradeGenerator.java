@@ -0,0 +1,218 @@
+package com.example.ta.loadtest;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Генератор реалистичного журнала сделок для нагрузочного тестирования.
+ * Данные детерминированы seed'ом, глубиной истории и опорной датой (последний день истории):
+ * одинаковые параметры дают одинаковый журнал в любой день запуска.
+ */
+@Slf4j
+public class SyntheticTradeGenerator {
+
+    /**
+     * Версия алгоритма генерации; увеличивается при любом изменении, влияющем на сгенерированные данные
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Опорная дата по умолчанию — не текущая, чтобы журнал не менялся от дня запуска
+     */
+    public static final LocalDate DEFAULT_ANCHOR_DATE = LocalDate.of(2025, 1, 1);
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private record Asset(String name, Currency currency, double basePrice, double volatility, int weight) {
+    }
+
+    // Состав портфеля: криптовалюты, акции, валютные пары; weight — относительная частота сделок
+    private static final List<Asset> ASSETS = List.of(
+            new Asset("BTCUSDT", Currency.USD, 60_000, 0.04, 20),
+            new Asset("ETHUSDT", Currency.USD, 3_000, 0.05, 15),
+            new Asset("SOLUSDT", Currency.USD, 150, 0.07, 8),
+            new Asset("SBER", Currency.RUB, 280, 0.02, 10),
+            new Asset("GAZP", Currency.RUB, 160, 0.025, 6),
+            new Asset("AAPL", Currency.USD, 190, 0.015, 10),
+            new Asset("TSLA", Currency.USD, 220, 0.035, 8),
+            new Asset("NVDA", Currency.USD, 120, 0.03, 8),
+            new Asset("EURUSD", Currency.EUR, 1.08, 0.004, 7),
+            new Asset("GBPUSD", Currency.GBP, 1.27, 0.005, 5)
+    );
+
+    private static final String[] ENTRY_REASONS = {
+            "Пробой уровня сопротивления", "Отбой от поддержки", "Дивергенция RSI", "Пересечение скользящих средних",
+            "Ложный пробой", "Торговля по тренду", "Новостной импульс", "Ретест уровня после пробоя"
+    };
+
+    private static final String[] EXIT_REASONS = {
+            "Достигнут тейк-профит", "Сработал стоп-лосс", "Перевод в безубыток", "Разворотный паттерн",
+            "Закрытие по времени", "Частичная фиксация"
+    };
+
+    private static final String[] COMMENTS = {
+            "Сделка по плану", "Вход раньше сигнала", "Передержал позицию", "Хорошее соотношение риск/прибыль",
+            "Эмоциональное решение", "Нужно было уменьшить объем"
+    };
+
+    private final long seed;
+    private final int years;
+    private final LocalDate anchorDate;
+    private final int totalWeight;
+
+    public SyntheticTradeGenerator(long seed, int years) {
+        this(seed, years, DEFAULT_ANCHOR_DATE);
+    }
+
+    public SyntheticTradeGenerator(long seed, int years, LocalDate anchorDate) {
+        this.seed = seed;
+        this.years = years;
+        this.anchorDate = anchorDate;
+        this.totalWeight = ASSETS.stream().mapToInt(Asset::weight).sum();
+    }
+
+    /**
+     * Последний день сгенерированной истории; относительно него считаются периоды статистики
+     */
+    public LocalDate getAnchorDate() {
+        return anchorDate;
+    }
+
+    /**
+     * Имя набора данных: размер и все параметры, от которых зависит журнал.
+     * Файл БД с таким именем можно переиспользовать, только если совпадает все имя, а не количество сделок.
+     */
+    public String datasetName(int count) {
+        return "trades-" + count + "-v" + VERSION + "-seed" + seed + "-" + years + "y-" + anchorDate;
+    }
+
+    /**
+     * Сгенерировать сделки в памяти
+     */
+    public List<Trade> generate(int count) {
+        List<Trade> trades = new ArrayList<>(count);
+        generate(count, trades::add);
+        return trades;
+    }
+
+    /**
+     * Сгенерировать сделки, передавая их по одной обработчику (без накопления в памяти)
+     */
+    public void generate(int count, Consumer<Trade> consumer) {
+        Random random = new Random(seed);
+        LocalDate firstDate = anchorDate.minusYears(years);
+        int days = Math.max(1, (int) (anchorDate.toEpochDay() - firstDate.toEpochDay()));
+
+        for (int i = 0; i < count; i++) {
+            consumer.accept(createTrade(random, firstDate.plusDays(random.nextInt(days + 1)), i));
+        }
+    }
+
+    /**
+     * Загрузить сделки в БД пакетами через StatelessSession (без контекста персистентности и аудита).
+     * Возвращает время загрузки в миллисекундах.
+     */
+    public long load(EntityManagerFactory entityManagerFactory, int count) {
+        long start = System.nanoTime();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction[] transaction = {session.beginTransaction()};
+            int[] inserted = {0};
+
+            generate(count, trade -> {
+                session.insert(trade);
+                if (++inserted[0] % INSERT_BATCH_SIZE == 0) {
+                    transaction[0].commit();
+                    log.info("Загружено {} из {} сделок", inserted[0], count);
+                    transaction[0] = session.beginTransaction();
+                }
+            });
+            transaction[0].commit();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Загружено {} сделок за {} мс", count, elapsedMillis);
+        return elapsedMillis;
+    }
+
+    private Trade createTrade(Random random, LocalDate tradeDate, int index) {
+        Asset asset = pickAsset(random);
+
+        Trade trade = new Trade();
+        trade.setAssetName(asset.name());
+        trade.setCurrency(asset.currency());
+        trade.setTradeType(random.nextInt(100) < 60 ? TradeType.LONG : TradeType.SHORT);
+        trade.setTradeDate(tradeDate);
+
+        // Цена входа колеблется вокруг базовой цены актива
+        double entryPrice = asset.basePrice() * (1 + random.nextGaussian() * asset.volatility() * 5);
+        BigDecimal entryPoint = price(Math.max(asset.basePrice() * 0.1, entryPrice));
+        BigDecimal volume = BigDecimal.valueOf(1000 + random.nextDouble() * 9000)
+                .divide(entryPoint, 8, RoundingMode.HALF_UP);
+        trade.setEntryPoint(entryPoint);
+        trade.setVolume(volume);
+        trade.setVolumeInCurrency(entryPoint.multiply(volume).setScale(2, RoundingMode.HALF_UP));
+
+        LocalDateTime entryTime = tradeDate.atTime(7 + random.nextInt(14), random.nextInt(60));
+        trade.setEntryTime(entryTime);
+        trade.setCreatedAt(entryTime);
+        trade.setUpdatedAt(entryTime);
+        trade.setEntryReason(ENTRY_REASONS[random.nextInt(ENTRY_REASONS.length)]);
+
+        // Недавние сделки чаще остаются открытыми
+        boolean recent = tradeDate.isAfter(anchorDate.minusDays(14));
+        if (random.nextInt(100) < (recent ? 50 : 97)) {
+            // Небольшое положительное матожидание, как у прибыльной системы
+            double move = random.nextGaussian() * asset.volatility() + asset.volatility() * 0.1;
+            trade.setExitPoint(price(Math.max(entryPoint.doubleValue() * 0.01, entryPoint.doubleValue() * (1 + move))));
+            trade.setExitTime(entryTime.plusMinutes(5 + random.nextInt(60 * 24 * 3)));
+            trade.setExitReason(EXIT_REASONS[random.nextInt(EXIT_REASONS.length)]);
+            trade.setStatus(TradeStatus.CLOSED);
+            trade.calculateProfitAndMovement();
+        } else {
+            trade.setStatus(TradeStatus.OPEN);
+        }
+
+        if (random.nextInt(100) < 40) {
+            trade.setComment(COMMENTS[random.nextInt(COMMENTS.length)]);
+        }
+        if (random.nextInt(100) < 20) {
+            trade.setChartImagePath(Path.of(System.getProperty("user.home"), "TradingAnalytics", "images",
+                    "trade_" + index + ".png").toString());
+        }
+        return trade;
+    }
+
+    private Asset pickAsset(Random random) {
+        int point = random.nextInt(totalWeight);
+        for (Asset asset : ASSETS) {
+            point -= asset.weight();
+            if (point < 0) {
+                return asset;
+            }
+        }
+        return ASSETS.getLast();
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,48 +1,88 @@
 package com.example.ta;
 
 import com.example.ta.config.SpringFXMLLoader;
+import com.example.ta.config.StartupTimeline;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Запуск приложения: окно-заставка показывается сразу, контекст Spring (вместе с Hibernate) поднимается
+ * в фоновом потоке, главное окно подставляется в ту же сцену, когда контекст готов.
+ */
 @Slf4j
 public class JavaFxApplication extends Application {
 
-    private ConfigurableApplicationContext springContext;
+    private CompletableFuture<ConfigurableApplicationContext> springContext;
 
     @Override
     public void init() {
+        StartupTimeline.mark("Инициализация JavaFX");
+        springContext = CompletableFuture.supplyAsync(this::startSpringContext,
+                task -> new Thread(task, "spring-init").start());
+    }
+
+    private ConfigurableApplicationContext startSpringContext() {
         log.info("Инициализация Spring Boot контекста...");
-        springContext = SpringApplication.run(TradingAnalyticsApplication.class);
+        ConfigurableApplicationContext context = SpringApplication.run(TradingAnalyticsApplication.class);
+        StartupTimeline.mark("Контекст Spring готов");
         log.info("Spring Boot контекст успешно инициализирован");
+        return context;
     }
 
     @Override
     public void start(Stage primaryStage) {
-        try {
-            log.info("Запуск JavaFX приложения...");
+        log.info("Запуск JavaFX приложения...");
 
-            SpringFXMLLoader loader = springContext.getBean(SpringFXMLLoader.class);
-            Scene scene = new Scene(loader.load("/com/example/ta/main-view.fxml"), 1400, 900);
+        primaryStage.setTitle("Trading Analytics - Система анализа торговли");
+        primaryStage.setScene(new Scene(createShell(), 1400, 900));
+        primaryStage.setMinWidth(1200);
+        primaryStage.setMinHeight(800);
 
-            primaryStage.setTitle("Trading Analytics - Система анализа торговли");
-            primaryStage.setScene(scene);
-            primaryStage.setMinWidth(1200);
-            primaryStage.setMinHeight(800);
+        // Обработка закрытия приложения
+        primaryStage.setOnCloseRequest(event -> {
+            log.info("Закрытие приложения...");
+            Platform.exit();
+            ConfigurableApplicationContext context = springContext.getNow(null);
+            if (context != null) {
+                context.close();
+            }
+            System.exit(0);
+        });
 
-            // Обработка закрытия приложения
-            primaryStage.setOnCloseRequest(event -> {
-                log.info("Закрытие приложения...");
+        primaryStage.show();
+        StartupTimeline.mark("Окно-заставка показано");
+
+        springContext.whenComplete((context, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                log.error("Ошибка инициализации Spring Boot контекста", error);
+                showStartupError(error);
                 Platform.exit();
-                springContext.close();
-                System.exit(0);
-            });
+                return;
+            }
+            showMainView(primaryStage, context);
+        }));
+    }
+
+    private void showMainView(Stage primaryStage, ConfigurableApplicationContext context) {
+        try {
+            SpringFXMLLoader loader = context.getBean(SpringFXMLLoader.class);
+            primaryStage.getScene().setRoot(loader.load("/com/example/ta/main-view.fxml"));
 
-            primaryStage.show();
+            StartupTimeline.mark("Главное окно показано");
+            StartupTimeline.logSummary();
             log.info("JavaFX приложение успешно запущено");
 
         } catch (Exception e) {
@@ -51,12 +91,39 @@ public class JavaFxApplication extends Application {
         }
     }
 
+    /**
+     * Окно-заставка: только элементы JavaFX, без FXML и бинов Spring
+     */
+    private Parent createShell() {
+        Label titleLabel = new Label("Trading Analytics");
+        titleLabel.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        ProgressIndicator progressIndicator = new ProgressIndicator();
+        progressIndicator.setMaxSize(48, 48);
+
+        Label statusLabel = new Label("Загрузка данных...");
+        statusLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #6c757d;");
+
+        VBox shell = new VBox(16, titleLabel, progressIndicator, statusLabel);
+        shell.setAlignment(Pos.CENTER);
+        shell.setStyle("-fx-background-color: #f8f9fa;");
+        return shell;
+    }
+
+    private void showStartupError(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Ошибка");
+        alert.setHeaderText("Не удалось запустить приложение");
+        alert.setContentText(cause.getMessage());
+        alert.showAndWait();
+    }
+
     @Override
     public void stop() {
         log.info("Остановка приложения...");
-        if (springContext != null) {
-            springContext.close();
-        }
+        // Контекст, который еще запускается, закрывается по готовности
+        springContext.thenAccept(ConfigurableApplicationContext::close);
         Platform.exit();
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.ta;
 
+import com.example.ta.config.StartupTimeline;
 import javafx.application.Application;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -7,6 +8,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class TradingAnalyticsApplication {
 
     public static void main(String[] args) {
+        StartupTimeline.mark("Вызов main");
         System.setProperty("java.awt.headless", "false");
         System.setProperty("spring.aop.proxy-target-class", "true");
 
@@ -1,5 +1,8 @@
 package com.example.ta.config;
 
+import com.example.ta.service.HibernateCacheService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -8,5 +11,14 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableJpaAuditing
 @EnableTransactionManagement(proxyTargetClass = true)
 public class ApplicationConfig {
+
+    /**
+     * Бины, создаваемые при запуске несмотря на spring.main.lazy-initialization:
+     * миграции схемы должны выполниться до первого запроса, статистика кэша выводится при остановке
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SchemaMigrator.class, HibernateCacheService.class);
+    }
 }
 
@@ -0,0 +1,79 @@
+package com.example.ta.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Источники данных SQLite в режиме WAL.
+ * Запись идет через единственное соединение писателя, транзакции readOnly читают через отдельный пул
+ * соединений только для чтения. В режиме WAL читатели видят последнее зафиксированное состояние и не ждут
+ * писателя, а писатель не ждет читателей.
+ * Пул выбирает LazyConnectionDataSourceProxy: физическое соединение берется при первом запросе,
+ * когда признак readOnly транзакции уже известен.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    @Value("${trading.database.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${trading.database.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    /**
+     * Соединение писателя: в SQLite одновременно пишет только одно соединение
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariConfig config = createConfig(properties, "sqlite-writer");
+        config.setMaximumPoolSize(1);
+        // Режим журнала хранится в файле БД; synchronous=NORMAL в WAL не теряет целостность при сбое
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Пул чтения открывается после писателя, чтобы файл БД уже был переведен в WAL
+     */
+    @Bean(destroyMethod = "close")
+    @DependsOn("writeDataSource")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${trading.database.read-pool-size:4}") int readPoolSize) {
+        HikariConfig config = createConfig(properties, "sqlite-reader");
+        config.setMaximumPoolSize(readPoolSize);
+        config.setMinimumIdle(1);
+        // Запись через пул чтения — ошибка, а не незаметная конкуренция с писателем
+        config.setConnectionInitSql("PRAGMA query_only = 1");
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+
+    private HikariConfig createConfig(DataSourceProperties properties, String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(properties.determineUrl());
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        return config;
+    }
+}
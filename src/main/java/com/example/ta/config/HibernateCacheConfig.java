@@ -0,0 +1,59 @@
+package com.example.ta.config;
+
+import com.example.ta.domain.Trade;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Второй уровень кэша Hibernate и кэш запросов на Caffeine (JCache).
+ * Области создаются здесь с ограничением размера и временем жизни записей:
+ * сделки (Trade) и результаты запросов TradeRepository с HINT_CACHEABLE. Метки изменений таблиц,
+ * по которым Hibernate признает результаты запросов устаревшими после save/update/delete,
+ * не ограничиваются — иначе устаревший результат запроса мог бы пережить свою метку.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${trading.cache.trade-max-entries:20000}") long tradeMaxEntries,
+                                              @Value("${trading.cache.query-max-entries:200}") long queryMaxEntries,
+                                              @Value("${trading.cache.ttl-minutes:30}") long ttlMinutes) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+
+        cacheManager.createCache(Trade.class.getName(), boundedRegion(tradeMaxEntries, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, boundedRegion(queryMaxEntries, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+
+        log.info("Кэш Hibernate: до {} сделок и {} результатов запросов, время жизни {} мин",
+                tradeMaxEntries, queryMaxEntries, ttlMinutes);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> boundedRegion(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        // Счетчики попаданий доступны и через JMX (javax.cache:type=CacheStatistics)
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
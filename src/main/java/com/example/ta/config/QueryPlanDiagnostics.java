@@ -0,0 +1,223 @@
+package com.example.ta.config;
+
+import com.example.ta.repository.TradeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Проверка планов запросов TradeRepository.
+ * Для каждого метода-запроса репозитория перехватывается сгенерированный Hibernate SQL (вместо него выполняется
+ * пустая выборка), затем для него выполняется EXPLAIN QUERY PLAN. Нарушения собираются по всем запросам
+ * и сообщаются после завершения транзакций: если хотя бы один запрос читает таблицу целиком (SCAN без индекса),
+ * запуск приложения прерывается.
+ * Включается свойством trading.database.verify-query-plans.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "trading.database.verify-query-plans", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryPlanDiagnostics {
+
+    private final TradeRepository tradeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    public record QueryPlan(String method, String sql, List<String> details) {
+
+        boolean isFullScan() {
+            return details.stream().anyMatch(detail ->
+                    detail.startsWith("SCAN") && !detail.contains("USING")
+                            && !detail.contains("CONSTANT ROW") && !detail.contains("VIRTUAL TABLE"));
+        }
+    }
+
+    /**
+     * Перехватчик SQL: в режиме захвата запоминает запрос и подменяет его пустой выборкой с теми же колонками.
+     * Исключение здесь пометило бы транзакцию rollback-only, поэтому выполнение не прерывается.
+     */
+    static class CapturingStatementInspector implements StatementInspector {
+
+        static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+                return "SELECT * FROM (" + sql + ") WHERE 0";
+            }
+            return sql;
+        }
+    }
+
+    // static: перехватчик нужен при создании EntityManagerFactory, до создания репозитория
+    @Bean
+    public static HibernatePropertiesCustomizer queryPlanStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CapturingStatementInspector());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyQueryPlans() {
+        // Все транзакции захвата уже завершены — нарушения сообщаются вне их
+        List<QueryPlan> plans = explainRepositoryQueries();
+        List<QueryPlan> fullScans = findFullScans(plans);
+
+        if (!fullScans.isEmpty()) {
+            fullScans.forEach(plan -> log.error("Полный просмотр таблицы в {}: {}\n{}",
+                    plan.method(), plan.details(), plan.sql()));
+            throw new IllegalStateException("Запросы без индекса: " +
+                    fullScans.stream().map(QueryPlan::method).toList());
+        }
+
+        log.info("Проверено планов запросов TradeRepository: {}, полных просмотров таблицы нет", plans.size());
+    }
+
+    /**
+     * Запросы, читающие таблицу целиком. Поиск по подстроке в нарушения не входит — о нем только предупреждение.
+     */
+    static List<QueryPlan> findFullScans(List<QueryPlan> plans) {
+        List<QueryPlan> fullScans = new ArrayList<>();
+        for (QueryPlan plan : plans) {
+            log.debug("План {}: {}", plan.method(), plan.details());
+            if (!plan.isFullScan()) {
+                continue;
+            }
+            if (isSubstringSearch(plan.method())) {
+                // LIKE '%x%' не может использовать B-tree индекс ни при какой схеме
+                log.warn("Запрос {} выполняет полный просмотр таблицы (поиск по подстроке): {}",
+                        plan.method(), plan.details());
+            } else {
+                fullScans.add(plan);
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * Планы всех запросов, объявленных в TradeRepository
+     */
+    public List<QueryPlan> explainRepositoryQueries() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        List<QueryPlan> plans = new ArrayList<>();
+        Arrays.stream(TradeRepository.class.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .sorted(Comparator.comparing(Method::getName))
+                .forEach(method -> {
+                    List<String> statements = transactionTemplate.execute(status -> {
+                        // Транзакция захвата ничего не фиксирует; локальный откат не приводит к UnexpectedRollbackException
+                        status.setRollbackOnly();
+                        return captureSql(method);
+                    });
+                    for (String sql : statements) {
+                        plans.add(explain(method.getName(), sql));
+                    }
+                });
+        return plans;
+    }
+
+    QueryPlan explain(String method, String sql) {
+        return new QueryPlan(method, sql, explain(sql));
+    }
+
+    private List<String> captureSql(Method method) {
+        // Пустые результаты подмененных запросов не должны попасть в кэш запросов
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        List<String> captured = new ArrayList<>();
+        CapturingStatementInspector.CAPTURED.set(captured);
+        try {
+            Object result = method.invoke(tradeRepository, sampleArguments(method));
+            if (result instanceof Stream<?> stream) {
+                stream.close();
+            }
+        } catch (Exception e) {
+            // Пустая выборка может не подойти методу (например, count() ждет одну строку) — SQL уже получен
+            if (captured.isEmpty()) {
+                log.warn("Не удалось получить SQL для {}: {}", method.getName(), e.getMessage());
+            }
+        } finally {
+            CapturingStatementInspector.CAPTURED.remove();
+        }
+        return captured;
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+            // Значения параметров на план не влияют — привязываем NULL
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            return statement;
+        }, (rs, rowNum) -> rs.getString("detail"));
+    }
+
+    private Object[] sampleArguments(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(this::sampleValue)
+                .toArray();
+    }
+
+    private Object sampleValue(Class<?> type) {
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ZERO;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 1);
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        return null;
+    }
+
+    /**
+     * Поиск только по подстроке актива, без фильтра по статусу или дате
+     */
+    private static boolean isSubstringSearch(String methodName) {
+        return methodName.contains("Containing") && !methodName.contains("Status") && !methodName.contains("TradeDate");
+    }
+}
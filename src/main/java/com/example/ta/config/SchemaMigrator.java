@@ -0,0 +1,150 @@
+package com.example.ta.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Версионные миграции схемы БД.
+ * Таблицы создает Hibernate (ddl-auto: update), миграции из classpath:db/migration
+ * (файлы V{версия}__{описание}.sql) добавляют то, что Hibernate не создает, — в первую очередь индексы.
+ * Каждая миграция применяется один раз в отдельной транзакции, примененные версии хранятся в schema_version.
+ * Бин создается при запуске и в режиме ленивой инициализации (ApplicationConfig).
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SchemaMigrator {
+
+    private static final String MIGRATIONS_LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private record Migration(int version, String description, Resource resource) {
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrate() {
+        // Hibernate строится в фоновом потоке (bootstrap-mode: deferred): ждем, пока ddl-auto создаст таблицы
+        entityManagerFactory.getMetamodel();
+        StartupTimeline.mark("Hibernate готов");
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INTEGER PRIMARY KEY, " +
+                "description TEXT NOT NULL, " +
+                "installed_at TEXT NOT NULL)");
+
+        Set<Integer> applied = new HashSet<>(jdbcTemplate.queryForList("SELECT version FROM schema_version", Integer.class));
+        List<Migration> pending = findMigrations().stream()
+                .filter(migration -> !applied.contains(migration.version()))
+                .toList();
+
+        if (pending.isEmpty()) {
+            log.debug("Схема БД актуальна, применено миграций: {}", applied.size());
+            StartupTimeline.mark("Схема БД проверена");
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Migration migration : pending) {
+            long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> apply(migration));
+            log.info("Применена миграция V{} ({}) за {} мс", migration.version(), migration.description(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        // Обновляем статистику планировщика после создания индексов
+        jdbcTemplate.execute("PRAGMA optimize");
+        StartupTimeline.mark("Миграции схемы применены");
+    }
+
+    private void apply(Migration migration) {
+        for (String statement : readStatements(migration.resource())) {
+            jdbcTemplate.execute(statement);
+        }
+        jdbcTemplate.update("INSERT INTO schema_version (version, description, installed_at) VALUES (?, ?, ?)",
+                migration.version(), migration.description(), LocalDateTime.now().toString());
+    }
+
+    private List<Migration> findMigrations() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(MIGRATIONS_LOCATION);
+            return Arrays.stream(resources)
+                    .map(this::toMigration)
+                    .sorted(Comparator.comparingInt(Migration::version))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать миграции схемы", e);
+        }
+    }
+
+    private Migration toMigration(Resource resource) {
+        Matcher matcher = MIGRATION_NAME.matcher(String.valueOf(resource.getFilename()));
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Некорректное имя файла миграции: " + resource.getFilename());
+        }
+        return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), resource);
+    }
+
+    /**
+     * Разбивает скрипт на операторы по ';' в конце строки.
+     * Тело CREATE TRIGGER ... BEGIN ... END; считается одним оператором.
+     */
+    private List<String> readStatements(Resource resource) {
+        try {
+            List<String> statements = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean inTrigger = false;
+
+            for (String line : resource.getContentAsString(StandardCharsets.UTF_8).lines().toList()) {
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                if (current.isEmpty()) {
+                    inTrigger = trimmed.toUpperCase().startsWith("CREATE TRIGGER");
+                }
+                current.append(line).append('\n');
+
+                boolean endOfStatement = inTrigger ? trimmed.equalsIgnoreCase("END;") : trimmed.endsWith(";");
+                if (endOfStatement) {
+                    String statement = current.toString().strip();
+                    // Завершающий ';' драйверу не нужен; у триггера он остается частью END
+                    statements.add(inTrigger ? statement : statement.substring(0, statement.length() - 1));
+                    current.setLength(0);
+                }
+            }
+            if (!current.toString().isBlank()) {
+                statements.add(current.toString().strip());
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать миграцию " + resource.getFilename(), e);
+        }
+    }
+}
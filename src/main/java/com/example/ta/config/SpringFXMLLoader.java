@@ -8,6 +8,8 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 
 @Component
 @Slf4j
@@ -15,21 +17,49 @@ public class SpringFXMLLoader {
 
     private final ApplicationContext context;
 
+    // Загруженные представления по пути FXML; обращение только из FX-потока
+    private final Map<String, View> viewCache = new HashMap<>();
+
+    /**
+     * Загруженное представление: корневой узел и его контроллер (singleton-бин Spring)
+     */
+    public record View(Parent root, Object controller) {
+    }
+
     public SpringFXMLLoader(ApplicationContext context) {
         this.context = context;
     }
 
     public Parent load(String fxmlPath) throws IOException {
-        FXMLLoader loader = new FXMLLoader();
-        loader.setControllerFactory(context::getBean);
+        return createLoader(fxmlPath).load();
+    }
 
-        URL fxmlUrl = getClass().getResource(fxmlPath);
-        if (fxmlUrl == null) {
-            throw new IOException("FXML file not found: " + fxmlPath);
+    /**
+     * Представление из кэша. При первом обращении FXML разбирается и initialize() контроллера выполняется
+     * один раз; повторные обращения возвращают те же узлы без разбора FXML.
+     */
+    public View loadCached(String fxmlPath) throws IOException {
+        View view = viewCache.get(fxmlPath);
+        if (view == null) {
+            long startTime = System.nanoTime();
+            FXMLLoader loader = createLoader(fxmlPath);
+            Parent root = loader.load();
+            view = new View(root, loader.getController());
+            viewCache.put(fxmlPath, view);
+            log.debug("Представление {} загружено в кэш за {} мс", fxmlPath, (System.nanoTime() - startTime) / 1_000_000);
         }
+        return view;
+    }
 
-        loader.setLocation(fxmlUrl);
-        return loader.load();
+    public boolean isCached(String fxmlPath) {
+        return viewCache.containsKey(fxmlPath);
+    }
+
+    /**
+     * Удалить представление из кэша; следующее обращение загрузит FXML заново
+     */
+    public void evict(String fxmlPath) {
+        viewCache.remove(fxmlPath);
     }
 
     public FXMLLoader getLoader(String fxmlPath) {
@@ -43,4 +73,16 @@ public class SpringFXMLLoader {
 
         return loader;
     }
-}
\ No newline at end of file
+
+    private FXMLLoader createLoader(String fxmlPath) throws IOException {
+        URL fxmlUrl = getClass().getResource(fxmlPath);
+        if (fxmlUrl == null) {
+            throw new IOException("FXML file not found: " + fxmlPath);
+        }
+
+        FXMLLoader loader = new FXMLLoader();
+        loader.setControllerFactory(context::getBean);
+        loader.setLocation(fxmlUrl);
+        return loader;
+    }
+}
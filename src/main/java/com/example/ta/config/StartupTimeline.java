@@ -0,0 +1,42 @@
+package com.example.ta.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Хронология запуска приложения.
+ * Этапы отмечаются по мере выполнения из разных потоков (JavaFX, инициализация Spring, построение Hibernate);
+ * после показа главного окна хронология выводится в лог одним блоком — время от старта JVM и от предыдущего этапа.
+ */
+@Slf4j
+public final class StartupTimeline {
+
+    private record Phase(String name, String thread, long uptimeMillis) {
+    }
+
+    private static final List<Phase> PHASES = new CopyOnWriteArrayList<>();
+
+    private StartupTimeline() {
+    }
+
+    public static void mark(String phase) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        PHASES.add(new Phase(phase, Thread.currentThread().getName(), uptime));
+        log.debug("Запуск: {} ({} мс от старта JVM)", phase, uptime);
+    }
+
+    public static void logSummary() {
+        StringBuilder summary = new StringBuilder("Хронология запуска (мс от старта JVM, +мс от предыдущего этапа):");
+        long previous = 0;
+        for (Phase phase : PHASES.stream().sorted(Comparator.comparingLong(Phase::uptimeMillis)).toList()) {
+            summary.append(String.format("%n%8d  +%-6d [%s] %s",
+                    phase.uptimeMillis(), phase.uptimeMillis() - previous, phase.thread(), phase.name()));
+            previous = phase.uptimeMillis();
+        }
+        log.info(summary.toString());
+    }
+}
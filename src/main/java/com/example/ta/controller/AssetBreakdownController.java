@@ -0,0 +1,218 @@
+package com.example.ta.controller;
+
+import com.example.ta.domain.AssetBreakdown;
+import com.example.ta.domain.PeriodType;
+import com.example.ta.events.TradeDataChangedEvent;
+import com.example.ta.service.BackgroundLoadService;
+import com.example.ta.service.TradeService;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.function.Function;
+
+/**
+ * Разбивка закрытых сделок по активам за период.
+ * Итоги рассчитываются в фоне параллельно по колоночному снимку; таблица сортируется по любой колонке.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AssetBreakdownController implements Initializable, CachedView {
+
+    @FXML private ComboBox<PeriodType> periodTypeComboBox;
+    @FXML private DatePicker startDatePicker;
+    @FXML private DatePicker endDatePicker;
+    @FXML private Label assetCountLabel;
+
+    @FXML private TableView<AssetBreakdown> assetTable;
+    @FXML private TableColumn<AssetBreakdown, String> assetColumn;
+    @FXML private TableColumn<AssetBreakdown, Integer> tradesColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> winRateColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> totalProfitColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> avgProfitColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> volumeColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> bestTradeColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> worstTradeColumn;
+    @FXML private TableColumn<AssetBreakdown, BigDecimal> drawdownColumn;
+
+    private final TradeService tradeService;
+    private final BackgroundLoadService backgroundLoadService;
+
+    private final ObservableList<AssetBreakdown> assets = FXCollections.observableArrayList();
+    private boolean loaded;
+    private LocalDate currentStartDate;
+    private LocalDate currentEndDate;
+
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        log.info("Инициализация AssetBreakdownController");
+
+        setupTable();
+        setupPeriodControls();
+        loadBreakdown();
+
+        log.info("AssetBreakdownController инициализирован");
+    }
+
+    private void setupTable() {
+        assetColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getAssetName()));
+        tradesColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getTotalTrades()));
+        setupValueColumn(winRateColumn, AssetBreakdown::getWinRate, value -> String.format("%.1f%%", value), false);
+        setupValueColumn(totalProfitColumn, AssetBreakdown::getTotalProfit, value -> String.format("%.2f $", value), true);
+        setupValueColumn(avgProfitColumn, AssetBreakdown::getAvgProfit, value -> String.format("%.2f $", value), true);
+        setupValueColumn(volumeColumn, AssetBreakdown::getTotalVolume, value -> String.format("%.2f $", value), false);
+        setupValueColumn(bestTradeColumn, AssetBreakdown::getBestTrade, value -> String.format("%.2f $", value), true);
+        setupValueColumn(worstTradeColumn, AssetBreakdown::getWorstTrade, value -> String.format("%.2f $", value), true);
+        setupValueColumn(drawdownColumn, AssetBreakdown::getMaxDrawdown, value -> String.format("%.2f $", value), false);
+
+        // Колонки хранят числа, поэтому сортировка по щелчку на заголовке — числовая, а не по строке
+        SortedList<AssetBreakdown> sortedAssets = new SortedList<>(assets);
+        sortedAssets.comparatorProperty().bind(assetTable.comparatorProperty());
+        assetTable.setItems(sortedAssets);
+        assetTable.setPlaceholder(new Label("Нет закрытых сделок за выбранный период"));
+    }
+
+    private void setupValueColumn(TableColumn<AssetBreakdown, BigDecimal> column,
+                                  Function<AssetBreakdown, BigDecimal> value,
+                                  Function<BigDecimal, String> formatter,
+                                  boolean colorBySign) {
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(value.apply(data.getValue())));
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(BigDecimal item, boolean empty) {
+                super.updateItem(item, empty);
+                setAlignment(Pos.CENTER);
+                if (empty || item == null) {
+                    setText(null);
+                    setStyle("");
+                    return;
+                }
+                setText(formatter.apply(item));
+                if (colorBySign && item.signum() != 0) {
+                    setStyle(item.signum() > 0 ? "-fx-text-fill: #27ae60; -fx-font-weight: bold;"
+                            : "-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+                } else {
+                    setStyle("");
+                }
+            }
+        });
+    }
+
+    private void setupPeriodControls() {
+        periodTypeComboBox.setItems(FXCollections.observableArrayList(PeriodType.values()));
+        periodTypeComboBox.setValue(PeriodType.ALL_TIME);
+        periodTypeComboBox.setOnAction(event -> updateDatePickersForPeriod(periodTypeComboBox.getValue()));
+        updateDatePickersForPeriod(PeriodType.ALL_TIME);
+    }
+
+    private void updateDatePickersForPeriod(PeriodType periodType) {
+        boolean isCustomPeriod = periodType == PeriodType.CUSTOM;
+        startDatePicker.setDisable(!isCustomPeriod);
+        endDatePicker.setDisable(!isCustomPeriod);
+
+        if (periodType == PeriodType.ALL_TIME) {
+            startDatePicker.setValue(null);
+            endDatePicker.setValue(null);
+        } else if (!isCustomPeriod) {
+            startDatePicker.setValue(periodType.getStartDate());
+            endDatePicker.setValue(periodType.getEndDate());
+        }
+    }
+
+    @FXML
+    private void calculateBreakdown() {
+        log.info("Запрос на расчет разбивки по активам");
+        loadBreakdown();
+    }
+
+    private void loadBreakdown() {
+        if (periodTypeComboBox == null) {
+            log.warn("AssetBreakdownController еще не инициализирован, пропускаем загрузку");
+            return;
+        }
+
+        PeriodType period = periodTypeComboBox.getValue() != null ? periodTypeComboBox.getValue() : PeriodType.ALL_TIME;
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        if (period == PeriodType.CUSTOM) {
+            startDate = startDatePicker.getValue();
+            endDate = endDatePicker.getValue();
+            if (startDate == null || endDate == null) {
+                showAlert("Ошибка", "Для произвольного периода необходимо указать начальную и конечную даты");
+                return;
+            }
+            if (startDate.isAfter(endDate)) {
+                showAlert("Ошибка", "Начальная дата не может быть позже конечной");
+                return;
+            }
+        } else if (period != PeriodType.ALL_TIME) {
+            startDate = period.getStartDate();
+            endDate = period.getEndDate();
+        }
+
+        LocalDate periodStart = startDate;
+        LocalDate periodEnd = endDate;
+        assetCountLabel.setText("Расчет...");
+        backgroundLoadService.submit("asset-breakdown",
+                () -> tradeService.getAssetBreakdown(periodStart, periodEnd),
+                breakdown -> applyBreakdown(breakdown, period, periodStart, periodEnd),
+                e -> {
+                    assetCountLabel.setText("");
+                    showAlert("Ошибка", "Не удалось рассчитать разбивку по активам: " + e.getMessage());
+                });
+    }
+
+    private void applyBreakdown(List<AssetBreakdown> breakdown, PeriodType period,
+                                LocalDate startDate, LocalDate endDate) {
+        loaded = true;
+        currentStartDate = startDate;
+        currentEndDate = endDate;
+        assets.setAll(breakdown);
+        assetCountLabel.setText("Активов: " + breakdown.size());
+        log.info("Разбивка по активам за {} загружена: {} активов", period.getDisplayName(), breakdown.size());
+    }
+
+    @Override
+    public void onViewShown() {
+        // Границы относительного периода сдвигаются со сменой дня
+        PeriodType period = periodTypeComboBox.getValue();
+        if (loaded && period != null && period != PeriodType.CUSTOM
+                && !Objects.equals(period.getEndDate(), currentEndDate)) {
+            loadBreakdown();
+        }
+    }
+
+    @EventListener
+    public void onTradeDataChanged(TradeDataChangedEvent event) {
+        // Разбивка строится по закрытым сделкам текущего периода
+        if (loaded && !event.affectsClosedTrades(currentStartDate, currentEndDate)) {
+            return;
+        }
+        log.info("Получено событие изменения данных сделок, обновляем разбивку по активам");
+        loadBreakdown();
+    }
+
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ta.controller;
+
+/**
+ * Контроллер представления, которое MainController хранит в кэше между переходами.
+ * initialize() выполняется один раз при загрузке FXML, onViewShown — при каждом повторном показе:
+ * в нем обновляются только устаревшие данные.
+ */
+public interface CachedView {
+
+    void onViewShown();
+}
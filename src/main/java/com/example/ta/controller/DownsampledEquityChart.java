@@ -0,0 +1,234 @@
+package com.example.ta.controller;
+
+import com.example.ta.domain.TradeDailyRollup;
+import com.example.ta.service.TradeColumnStore;
+import com.example.ta.service.TradeColumns;
+import com.example.ta.util.FixedPointMoney;
+import com.example.ta.util.SeriesDownsampler;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.ScrollEvent;
+import javafx.util.StringConverter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кривая эквити на числовой оси дат с прореживанием до ширины графика.
+ * На графике одновременно не больше ~4 точек на пиксель видимой области;
+ * при изменении размера и масштаба (колесо мыши, двойной щелчок — сброс) ряд пересчитывается из полного набора точек.
+ */
+@Slf4j
+public class DownsampledEquityChart {
+
+    private static final double ZOOM_FACTOR = 1.25;
+    // Минимальная видимая ширина оси — около 15 минут
+    private static final double MIN_VISIBLE_DAYS = 1.0 / 96;
+
+    /**
+     * Точки кривой: x — дата в днях от эпохи (с долей дня по времени создания), y — накопленный P/L
+     */
+    public record Points(double[] x, double[] y) {
+
+        static final Points EMPTY = new Points(new double[0], new double[0]);
+
+        public int size() {
+            return x.length;
+        }
+
+        /**
+         * Точки из кривой колоночного снимка; первая точка — нулевой P/L в начале дня первой сделки
+         */
+        public static Points of(TradeColumnStore.EquityCurve curve) {
+            if (curve.isEmpty()) {
+                return EMPTY;
+            }
+
+            TradeColumns columns = curve.columns();
+            int[] tradeIndexes = curve.tradeIndexes();
+            double[] x = new double[tradeIndexes.length + 1];
+            double[] y = new double[tradeIndexes.length + 1];
+
+            x[0] = columns.tradeDay(tradeIndexes[0]);
+            y[0] = 0;
+            for (int point = 0; point < tradeIndexes.length; point++) {
+                int index = tradeIndexes[point];
+                double value = columns.tradeDay(index) + dayFraction(columns, index);
+                // Время создания внутри дня может не совпадать с порядком сделок — ось x должна быть неубывающей
+                x[point + 1] = Math.max(x[point], value);
+                y[point + 1] = FixedPointMoney.toDouble(curve.cumulativeProfit()[point], FixedPointMoney.PRICE_SCALE);
+            }
+            return new Points(x, y);
+        }
+
+        /**
+         * Точки по дневным агрегатам: накопленный P/L на середину каждого дня с закрытыми сделками
+         */
+        public static Points ofDaily(List<TradeDailyRollup> rollups) {
+            if (rollups.isEmpty()) {
+                return EMPTY;
+            }
+
+            double[] x = new double[rollups.size() + 1];
+            double[] y = new double[rollups.size() + 1];
+            x[0] = rollups.getFirst().getTradeDate().toEpochDay();
+            y[0] = 0;
+
+            long equity = 0;
+            for (int day = 0; day < rollups.size(); day++) {
+                TradeDailyRollup rollup = rollups.get(day);
+                equity = FixedPointMoney.add(equity,
+                        FixedPointMoney.fromBigDecimal(rollup.getTotalProfit(), FixedPointMoney.PRICE_SCALE));
+                x[day + 1] = rollup.getTradeDate().toEpochDay() + 0.5;
+                y[day + 1] = FixedPointMoney.toDouble(equity, FixedPointMoney.PRICE_SCALE);
+            }
+            return new Points(x, y);
+        }
+
+        private static double dayFraction(TradeColumns columns, int index) {
+            LocalDateTime createdAt = columns.createdAt(index);
+            if (createdAt.toLocalDate().toEpochDay() != columns.tradeDay(index)) {
+                return 0;
+            }
+            return createdAt.toLocalTime().toSecondOfDay() / 86_400.0;
+        }
+    }
+
+    private final LineChart<Number, Number> chart;
+    private final NumberAxis xAxis;
+    private final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+
+    private Points points = Points.EMPTY;
+    private boolean resampleScheduled;
+
+    public DownsampledEquityChart(LineChart<Number, Number> chart) {
+        this.chart = chart;
+        this.xAxis = (NumberAxis) chart.getXAxis();
+
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        xAxis.setAutoRanging(false);
+        xAxis.setForceZeroInRange(false);
+        ((NumberAxis) chart.getYAxis()).setForceZeroInRange(false);
+
+        xAxis.widthProperty().addListener((obs, oldValue, newValue) -> scheduleResample());
+        xAxis.lowerBoundProperty().addListener((obs, oldValue, newValue) -> scheduleResample());
+        xAxis.upperBoundProperty().addListener((obs, oldValue, newValue) -> scheduleResample());
+
+        chart.addEventHandler(ScrollEvent.SCROLL, this::onScroll);
+        chart.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                resetZoom();
+            }
+        });
+    }
+
+    /**
+     * Показать кривую; масштаб сбрасывается на весь период
+     */
+    public void show(Points newPoints, String name, StringConverter<Number> dateLabels) {
+        points = newPoints;
+        series.setName(name);
+        xAxis.setTickLabelFormatter(dateLabels);
+
+        if (points.size() == 0) {
+            clear();
+            return;
+        }
+        if (!chart.getData().contains(series)) {
+            chart.setData(FXCollections.observableArrayList(List.of(series)));
+        }
+        resetZoom();
+        resample();
+
+        chart.lookupAll(".chart-series-line").forEach(node ->
+                node.setStyle("-fx-stroke: #3498db; -fx-stroke-width: 2px;"));
+    }
+
+    public void clear() {
+        points = Points.EMPTY;
+        series.getData().clear();
+        chart.getData().clear();
+    }
+
+    private void resetZoom() {
+        if (points.size() == 0) {
+            return;
+        }
+        double lower = points.x()[0];
+        double upper = points.x()[points.size() - 1];
+        if (upper - lower < MIN_VISIBLE_DAYS) {
+            upper = lower + 1;
+        }
+        setVisibleRange(lower, upper);
+    }
+
+    private void onScroll(ScrollEvent event) {
+        if (points.size() == 0 || event.getDeltaY() == 0) {
+            return;
+        }
+
+        double anchor = xAxis.getValueForDisplay(xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX())
+                .doubleValue();
+        double factor = event.getDeltaY() > 0 ? 1 / ZOOM_FACTOR : ZOOM_FACTOR;
+        double lower = anchor - (anchor - xAxis.getLowerBound()) * factor;
+        double upper = anchor + (xAxis.getUpperBound() - anchor) * factor;
+
+        double dataLower = points.x()[0];
+        double dataUpper = Math.max(points.x()[points.size() - 1], dataLower + MIN_VISIBLE_DAYS);
+        lower = Math.max(dataLower, lower);
+        upper = Math.min(dataUpper, upper);
+        if (upper - lower < MIN_VISIBLE_DAYS) {
+            return;
+        }
+
+        setVisibleRange(lower, upper);
+        event.consume();
+    }
+
+    private void setVisibleRange(double lower, double upper) {
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(upper);
+        xAxis.setTickUnit((upper - lower) / 8);
+    }
+
+    // Границы оси меняются по одной — пересчитываем один раз после всех изменений
+    private void scheduleResample() {
+        if (resampleScheduled || points.size() == 0) {
+            return;
+        }
+        resampleScheduled = true;
+        Platform.runLater(() -> {
+            resampleScheduled = false;
+            resample();
+        });
+    }
+
+    private void resample() {
+        if (points.size() == 0) {
+            return;
+        }
+
+        double[] x = points.x();
+        double[] y = points.y();
+        // Соседние точки за границами видимой области нужны, чтобы линия доходила до краев графика
+        int from = Math.max(0, SeriesDownsampler.lowerBound(x, xAxis.getLowerBound()) - 1);
+        int to = Math.min(x.length, SeriesDownsampler.lowerBound(x, Math.nextUp(xAxis.getUpperBound())) + 1);
+        int pixels = (int) Math.max(1, xAxis.getWidth() > 0 ? xAxis.getWidth() : chart.getWidth());
+
+        int[] indexes = SeriesDownsampler.minMaxIndexes(x, y, from, to, pixels);
+        List<XYChart.Data<Number, Number>> data = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            data.add(new XYChart.Data<>(x[index], y[index]));
+        }
+        series.getData().setAll(data);
+
+        log.debug("Кривая эквити: показано {} из {} точек при ширине {} px", indexes.length, x.length, pixels);
+    }
+}
@@ -4,11 +4,10 @@ import com.example.ta.config.SpringFXMLLoader;
 import com.example.ta.domain.Trade;
 import com.example.ta.events.NavigationEvent;
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -16,12 +15,14 @@ import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -30,6 +31,22 @@ import java.util.ResourceBundle;
 @RequiredArgsConstructor
 public class MainController implements Initializable {
 
+    private static final String WELCOME_VIEW = "/com/example/ta/welcome-page.fxml";
+    private static final String TRADES_LIST_VIEW = "/com/example/ta/trades-list-view.fxml";
+    private static final String TRADE_FORM_VIEW = "/com/example/ta/trade-form-view.fxml";
+    private static final String TRADE_DETAILS_VIEW = "/com/example/ta/trade-details.fxml";
+    private static final String STATISTICS_VIEW = "/com/example/ta/statistics-dashboard.fxml";
+    private static final String ASSET_BREAKDOWN_VIEW = "/com/example/ta/asset-breakdown-view.fxml";
+    private static final String POSITION_CALCULATOR_VIEW = "/com/example/ta/position-calculator.fxml";
+    private static final String AVERAGING_CALCULATOR_VIEW = "/com/example/ta/averaging-calculator.fxml";
+
+    // Порядок заблаговременной загрузки: сначала самые тяжелые и часто открываемые
+    private static final List<String> PREWARM_VIEWS = List.of(TRADES_LIST_VIEW, STATISTICS_VIEW,
+            ASSET_BREAKDOWN_VIEW, TRADE_FORM_VIEW, TRADE_DETAILS_VIEW,
+            POSITION_CALCULATOR_VIEW, AVERAGING_CALCULATOR_VIEW);
+
+    private static final long PREWARM_STEP_MS = 50;
+
     @FXML
     private Button homeButton;
     @FXML
@@ -39,6 +56,8 @@ public class MainController implements Initializable {
     @FXML
     private Button statisticsButton;
     @FXML
+    private Button assetBreakdownButton;
+    @FXML
     private Button positionCalculatorButton;
     @FXML
     private Button averagingCalculatorButton;
@@ -59,7 +78,11 @@ public class MainController implements Initializable {
 
     private final SpringFXMLLoader springFXMLLoader;
 
+    @Value("${trading.views.prewarm:true}")
+    private boolean prewarmEnabled;
+
     private Button currentActiveButton;
+    private String currentViewPath;
     private List<Button> navigationButtons;
 
     private Timeline timelineTimer;
@@ -70,7 +93,7 @@ public class MainController implements Initializable {
 
         // Добавляем новую кнопку в список навигационных кнопок
         navigationButtons = List.of(homeButton, tradesListButton, addTradeButton,
-                statisticsButton, positionCalculatorButton, averagingCalculatorButton);
+                statisticsButton, assetBreakdownButton, positionCalculatorButton, averagingCalculatorButton);
 
         setupButtonHoverEffects();
 
@@ -78,6 +101,10 @@ public class MainController implements Initializable {
 
         showHome();
 
+        if (prewarmEnabled) {
+            prewarmViews();
+        }
+
         updateStatus("Приложение запущено");
 
         log.info("MainController инициализирован");
@@ -94,6 +121,7 @@ public class MainController implements Initializable {
             case ADD_TRADE -> showAddTrade();
             case VIEW_TRADES -> showTradesList();
             case STATISTICS -> showStatistics();
+            case ASSET_BREAKDOWN -> showAssetBreakdown();
             case HOME -> showHome();
             case POSITION_CALCULATOR -> showPositionCalculator();
             case VIEW_TRADE_DETAILS -> showTradeDetails(event.getTrade());
@@ -105,20 +133,17 @@ public class MainController implements Initializable {
         try {
             log.info("Показываем форму редактирования сделки: {}", trade.getId());
 
-            FXMLLoader loader = springFXMLLoader.getLoader("/com/example/ta/trade-form-view.fxml");
+            SpringFXMLLoader.View view = springFXMLLoader.loadCached(TRADE_FORM_VIEW);
 
-            Node content = loader.load();
-
-            TradeFormController controller = loader.getController();
+            TradeFormController controller = (TradeFormController) view.controller();
             controller.setEditMode(trade);
 
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(content);
+            showView(TRADE_FORM_VIEW, view);
 
             setActiveButton(addTradeButton);
 
             updateStatus("Редактирование сделки: " + trade.getAssetName());
-            log.info("Загружен контент для редактирования: /com/example/ta/trade-form-view.fxml");
+            log.info("Показан контент для редактирования: {}", TRADE_FORM_VIEW);
 
         } catch (Exception e) {
             log.error("Ошибка при загрузке формы редактирования", e);
@@ -130,18 +155,15 @@ public class MainController implements Initializable {
         try {
             log.info("Показываем детали сделки: {}", trade.getId());
 
-            FXMLLoader loader = springFXMLLoader.getLoader("/com/example/ta/trade-details.fxml");
-
-            Node content = loader.load();
+            SpringFXMLLoader.View view = springFXMLLoader.loadCached(TRADE_DETAILS_VIEW);
 
-            TradeDetailsController controller = loader.getController();
+            TradeDetailsController controller = (TradeDetailsController) view.controller();
             controller.setTrade(trade);
 
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(content);
+            showView(TRADE_DETAILS_VIEW, view);
 
             updateStatus("Отображаются детали сделки: " + trade.getAssetName());
-            log.info("Загружен контент: /com/example/ta/trade-details.fxml");
+            log.info("Показан контент: {}", TRADE_DETAILS_VIEW);
 
         } catch (Exception e) {
             log.error("Ошибка при загрузке деталей сделки", e);
@@ -218,21 +240,57 @@ public class MainController implements Initializable {
 
     private void loadContent(String fxmlPath) {
         try {
-            Node content = springFXMLLoader.load(fxmlPath);
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(content);
-            log.info("Загружен контент: {}", fxmlPath);
+            boolean cached = springFXMLLoader.isCached(fxmlPath);
+            SpringFXMLLoader.View view = springFXMLLoader.loadCached(fxmlPath);
+            showView(fxmlPath, view);
+
+            if (!cached) {
+                log.info("Загружен контент: {}", fxmlPath);
+            } else if (view.controller() instanceof CachedView cachedView) {
+                // Повторный показ: узлы и данные уже есть, обновляется только устаревшее
+                cachedView.onViewShown();
+                log.debug("Показан контент из кэша: {}", fxmlPath);
+            }
         } catch (Exception e) {
             log.error("Ошибка при загрузке контента: {}", fxmlPath, e);
             updateStatus("Ошибка при загрузке: " + fxmlPath);
         }
     }
 
+    private void showView(String fxmlPath, SpringFXMLLoader.View view) {
+        contentArea.getChildren().setAll(view.root());
+        currentViewPath = fxmlPath;
+    }
+
+    /**
+     * Загрузка остальных представлений в кэш после запуска: по одному на кадр, чтобы не задерживать интерфейс.
+     * Представления строятся в FX-потоке — элементы управления JavaFX нельзя создавать в других потоках,
+     * а initialize() контроллеров сами запускают загрузку данных в фоне.
+     */
+    private void prewarmViews() {
+        Iterator<String> pending = PREWARM_VIEWS.iterator();
+        PauseTransition step = new PauseTransition(Duration.millis(PREWARM_STEP_MS));
+        step.setOnFinished(event -> {
+            String fxmlPath = pending.next();
+            try {
+                springFXMLLoader.loadCached(fxmlPath);
+            } catch (Exception e) {
+                log.warn("Не удалось заранее загрузить представление {}: {}", fxmlPath, e.getMessage());
+            }
+            if (pending.hasNext()) {
+                step.playFromStart();
+            } else {
+                log.info("Представления загружены в кэш: {}", PREWARM_VIEWS.size());
+            }
+        });
+        step.play();
+    }
+
     @FXML
     private void showHome() {
         log.info("Показываем главную страницу");
         setActiveButton(homeButton);
-        loadContent("/com/example/ta/welcome-page.fxml");
+        loadContent(WELCOME_VIEW);
         updateStatus("Главная страница");
     }
 
@@ -240,7 +298,7 @@ public class MainController implements Initializable {
     private void showTradesList() {
         log.info("Показываем список сделок");
         setActiveButton(tradesListButton);
-        loadContent("/com/example/ta/trades-list-view.fxml");
+        loadContent(TRADES_LIST_VIEW);
         updateStatus("Список сделок");
     }
 
@@ -248,7 +306,7 @@ public class MainController implements Initializable {
     private void showAddTrade() {
         log.info("Показываем форму добавления сделки");
         setActiveButton(addTradeButton);
-        loadContent("/com/example/ta/trade-form-view.fxml");
+        loadContent(TRADE_FORM_VIEW);
         updateStatus("Форма добавления новой сделки");
     }
 
@@ -256,15 +314,23 @@ public class MainController implements Initializable {
     private void showStatistics() {
         log.info("Показываем статистику");
         setActiveButton(statisticsButton);
-        loadContent("/com/example/ta/statistics-dashboard.fxml");
+        loadContent(STATISTICS_VIEW);
         updateStatus("Статистика торгов");
     }
 
+    @FXML
+    private void showAssetBreakdown() {
+        log.info("Показываем разбивку по активам");
+        setActiveButton(assetBreakdownButton);
+        loadContent(ASSET_BREAKDOWN_VIEW);
+        updateStatus("Разбивка по активам");
+    }
+
     @FXML
     private void showPositionCalculator() {
         log.info("Показываем калькулятор позиции");
         setActiveButton(positionCalculatorButton);
-        loadContent("/com/example/ta/position-calculator.fxml");
+        loadContent(POSITION_CALCULATOR_VIEW);
         updateStatus("Калькулятор позиции");
     }
 
@@ -275,7 +341,7 @@ public class MainController implements Initializable {
     private void showAveragingCalculator() {
         log.info("Показываем калькулятор усреднения");
         setActiveButton(averagingCalculatorButton);
-        loadContent("/com/example/ta/averaging-calculator.fxml");
+        loadContent(AVERAGING_CALCULATOR_VIEW);
         updateStatus("Калькулятор усреднения позиции");
     }
 
@@ -283,6 +349,11 @@ public class MainController implements Initializable {
     private void refreshCurrentView() {
         log.info("Обновляем текущий вид");
 
+        // Явное обновление строит представление заново и перечитывает все его данные
+        if (currentViewPath != null) {
+            springFXMLLoader.evict(currentViewPath);
+        }
+
         // Определяем какая кнопка активна и перезагружаем соответствующий контент
         if (currentActiveButton == homeButton) {
             showHome();
@@ -292,6 +363,8 @@ public class MainController implements Initializable {
             showAddTrade();
         } else if (currentActiveButton == statisticsButton) {
             showStatistics();
+        } else if (currentActiveButton == assetBreakdownButton) {
+            showAssetBreakdown();
         } else if (currentActiveButton == positionCalculatorButton) {
             showPositionCalculator();
         } else if (currentActiveButton == averagingCalculatorButton) {
@@ -318,6 +391,10 @@ public class MainController implements Initializable {
         showStatistics();
     }
 
+    public void navigateToAssetBreakdown() {
+        showAssetBreakdown();
+    }
+
     public void navigateToPositionCalculator() {
         showPositionCalculator();
     }
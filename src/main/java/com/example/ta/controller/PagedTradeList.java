@@ -0,0 +1,215 @@
+package com.example.ta.controller;
+
+import com.example.ta.domain.Trade;
+import javafx.collections.ObservableListBase;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Ленивый список сделок для TableView.
+ * Загружает сделки окнами по мере прокрутки (keyset-пагинация по trade_date, id)
+ * и держит в памяти не больше заданного количества строк.
+ * Окна читаются в фоне: пока окно загружается, его строки — пустые заглушки (null), после загрузки таблица
+ * получает событие замены строк. Следующее окно по направлению прокрутки подгружается заранее.
+ * Обращение к списку — только из FX-потока.
+ */
+@Slf4j
+public class PagedTradeList extends ObservableListBase<Trade> {
+
+    /**
+     * Источник окон сделок (порядок: trade_date DESC, id DESC)
+     */
+    public interface PageSource {
+
+        /**
+         * Окно сделок, следующих за ключом (keyset-пагинация)
+         */
+        List<Trade> loadAfter(LocalDate tradeDate, Long id, int limit);
+
+        /**
+         * Окно сделок по номеру страницы (используется при переходе к еще не посещенной области)
+         */
+        List<Trade> loadPage(int pageIndex, int pageSize);
+    }
+
+    private record PageKey(LocalDate tradeDate, Long id) {
+    }
+
+    private final PageSource source;
+    private final int size;
+    private final int pageSize;
+    private final int maxResidentPages;
+    // Фоновая загрузка окон и возврат результата в FX-поток
+    private final Executor loadExecutor;
+    private final Executor uiExecutor;
+
+    private final Map<Integer, List<Trade>> residentPages = new HashMap<>();
+    // Ключ последней строки каждого загруженного окна — хранится и после вытеснения окна
+    private final Map<Integer, PageKey> lastKeys = new HashMap<>();
+    // Окна, загрузка которых уже запущена
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int lastAccessedPage;
+
+    public PagedTradeList(PageSource source, int size, int pageSize, int maxResidentRows,
+                          Executor loadExecutor, Executor uiExecutor) {
+        this.source = source;
+        this.size = size;
+        this.pageSize = Math.max(1, pageSize);
+        // Запас на окно, подгружаемое заранее
+        this.maxResidentPages = Math.max(3, maxResidentRows / this.pageSize);
+        this.loadExecutor = loadExecutor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    @Override
+    public Trade get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+
+        int pageIndex = index / pageSize;
+        int direction = Integer.compare(pageIndex, lastAccessedPage);
+        lastAccessedPage = pageIndex;
+
+        List<Trade> page = residentPages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+
+        int offset = index % pageSize;
+        prefetch(pageIndex, offset, direction);
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Заменить загруженную строку сделки новым состоянием (позиция в порядке сортировки не должна меняться).
+     * Если окно со сделкой не в памяти, она будет прочитана при загрузке окна.
+     *
+     * @return true, если строка была в памяти и заменена
+     */
+    public boolean replace(Trade trade) {
+        for (Map.Entry<Integer, List<Trade>> entry : residentPages.entrySet()) {
+            List<Trade> page = entry.getValue();
+            for (int offset = 0; offset < page.size(); offset++) {
+                if (page.get(offset).getId().equals(trade.getId())) {
+                    Trade previous = page.set(offset, trade);
+                    beginChange();
+                    nextSet(entry.getKey() * pageSize + offset, previous);
+                    endChange();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Количество строк, находящихся сейчас в памяти
+     */
+    public int getResidentRowCount() {
+        return residentPages.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Окно находится в памяти (его строки не заглушки)
+     */
+    public boolean isPageResident(int pageIndex) {
+        return residentPages.containsKey(pageIndex);
+    }
+
+    // Во второй половине окна заранее загружается соседнее окно по направлению прокрутки
+    private void prefetch(int pageIndex, int offset, int direction) {
+        if (direction >= 0 && offset >= pageSize / 2) {
+            requestPage(pageIndex + 1);
+        } else if (direction < 0 && offset < pageSize / 2) {
+            requestPage(pageIndex - 1);
+        }
+    }
+
+    private void requestPage(int pageIndex) {
+        if (pageIndex < 0 || pageIndex * pageSize >= size
+                || residentPages.containsKey(pageIndex) || !loadingPages.add(pageIndex)) {
+            return;
+        }
+
+        PageKey previousKey = pageIndex > 0 ? lastKeys.get(pageIndex - 1) : null;
+        CompletableFuture
+                .supplyAsync(() -> readPage(pageIndex, previousKey), loadExecutor)
+                .whenCompleteAsync((page, error) -> {
+                    loadingPages.remove(pageIndex);
+                    if (error != null) {
+                        // Заглушки остаются; окно будет запрошено снова при следующем обращении
+                        log.warn("Не удалось загрузить окно сделок {}: {}", pageIndex, error.getMessage());
+                    } else {
+                        onPageLoaded(pageIndex, page, previousKey != null);
+                    }
+                }, uiExecutor);
+    }
+
+    private List<Trade> readPage(int pageIndex, PageKey previousKey) {
+        if (pageIndex == 0) {
+            return source.loadPage(0, pageSize);
+        } else if (previousKey != null) {
+            return source.loadAfter(previousKey.tradeDate(), previousKey.id(), pageSize);
+        } else {
+            return source.loadPage(pageIndex, pageSize);
+        }
+    }
+
+    private void onPageLoaded(int pageIndex, List<Trade> loaded, boolean byKey) {
+        if (!loaded.isEmpty()) {
+            Trade last = loaded.get(loaded.size() - 1);
+            lastKeys.put(pageIndex, new PageKey(last.getTradeDate(), last.getId()));
+        }
+
+        // Копия: строки окна заменяются на месте при изменении сделок
+        List<Trade> page = new ArrayList<>(loaded);
+        residentPages.put(pageIndex, page);
+        evictDistantPages(lastAccessedPage);
+
+        log.debug("Загружено окно сделок {} ({} строк, {} по ключу), в памяти {} окон",
+                pageIndex, page.size(), byKey ? "поиск" : "смещение", residentPages.size());
+
+        // Заглушки окна заменяются загруженными строками
+        int from = pageIndex * pageSize;
+        int to = Math.min(size, from + pageSize);
+        beginChange();
+        for (int index = from; index < to; index++) {
+            nextSet(index, null);
+        }
+        endChange();
+    }
+
+    /**
+     * Вытесняет окна, наиболее удаленные от текущей позиции прокрутки
+     */
+    private void evictDistantPages(int currentPage) {
+        while (residentPages.size() > maxResidentPages) {
+            int farthest = currentPage;
+            for (int pageIndex : residentPages.keySet()) {
+                if (Math.abs(pageIndex - currentPage) > Math.abs(farthest - currentPage)) {
+                    farthest = pageIndex;
+                }
+            }
+            if (farthest == currentPage) {
+                return;
+            }
+            residentPages.remove(farthest);
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.example.ta.controller;
 
+import com.example.ta.domain.PerformanceMetrics;
 import com.example.ta.domain.PeriodType;
-import com.example.ta.domain.Trade;
 import com.example.ta.domain.TradeStatistics;
 import com.example.ta.events.TradeDataChangedEvent;
+import com.example.ta.service.BackgroundLoadService;
 import com.example.ta.service.ExcelExportService;
+import com.example.ta.service.ExportJob;
 import com.example.ta.service.TradeService;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.chart.LineChart;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -22,16 +29,20 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Objects;
 import java.util.ResourceBundle;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class StatisticsController implements Initializable {
+public class StatisticsController implements Initializable, CachedView {
+
+    private static final long CUSTOM_RANGE_RELOAD_DELAY_MS = 400;
 
     @FXML private ComboBox<PeriodType> periodTypeComboBox;
     @FXML private DatePicker startDatePicker;
@@ -47,11 +58,24 @@ public class StatisticsController implements Initializable {
     @FXML private Label profitableTradesStatLabel;
     @FXML private Label losingTradesStatLabel;
 
-    @FXML private LineChart<String, Number> equityCurveChart;
+    @FXML private Label maxDrawdownStatLabel;
+    @FXML private Label drawdownDurationStatLabel;
+    @FXML private Label profitFactorStatLabel;
+    @FXML private Label expectancyStatLabel;
+    @FXML private Label avgWinLossStatLabel;
+    @FXML private Label payoffRatioStatLabel;
+    @FXML private Label sharpeRatioStatLabel;
+    @FXML private Label sortinoRatioStatLabel;
+    @FXML private Label streaksStatLabel;
+
+    @FXML private LineChart<Number, Number> equityCurveChart;
 
     private final TradeService tradeService;
     private final ExcelExportService excelExportService;
+    private final BackgroundLoadService backgroundLoadService;
 
+    private DownsampledEquityChart equityChart;
+    private PauseTransition customRangeReload;
     private TradeStatistics currentStatistics;
     private LocalDate currentStartDate;
     private LocalDate currentEndDate;
@@ -60,6 +84,7 @@ public class StatisticsController implements Initializable {
     public void initialize(URL url, ResourceBundle resourceBundle) {
         log.info("Инициализация StatisticsController");
 
+        equityChart = new DownsampledEquityChart(equityCurveChart);
         setupPeriodControls();
         loadCurrentStatistics();
 
@@ -76,6 +101,43 @@ public class StatisticsController implements Initializable {
         });
 
         updateDatePickersForPeriod(PeriodType.ALL_TIME);
+
+        // Произвольный период: основные показатели обновляются сразу при выборе дат,
+        // расширенные метрики и кривая эквити — после паузы в выборе
+        customRangeReload = new PauseTransition(Duration.millis(CUSTOM_RANGE_RELOAD_DELAY_MS));
+        customRangeReload.setOnFinished(event -> loadCurrentStatistics());
+        startDatePicker.valueProperty().addListener((obs, oldValue, newValue) -> onCustomRangeChanged());
+        endDatePicker.valueProperty().addListener((obs, oldValue, newValue) -> onCustomRangeChanged());
+    }
+
+    private void onCustomRangeChanged() {
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (periodTypeComboBox.getValue() != PeriodType.CUSTOM || startDate == null || endDate == null
+                || startDate.isAfter(endDate)) {
+            return;
+        }
+
+        if (tradeService.isRangeStatisticsReady()) {
+            try {
+                // Построенный индекс диапазонов дат отвечает из памяти за микросекунды — можно считать в потоке UI
+                updateStatisticsUI(tradeService.getRangeStatistics(startDate, endDate));
+            } catch (Exception e) {
+                log.warn("Не удалось обновить статистику за {} - {}: {}", startDate, endDate, e.getMessage());
+            }
+        } else {
+            // Индекс еще не построен или сброшен — построение читает БД, поэтому в фоне
+            backgroundLoadService.submit("statistics.range",
+                    () -> tradeService.getRangeStatistics(startDate, endDate),
+                    stats -> {
+                        // Даты могли измениться, пока строился индекс
+                        if (startDate.equals(startDatePicker.getValue()) && endDate.equals(endDatePicker.getValue())) {
+                            updateStatisticsUI(stats);
+                        }
+                    },
+                    e -> log.warn("Не удалось обновить статистику за {} - {}: {}", startDate, endDate, e.getMessage()));
+        }
+        customRangeReload.playFromStart();
     }
 
     private void updateDatePickersForPeriod(PeriodType periodType) {
@@ -114,48 +176,76 @@ public class StatisticsController implements Initializable {
             return;
         }
 
-        try {
-            Alert loadingAlert = new Alert(Alert.AlertType.INFORMATION);
-            loadingAlert.setTitle("Экспорт");
-            loadingAlert.setHeaderText("Создание Excel отчета...");
-            loadingAlert.setContentText("Пожалуйста, подождите");
-            loadingAlert.show();
+        // Экспорт выполняется в фоне; несколько экспортов встают в очередь и выполняются по порядку
+        ExportJob job = excelExportService.submitExport(currentStatistics, currentStartDate, currentEndDate);
+        showExportProgress(job);
+    }
 
-            File excelFile = excelExportService.exportTradingStatistics(
-                    currentStatistics, currentStartDate, currentEndDate);
+    private void showExportProgress(ExportJob job) {
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(job.progressProperty());
 
-            loadingAlert.close();
+        Label messageLabel = new Label();
+        messageLabel.textProperty().bind(job.messageProperty());
 
-            Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-            successAlert.setTitle("Экспорт завершен");
-            successAlert.setHeaderText("Excel отчет успешно создан!");
-            successAlert.setContentText("Файл сохранен: " + excelFile.getAbsolutePath());
+        VBox content = new VBox(8, messageLabel, progressBar);
 
-            ButtonType openFileButton = new ButtonType("Открыть файл");
-            ButtonType openFolderButton = new ButtonType("Открыть папку");
-            ButtonType okButton = new ButtonType("OK", ButtonBar.ButtonData.OK_DONE);
+        Alert progressAlert = new Alert(Alert.AlertType.INFORMATION);
+        progressAlert.initModality(Modality.NONE);
+        progressAlert.setTitle("Экспорт");
+        progressAlert.setHeaderText("Создание Excel отчета: " + job.getDescription());
+        progressAlert.getDialogPane().setContent(content);
+        progressAlert.getButtonTypes().setAll(new ButtonType("Отменить", ButtonBar.ButtonData.CANCEL_CLOSE));
 
-            successAlert.getButtonTypes().setAll(openFileButton, openFolderButton, okButton);
+        // Закрытие окна до завершения экспорта отменяет его
+        progressAlert.setOnHidden(event -> {
+            if (!job.isDone()) {
+                log.info("Отмена экспорта: {}", job.getDescription());
+                job.cancel();
+            }
+        });
 
-            successAlert.showAndWait().ifPresent(buttonType -> {
-                try {
-                    if (buttonType == openFileButton) {
-                        Desktop.getDesktop().open(excelFile);
-                    } else if (buttonType == openFolderButton) {
-                        Desktop.getDesktop().open(excelFile.getParentFile());
-                    }
-                } catch (Exception e) {
-                    log.error("Ошибка при открытии файла/папки", e);
-                    showAlert("Ошибка", "Не удалось открыть файл: " + e.getMessage());
-                }
-            });
+        progressAlert.show();
 
-            log.info("Excel отчет успешно создан: {}", excelFile.getAbsolutePath());
+        job.getResult().whenComplete((excelFile, error) -> Platform.runLater(() -> {
+            progressAlert.close();
 
-        } catch (Exception e) {
-            log.error("Ошибка при экспорте в Excel", e);
-            showAlert("Ошибка экспорта", "Не удалось создать Excel отчет: " + e.getMessage());
-        }
+            if (error == null) {
+                showExportSuccess(excelFile);
+            } else if (!job.isCancelRequested()) {
+                log.error("Ошибка при экспорте в Excel", error);
+                showAlert("Ошибка экспорта", "Не удалось создать Excel отчет: " + error.getMessage());
+            }
+        }));
+    }
+
+    private void showExportSuccess(File excelFile) {
+        Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+        successAlert.setTitle("Экспорт завершен");
+        successAlert.setHeaderText("Excel отчет успешно создан!");
+        successAlert.setContentText("Файл сохранен: " + excelFile.getAbsolutePath());
+
+        ButtonType openFileButton = new ButtonType("Открыть файл");
+        ButtonType openFolderButton = new ButtonType("Открыть папку");
+        ButtonType okButton = new ButtonType("OK", ButtonBar.ButtonData.OK_DONE);
+
+        successAlert.getButtonTypes().setAll(openFileButton, openFolderButton, okButton);
+
+        successAlert.showAndWait().ifPresent(buttonType -> {
+            try {
+                if (buttonType == openFileButton) {
+                    Desktop.getDesktop().open(excelFile);
+                } else if (buttonType == openFolderButton) {
+                    Desktop.getDesktop().open(excelFile.getParentFile());
+                }
+            } catch (Exception e) {
+                log.error("Ошибка при открытии файла/папки", e);
+                showAlert("Ошибка", "Не удалось открыть файл: " + e.getMessage());
+            }
+        });
+
+        log.info("Excel отчет успешно создан: {}", excelFile.getAbsolutePath());
     }
 
     private void loadCurrentStatistics() {
@@ -201,25 +291,16 @@ public class StatisticsController implements Initializable {
                         selectedPeriod.getDisplayName(), startDate, endDate);
             }
 
-            TradeStatistics statistics;
-            if (selectedPeriod == PeriodType.ALL_TIME) {
-                statistics = tradeService.calculateStatistics();
-            } else {
-                statistics = tradeService.getStatistics(startDate, endDate);
-            }
-
-            statistics.setPeriodType(selectedPeriod);
-            statistics.setPeriodStart(startDate);
-            statistics.setPeriodEnd(endDate);
-
-            currentStatistics = statistics;
-            currentStartDate = startDate;
-            currentEndDate = endDate;
-
-            updateStatisticsUI(statistics);
-            updateCharts();
+            PeriodType period = selectedPeriod;
+            LocalDate periodStart = startDate;
+            LocalDate periodEnd = endDate;
 
-            log.info("Статистика за {} загружена", selectedPeriod.getDisplayName());
+            backgroundLoadService.submit("statistics",
+                    () -> period == PeriodType.ALL_TIME
+                            ? tradeService.calculateStatistics()
+                            : tradeService.getStatistics(periodStart, periodEnd),
+                    statistics -> applyStatistics(statistics, period, periodStart, periodEnd),
+                    e -> showAlert("Ошибка", "Не удалось загрузить статистику: " + e.getMessage()));
 
         } catch (Exception e) {
             log.error("Ошибка при загрузке статистики", e);
@@ -227,6 +308,21 @@ public class StatisticsController implements Initializable {
         }
     }
 
+    private void applyStatistics(TradeStatistics statistics, PeriodType period, LocalDate startDate, LocalDate endDate) {
+        statistics.setPeriodType(period);
+        statistics.setPeriodStart(startDate);
+        statistics.setPeriodEnd(endDate);
+
+        currentStatistics = statistics;
+        currentStartDate = startDate;
+        currentEndDate = endDate;
+
+        updateStatisticsUI(statistics);
+        updateCharts(period, startDate, endDate);
+
+        log.info("Статистика за {} загружена", period.getDisplayName());
+    }
+
     private void updateStatisticsUI(TradeStatistics stats) {
         try {
             totalTradesStatLabel.setText(String.valueOf(stats.getTotalTrades()));
@@ -257,6 +353,8 @@ public class StatisticsController implements Initializable {
             profitableTradesStatLabel.setText(String.valueOf(stats.getWinningTrades()));
             losingTradesStatLabel.setText(String.valueOf(stats.getLosingTrades()));
 
+            updatePerformanceMetricsUI(stats.getPerformanceMetrics());
+
             log.info("UI обновлен с новой статистикой");
 
         } catch (Exception e) {
@@ -264,77 +362,64 @@ public class StatisticsController implements Initializable {
         }
     }
 
-    private void updateCharts() {
-        updateEquityCurve();
-    }
+    private void updatePerformanceMetricsUI(PerformanceMetrics metrics) {
+        if (metrics == null) {
+            return;
+        }
 
-    private void updateEquityCurve() {
-        try {
-            equityCurveChart.getData().clear();
+        String drawdown = String.format("%.2f $", metrics.getMaxDrawdown());
+        if (metrics.getMaxDrawdownPercent() != null) {
+            drawdown += String.format(" (%.1f%%)", metrics.getMaxDrawdownPercent());
+        }
+        maxDrawdownStatLabel.setText(drawdown);
+        drawdownDurationStatLabel.setText(metrics.getMaxDrawdownDurationDays() + " дн.");
+        profitFactorStatLabel.setText(formatRatio(metrics.getProfitFactor()));
+        expectancyStatLabel.setText(String.format("%.2f $", metrics.getExpectancy()));
+        avgWinLossStatLabel.setText(String.format("%.2f / %.2f", metrics.getAvgWin(), metrics.getAvgLoss()));
+        payoffRatioStatLabel.setText(formatRatio(metrics.getPayoffRatio()));
+        sharpeRatioStatLabel.setText(formatRatio(metrics.getSharpeRatio()));
+        sortinoRatioStatLabel.setText(formatRatio(metrics.getSortinoRatio()));
+        streaksStatLabel.setText(metrics.getMaxWinStreak() + " / " + metrics.getMaxLossStreak());
+
+        String expectancyColor = metrics.getExpectancy().signum() >= 0 ? "#27ae60" : "#e74c3c";
+        expectancyStatLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold; -fx-text-fill: " + expectancyColor + ";");
+    }
 
-            PeriodType selectedPeriod = periodTypeComboBox.getValue();
-            LocalDate startDate = null;
-            LocalDate endDate = null;
+    // Неопределенное отношение (нет убытков или недостаточно дней) показывается прочерком
+    private String formatRatio(BigDecimal ratio) {
+        return ratio != null ? String.format("%.2f", ratio) : "—";
+    }
 
-            if (selectedPeriod != PeriodType.ALL_TIME) {
-                if (selectedPeriod == PeriodType.CUSTOM) {
-                    startDate = startDatePicker.getValue();
-                    endDate = endDatePicker.getValue();
-                } else {
-                    startDate = selectedPeriod.getStartDate();
-                    endDate = selectedPeriod.getEndDate();
-                }
-            }
+    private void updateCharts(PeriodType period, LocalDate startDate, LocalDate endDate) {
+        updateEquityCurve(period, startDate, endDate);
+    }
 
-            List<Trade> closedTrades = tradeService.getClosedTradesForPeriod(startDate, endDate);
+    private void updateEquityCurve(PeriodType selectedPeriod, LocalDate startDate, LocalDate endDate) {
+        // Массивы точек готовятся в фоне; на графике остается прореженный до ширины ряд.
+        // За сегодня и произвольный период — по сделкам, за неделю и дольше — по дневным агрегатам
+        boolean perTrade = selectedPeriod == PeriodType.TODAY || selectedPeriod == PeriodType.CUSTOM;
+        backgroundLoadService.submit("statistics.equity-curve",
+                () -> perTrade
+                        ? DownsampledEquityChart.Points.of(tradeService.getEquityCurve(startDate, endDate))
+                        : DownsampledEquityChart.Points.ofDaily(tradeService.getDailyRollups(startDate, endDate)),
+                points -> showEquityCurve(points, selectedPeriod),
+                e -> equityChart.clear());
+    }
 
-            if (closedTrades.isEmpty()) {
+    private void showEquityCurve(DownsampledEquityChart.Points points, PeriodType selectedPeriod) {
+        try {
+            if (points.size() == 0) {
+                equityChart.clear();
                 log.info("Нет закрытых сделок для построения кривой эквити за период {}",
                         selectedPeriod.getDisplayName());
                 return;
             }
 
-            XYChart.Series<String, Number> equitySeries = new XYChart.Series<>();
-            equitySeries.setName("Эквити (" + selectedPeriod.getDisplayName() + ")");
-
-            List<Trade> sortableTrades = new ArrayList<>(closedTrades);
+            equityChart.show(points, "Эквити (" + selectedPeriod.getDisplayName() + ")",
+                    dateAxisLabels(selectedPeriod));
 
-            sortableTrades.sort((t1, t2) -> {
-                if (t1.getTradeDate() == null && t2.getTradeDate() == null) return 0;
-                if (t1.getTradeDate() == null) return 1;
-                if (t2.getTradeDate() == null) return -1;
-                return t1.getTradeDate().compareTo(t2.getTradeDate());
-            });
-
-            BigDecimal cumulativeProfit = BigDecimal.ZERO;
-
-            if (!sortableTrades.isEmpty() && sortableTrades.getFirst().getTradeDate() != null) {
-                equitySeries.getData().add(new XYChart.Data<>("Начало", 0));
-            }
-
-            int tradeIndex = 1;
-            for (Trade trade : sortableTrades) {
-                if (trade.getProfitLoss() != null && trade.getTradeDate() != null) {
-                    cumulativeProfit = cumulativeProfit.add(trade.getProfitLoss());
-
-                    String dateLabel = getTradeLabel(trade, selectedPeriod, tradeIndex);
-                    equitySeries.getData().add(new XYChart.Data<>(dateLabel, cumulativeProfit));
-                    tradeIndex++;
-                }
-            }
-
-            if (!equitySeries.getData().isEmpty()) {
-                equityCurveChart.getData().add(equitySeries);
-
-                equityCurveChart.lookupAll(".chart-series-line").forEach(node ->
-                        node.setStyle("-fx-stroke: #3498db; -fx-stroke-width: 2px;"));
-
-                log.info("Кривая эквити обновлена с {} точками для периода {}",
-                        equitySeries.getData().size(), selectedPeriod.getDisplayName());
-            } else {
-                log.info("Нет данных для отображения кривой эквити за период {}",
-                        selectedPeriod.getDisplayName());
-            }
+            log.info("Кривая эквити обновлена: {} точек для периода {}",
+                    points.size(), selectedPeriod.getDisplayName());
 
         } catch (Exception e) {
             log.error("Ошибка при обновлении кривой эквити", e);
@@ -342,27 +427,56 @@ public class StatisticsController implements Initializable {
     }
 
     /**
-     * Получить подпись для сделки в зависимости от периода
+     * Подписи числовой оси дат (дни от эпохи) в зависимости от периода
      */
-    private String getTradeLabel(Trade trade, PeriodType periodType, int tradeIndex) {
-        LocalDate tradeDate = trade.getTradeDate();
-
-        return switch (periodType) {
-            case TODAY -> {
-                if (trade.getCreatedAt() != null) {
-                    LocalDateTime dateTime = trade.getCreatedAt();
-                    yield dateTime.format(DateTimeFormatter.ofPattern("HH:mm"));
-                } else {
-                    yield "Сделка " + tradeIndex;
+    private StringConverter<Number> dateAxisLabels(PeriodType periodType) {
+        DateTimeFormatter formatter = switch (periodType) {
+            case TODAY -> DateTimeFormatter.ofPattern("HH:mm");
+            case WEEK, MONTH, QUARTER, HALF_YEAR, YEAR -> DateTimeFormatter.ofPattern("dd.MM");
+            default -> DateTimeFormatter.ofPattern("dd.MM.yy");
+        };
+
+        return new StringConverter<>() {
+            @Override
+            public String toString(Number value) {
+                double days = value.doubleValue();
+                long epochDay = (long) Math.floor(days);
+                int secondOfDay = (int) Math.min(86_399, Math.round((days - epochDay) * 86_400));
+                return LocalDate.ofEpochDay(epochDay).atTime(LocalTime.ofSecondOfDay(secondOfDay)).format(formatter);
+            }
+
+            @Override
+            public Number fromString(String text) {
+                // Подпись без года ("dd.MM") или без даты ("HH:mm") не задает день однозначно
+                try {
+                    TemporalAccessor parsed = formatter.parse(text);
+                    return parsed.isSupported(ChronoField.EPOCH_DAY) ? parsed.getLong(ChronoField.EPOCH_DAY) : null;
+                } catch (DateTimeParseException e) {
+                    return null;
                 }
             }
-            case WEEK, MONTH, QUARTER, HALF_YEAR, YEAR -> tradeDate.format(DateTimeFormatter.ofPattern("dd.MM"));
-            default -> tradeDate.format(DateTimeFormatter.ofPattern("dd.MM.yy"));
         };
     }
 
+    @Override
+    public void onViewShown() {
+        // Изменения сделок применяются по событиям; при повторном показе устаревают только границы
+        // относительных периодов (сегодня, неделя...) после смены дня
+        PeriodType period = periodTypeComboBox.getValue();
+        if (currentStatistics != null && period != null && period != PeriodType.CUSTOM
+                && !Objects.equals(period.getEndDate(), currentEndDate)) {
+            loadCurrentStatistics();
+        }
+    }
+
     @EventListener
     public void onTradeDataChanged(TradeDataChangedEvent event) {
+        // Статистика строится по закрытым сделкам: правки открытых и сделок вне периода ее не меняют
+        if (currentStatistics != null && !event.affectsClosedTrades(currentStartDate, currentEndDate)) {
+            log.debug("Изменения сделок не затрагивают статистику за текущий период");
+            return;
+        }
+        // Индекс дат и колоночный снимок уже обновлены по изменениям — пересчет идет из памяти
         log.info("Получено событие изменения данных сделок, обновляем статистику");
         loadCurrentStatistics();
     }
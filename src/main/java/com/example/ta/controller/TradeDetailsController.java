@@ -2,6 +2,8 @@ package com.example.ta.controller;
 
 import com.example.ta.events.NavigationEvent;
 import com.example.ta.domain.Trade;
+import com.example.ta.service.BackgroundLoadService;
+import com.example.ta.service.ChartImageService;
 import com.example.ta.service.ImageViewerService;
 import com.example.ta.service.TradeService;
 import com.example.ta.util.DateMaskFormatter;
@@ -19,7 +21,6 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URL;
@@ -29,6 +30,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
 @Slf4j
@@ -70,11 +72,14 @@ public class TradeDetailsController implements Initializable {
     private final TradeService tradeService;
     private final ApplicationEventPublisher eventPublisher;
     private final ImageViewerService imageViewerService; // НОВЫЙ СЕРВИС
+    private final ChartImageService chartImageService;
+    private final BackgroundLoadService backgroundLoadService;
 
     @Setter
     private Stage dialogStage;
 
     private static final String IMAGES_FOLDER = "trade_images";
+    private static final String CHART_IMAGE_LOAD_KEY = "trade-details.chart-image";
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -169,32 +174,51 @@ public class TradeDetailsController implements Initializable {
 
     private void loadChartImage() {
         if (currentTrade == null || !currentTrade.hasChartImage()) {
+            backgroundLoadService.cancel(CHART_IMAGE_LOAD_KEY);
             chartImageView.setImage(null);
             imageStatusLabel.setText("Изображение не загружено");
             viewFullImageButton.setVisible(false);
             return;
         }
 
-        try {
-            File imageFile = new File(currentTrade.getChartImagePath());
-            if (imageFile.exists()) {
-                Image image = new Image(new FileInputStream(imageFile));
-                chartImageView.setImage(image);
-                imageStatusLabel.setText("Изображение: " + imageFile.getName());
-                viewFullImageButton.setVisible(true); // ПОКАЗЫВАЕМ КНОПКУ
-                log.info("Загружено изображение: {}", currentTrade.getChartImagePath());
-            } else {
-                chartImageView.setImage(null);
-                imageStatusLabel.setText("Файл изображения не найден");
-                viewFullImageButton.setVisible(false);
-                log.warn("Файл изображения не найден: {}", currentTrade.getChartImagePath());
-            }
-        } catch (Exception e) {
+        String imagePath = currentTrade.getChartImagePath();
+        File imageFile = new File(imagePath);
+        if (!imageFile.exists()) {
+            backgroundLoadService.cancel(CHART_IMAGE_LOAD_KEY);
             chartImageView.setImage(null);
-            imageStatusLabel.setText("Ошибка загрузки изображения");
+            imageStatusLabel.setText("Файл изображения не найден");
             viewFullImageButton.setVisible(false);
-            log.error("Ошибка при загрузке изображения", e);
+            log.warn("Файл изображения не найден: {}", imagePath);
+            return;
+        }
+
+        // Уже декодированная миниатюра показывается сразу, без обращения к диску
+        Optional<Image> cachedImage = chartImageService.getCachedThumbnail(imagePath);
+        if (cachedImage.isPresent()) {
+            backgroundLoadService.cancel(CHART_IMAGE_LOAD_KEY);
+            showChartImage(cachedImage.get(), imageFile);
+            return;
         }
+
+        chartImageView.setImage(null);
+        imageStatusLabel.setText("Загрузка изображения...");
+        viewFullImageButton.setVisible(false);
+
+        backgroundLoadService.submit(CHART_IMAGE_LOAD_KEY,
+                () -> chartImageService.loadThumbnail(imagePath),
+                image -> showChartImage(image, imageFile),
+                e -> {
+                    chartImageView.setImage(null);
+                    imageStatusLabel.setText("Ошибка загрузки изображения");
+                    viewFullImageButton.setVisible(false);
+                });
+    }
+
+    private void showChartImage(Image image, File imageFile) {
+        chartImageView.setImage(image);
+        imageStatusLabel.setText("Изображение: " + imageFile.getName());
+        viewFullImageButton.setVisible(true);
+        log.info("Загружено изображение: {}", imageFile.getPath());
     }
 
     @FXML
@@ -250,7 +274,8 @@ public class TradeDetailsController implements Initializable {
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    // Удаляем файл
+                    // Удаляем файл и его миниатюру
+                    chartImageService.deleteThumbnail(currentTrade.getChartImagePath());
                     File imageFile = new File(currentTrade.getChartImagePath());
                     if (imageFile.exists()) {
                         Files.delete(imageFile.toPath());
@@ -1,7 +1,6 @@
 package com.example.ta.controller;
 
 import com.example.ta.events.NavigationEvent;
-import com.example.ta.events.TradeDataChangedEvent;
 import com.example.ta.domain.Currency;
 import com.example.ta.domain.Trade;
 import com.example.ta.domain.TradeStatus;
@@ -29,7 +28,7 @@ import java.util.ResourceBundle;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class TradeFormController implements Initializable {
+public class TradeFormController implements Initializable, CachedView {
 
     @FXML private Label titleLabel;
     @FXML private TextField assetNameField;
@@ -199,6 +198,12 @@ public class TradeFormController implements Initializable {
         });
     }
 
+    // Переход к добавлению сделки всегда открывает пустую форму
+    @Override
+    public void onViewShown() {
+        setCreateMode();
+    }
+
     /**
      * Установка формы в режим создания новой сделки
      */
@@ -251,6 +256,9 @@ public class TradeFormController implements Initializable {
         this.editingTrade = trade;
         titleLabel.setText("Редактирование: " + trade.getAssetName());
         saveButton.setText("💾 Сохранить изменения");
+        saveButton.setDisable(false);
+        // Форма хранится в кэше представлений: значения и подсветка предыдущей сделки не должны остаться
+        clearForm();
         fillFormWithTradeData(trade);
         log.info("Форма переведена в режим редактирования для сделки: {}", trade.getId());
     }
@@ -262,27 +270,17 @@ public class TradeFormController implements Initializable {
         currencyComboBox.setValue(trade.getCurrency());
         tradeDatePicker.setValue(trade.getTradeDate());
 
-        // Заполняем числовые поля
-        if (trade.getEntryPoint() != null) {
-            entryPointField.setText(trade.getEntryPoint().toString());
-        }
-        if (trade.getExitPoint() != null) {
-            exitPointField.setText(trade.getExitPoint().toString());
-        }
-        if (trade.getVolume() != null) {
-            volumeField.setText(trade.getVolume().toString());
-        }
-        if (trade.getProfitLoss() != null) {
-            profitLossField.setText(trade.getProfitLoss().toString());
-        }
+        // Заполняем числовые поля (пустые значения тоже записываются)
+        entryPointField.setText(toText(trade.getEntryPoint()));
+        exitPointField.setText(toText(trade.getExitPoint()));
+        volumeField.setText(toText(trade.getVolume()));
+        profitLossField.setText(toText(trade.getProfitLoss()));
 
         // Заполняем поля времени
-        if (trade.getEntryTime() != null) {
-            entryTimeField.setText(trade.getEntryTime().format(DateTimeMaskFormatter.getFormatter()));
-        }
-        if (trade.getExitTime() != null) {
-            exitTimeField.setText(trade.getExitTime().format(DateTimeMaskFormatter.getFormatter()));
-        }
+        entryTimeField.setText(trade.getEntryTime() != null
+                ? trade.getEntryTime().format(DateTimeMaskFormatter.getFormatter()) : "");
+        exitTimeField.setText(trade.getExitTime() != null
+                ? trade.getExitTime().format(DateTimeMaskFormatter.getFormatter()) : "");
 
         // Заполняем текстовые области
         entryReasonArea.setText(trade.getEntryReason() != null ? trade.getEntryReason() : "");
@@ -290,6 +288,10 @@ public class TradeFormController implements Initializable {
         notesArea.setText(trade.getComment() != null ? trade.getComment() : "");
     }
 
+    private static String toText(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
     @FXML
     private void saveTrade() {
         try {
@@ -300,9 +302,12 @@ public class TradeFormController implements Initializable {
             Trade trade = isEditMode ? editingTrade : new Trade();
             fillTradeFromForm(trade);
 
-            Trade savedTrade = isEditMode ? tradeService.update(trade) : tradeService.save(trade);
-
-            eventPublisher.publishEvent(new TradeDataChangedEvent(this, "UPDATED"));
+            // TradeDataChangedEvent публикует TradeService после фиксации
+            if (isEditMode) {
+                tradeService.update(trade);
+            } else {
+                tradeService.save(trade);
+            }
 
             showInfo(isEditMode ? "Сделка успешно обновлена!" : "Сделка успешно сохранена!");
 
@@ -475,6 +480,8 @@ public class TradeFormController implements Initializable {
             tradeDatePicker.setValue(null);
 
             profitLossField.setStyle("");
+            entryTimeField.setStyle("");
+            exitTimeField.setStyle("");
 
             log.debug("Форма очищена успешно");
 
@@ -4,9 +4,14 @@ package com.example.ta.controller;
 import com.example.ta.events.NavigationEvent;
 import com.example.ta.events.TradeDataChangedEvent;
 import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatistics;
 import com.example.ta.domain.TradeStatus;
 import com.example.ta.domain.TradeType;
+import com.example.ta.service.BackgroundLoadService;
+import com.example.ta.service.ImportJob;
+import com.example.ta.service.TradeImportService;
 import com.example.ta.service.TradeService;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,17 +20,23 @@ import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -41,6 +52,7 @@ public class TradesListController implements Initializable {
     @FXML private Button searchButton;
     @FXML private Button clearFiltersButton;
     @FXML private Button refreshButton;
+    @FXML private Button importButton;
 
     @FXML private Label totalTradesLabel;
     @FXML private Label totalProfitLabel;
@@ -59,10 +71,24 @@ public class TradesListController implements Initializable {
     @FXML private TableColumn<Trade, Void> actionsColumn;
 
     private final TradeService tradeService;
+    private final TradeImportService tradeImportService;
     private final ApplicationEventPublisher eventPublisher;
+    private final BackgroundLoadService backgroundLoadService;
+
+    // Поиск и полная загрузка используют один ключ: новый запрос отменяет незавершенный
+    private static final String LOAD_KEY = "trades-list";
 
     private ObservableList<Trade> tradesList = FXCollections.observableArrayList();
 
+    // Сводка постраничного режима; обновляется по изменениям сделок без запросов к БД
+    private ListSummary listSummary;
+
+    @Value("${trading.trades-list.page-size:200}")
+    private int pageSize;
+
+    @Value("${trading.trades-list.max-resident-rows:2000}")
+    private int maxResidentRows;
+
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         log.info("Инициализация TradesListController");
@@ -83,43 +109,69 @@ public class TradesListController implements Initializable {
     }
 
     private void setupTable() {
-        assetColumn.setCellValueFactory(data ->
-                new SimpleStringProperty(data.getValue().getAssetName()));
+        // Строки окна, которое еще загружается, — заглушки null (см. PagedTradeList)
+        assetColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
+            return new SimpleStringProperty(data.getValue().getAssetName());
+        });
 
         typeColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             TradeType type = data.getValue().getTradeType();
             return new SimpleStringProperty(type == TradeType.LONG ? "LONG" : "SHORT");
         });
 
         statusColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             TradeStatus status = data.getValue().getStatus();
             return new SimpleStringProperty(status == TradeStatus.OPEN ? "Открыта" : "Закрыта");
         });
 
         dateColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             LocalDate date = data.getValue().getTradeDate();
             String dateStr = date != null ? date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) : "";
             return new SimpleStringProperty(dateStr);
         });
 
         entryPriceColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             BigDecimal price = data.getValue().getEntryPoint();
             String currency = data.getValue().getCurrency() != null ? data.getValue().getCurrency().getSymbol() : "";
             return new SimpleStringProperty(price != null ? currency + String.format("%.2f", price) : "");
         });
 
         exitPriceColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             BigDecimal price = data.getValue().getExitPoint();
             String currency = data.getValue().getCurrency() != null ? data.getValue().getCurrency().getSymbol() : "";
             return new SimpleStringProperty(price != null ? currency + String.format("%.2f", price) : "-");
         });
 
         volumeColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             BigDecimal volume = data.getValue().getVolume();
             return new SimpleStringProperty(volume != null ? String.format("%.4f", volume) : "");
         });
 
         profitLossColumn.setCellValueFactory(data -> {
+            if (data.getValue() == null) {
+                return new SimpleStringProperty(null);
+            }
             BigDecimal profitLoss = data.getValue().getProfitLoss();
             String currency = data.getValue().getCurrency() != null ? data.getValue().getCurrency().getSymbol() : "";
             if (profitLoss != null) {
@@ -260,7 +312,7 @@ public class TradesListController implements Initializable {
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                if (empty || getTableRow() == null || getTableRow().getItem() == null) {
                     setGraphic(null);
                 } else {
                     setGraphic(actionBox);
@@ -273,7 +325,7 @@ public class TradesListController implements Initializable {
         tradesTable.setRowFactory(tv -> {
             TableRow<Trade> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
-                if (event.getClickCount() == 2 && !row.isEmpty()) {
+                if (event.getClickCount() == 2 && !row.isEmpty() && row.getItem() != null) {
                     viewTradeDetails(row.getItem());
                 }
             });
@@ -320,10 +372,9 @@ public class TradesListController implements Initializable {
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
+                // Строка исчезнет из списка по TradeDataChangedEvent
                 tradeService.deleteById(trade.getId());
-                eventPublisher.publishEvent(new TradeDataChangedEvent(this, "UPDATED"));
                 showInfo("Сделка успешно удалена");
-                loadTrades();
             } catch (Exception e) {
                 log.error("Ошибка при удалении сделки", e);
                 showError("Ошибка при удалении сделки: " + e.getMessage());
@@ -335,17 +386,32 @@ public class TradesListController implements Initializable {
     private void searchTrades() {
         log.info("Поиск сделок");
 
-        String assetName = searchField.getText();
+        String query = searchField.getText();
         TradeStatus status = statusFilterComboBox.getValue();
         LocalDate startDate = startDatePicker.getValue();
         LocalDate endDate = endDatePicker.getValue();
 
-        List<Trade> searchResults = tradeService.search(assetName, status, startDate, endDate);
+        if (!TradeService.hasSearchFilters(query, status, startDate, endDate)) {
+            // Без условий поиска — полный список с постраничной загрузкой, а не все сделки одним списком
+            loadTrades();
+            return;
+        }
+
+        resultCountLabel.setText("Поиск...");
+
+        backgroundLoadService.submit(LOAD_KEY,
+                () -> tradeService.search(query, status, startDate, endDate),
+                this::showSearchResults,
+                e -> showError("Ошибка при поиске сделок: " + e.getMessage()));
+    }
 
+    private void showSearchResults(List<Trade> searchResults) {
         tradesList.clear();
         tradesList.addAll(searchResults);
+        tradesTable.setItems(tradesList);
+        setColumnsSortable(true);
 
-        updateStatistics();
+        updateStatistics(searchResults);
         resultCountLabel.setText("Найдено: " + searchResults.size() + " сделок");
 
         log.info("Найдено {} сделок", searchResults.size());
@@ -369,40 +435,175 @@ public class TradesListController implements Initializable {
         loadTrades();
     }
 
+    @FXML
+    private void importTrades() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Выберите выписку брокера");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Выписки (CSV, Excel)", "*.csv", "*.txt", "*.xlsx"),
+                new FileChooser.ExtensionFilter("CSV файлы", "*.csv", "*.txt"),
+                new FileChooser.ExtensionFilter("Excel файлы", "*.xlsx")
+        );
+
+        File selectedFile = fileChooser.showOpenDialog(importButton.getScene().getWindow());
+        if (selectedFile == null) {
+            return;
+        }
+        if (!TradeImportService.isSupported(selectedFile.toPath())) {
+            showError("Поддерживаются файлы CSV и XLSX");
+            return;
+        }
+
+        log.info("Запрос на импорт сделок из {}", selectedFile);
+        // Импорт выполняется в фоне; по завершении список обновится по TradeDataChangedEvent
+        showImportProgress(tradeImportService.submitImport(selectedFile.toPath()));
+    }
+
+    private void showImportProgress(ImportJob job) {
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(360);
+        progressBar.progressProperty().bind(job.progressProperty());
+
+        Label messageLabel = new Label();
+        messageLabel.textProperty().bind(job.messageProperty());
+
+        Alert progressAlert = new Alert(Alert.AlertType.INFORMATION);
+        progressAlert.initModality(Modality.NONE);
+        progressAlert.setTitle("Импорт");
+        progressAlert.setHeaderText("Импорт сделок: " + job.getDescription());
+        progressAlert.getDialogPane().setContent(new VBox(8, messageLabel, progressBar));
+        progressAlert.getButtonTypes().setAll(new ButtonType("Отменить", ButtonBar.ButtonData.CANCEL_CLOSE));
+
+        // Закрытие окна до завершения импорта отменяет его; зафиксированные пакеты остаются
+        progressAlert.setOnHidden(event -> {
+            if (!job.isDone()) {
+                log.info("Отмена импорта: {}", job.getDescription());
+                job.cancel();
+            }
+        });
+
+        progressAlert.show();
+
+        job.getResult().whenComplete((result, error) -> Platform.runLater(() -> {
+            progressAlert.close();
+
+            if (error == null) {
+                showImportResult(result);
+            } else if (!job.isCancelRequested()) {
+                log.error("Ошибка при импорте сделок", error);
+                showError("Не удалось импортировать сделки: " + error.getMessage());
+            }
+        }));
+    }
+
+    private void showImportResult(TradeImportService.ImportResult result) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Импорт завершен");
+        alert.setHeaderText(result.duplicateRows() > 0
+                ? String.format("Загружено сделок: %d, пропущено строк: %d (уже загружены ранее: %d)",
+                        result.importedRows(), result.skippedRows(), result.duplicateRows())
+                : String.format("Загружено сделок: %d, пропущено строк: %d",
+                        result.importedRows(), result.skippedRows()));
+        alert.setContentText(String.format("Время: %.1f с (%.0f строк/с)",
+                result.elapsedMillis() / 1000.0, result.getRowsPerSecond()));
+
+        if (!result.errors().isEmpty()) {
+            TextArea errorsArea = new TextArea(String.join("\n", result.errors()));
+            errorsArea.setEditable(false);
+            errorsArea.setWrapText(true);
+            errorsArea.setPrefRowCount(10);
+            alert.getDialogPane().setExpandableContent(errorsArea);
+        }
+        alert.showAndWait();
+    }
+
     private void loadTrades() {
-        try {
-            List<Trade> trades = tradeService.findAll();
-            tradesList.clear();
-            tradesList.addAll(trades);
+        resultCountLabel.setText("Загрузка...");
+
+        backgroundLoadService.submit(LOAD_KEY,
+                () -> new TradesListSnapshot((int) tradeService.count(), tradeService.getTradesSummary(),
+                        tradeService.countWithProfitLoss()),
+                this::showTrades,
+                e -> showError("Ошибка при загрузке сделок: " + e.getMessage()));
+    }
+
+    private void showTrades(TradesListSnapshot snapshot) {
+        // Сделки подгружаются окнами по мере прокрутки, а не целиком
+        tradesList.clear();
+        tradesTable.setItems(createPagedTradeList(snapshot.totalTrades()));
+        setColumnsSortable(false);
 
-            updateStatistics();
-            resultCountLabel.setText("Всего: " + trades.size() + " сделок");
+        listSummary = new ListSummary(snapshot.totalTrades(), snapshot.summary().getTotalProfit(),
+                snapshot.summary().getWinningTrades(), snapshot.withProfitLoss());
+        showSummary(listSummary);
 
-            log.info("Загружено {} сделок", trades.size());
-        } catch (Exception e) {
-            log.error("Ошибка при загрузке сделок", e);
-            showError("Ошибка при загрузке сделок: " + e.getMessage());
+        log.info("Список сделок открыт в постраничном режиме: {} сделок, окно {} строк",
+                snapshot.totalTrades(), pageSize);
+    }
+
+    private record TradesListSnapshot(int totalTrades, TradeStatistics summary, long withProfitLoss) {
+    }
+
+    /**
+     * Сводка по всем сделкам списка: количество, сумма P/L, прибыльные и сделки с P/L
+     */
+    private record ListSummary(int totalTrades, BigDecimal totalProfit, long winningTrades, long withProfitLoss) {
+
+        ListSummary plus(Trade trade, int sign) {
+            if (trade == null) {
+                return this;
+            }
+            BigDecimal profitLoss = trade.getProfitLoss();
+            if (profitLoss == null) {
+                return new ListSummary(totalTrades + sign, totalProfit, winningTrades, withProfitLoss);
+            }
+            return new ListSummary(totalTrades + sign,
+                    totalProfit.add(sign > 0 ? profitLoss : profitLoss.negate()),
+                    winningTrades + (profitLoss.signum() > 0 ? sign : 0),
+                    withProfitLoss + sign);
+        }
+
+        ListSummary apply(TradeDataChangedEvent.TradeChange change) {
+            return plus(change.before(), -1).plus(change.after(), 1);
+        }
+
+        double winRate() {
+            return withProfitLoss > 0 ? (double) winningTrades / withProfitLoss * 100 : 0;
         }
     }
 
-    private void updateStatistics() {
-        try {
-            List<Trade> currentTrades = tradesList;
+    private PagedTradeList createPagedTradeList(int totalTrades) {
+        PagedTradeList.PageSource pageSource = new PagedTradeList.PageSource() {
+            @Override
+            public List<Trade> loadAfter(LocalDate tradeDate, Long id, int limit) {
+                return tradeService.findPageAfter(tradeDate, id, limit);
+            }
 
-            totalTradesLabel.setText(String.valueOf(currentTrades.size()));
+            @Override
+            public List<Trade> loadPage(int pageIndex, int pageSize) {
+                return tradeService.findPage(pageIndex, pageSize);
+            }
+        };
+        return new PagedTradeList(pageSource, totalTrades, pageSize, maxResidentRows,
+                backgroundLoadService.getExecutor(), Platform::runLater);
+    }
+
+    /**
+     * Сортировка по колонкам доступна только для результатов поиска:
+     * постраничный список уже упорядочен по дате и не загружен целиком
+     */
+    private void setColumnsSortable(boolean sortable) {
+        tradesTable.getSortOrder().clear();
+        tradesTable.getColumns().forEach(column -> column.setSortable(sortable));
+    }
 
+    private void updateStatistics(List<Trade> currentTrades) {
+        try {
             BigDecimal totalProfit = currentTrades.stream()
                     .filter(trade -> trade.getProfitLoss() != null)
                     .map(Trade::getProfitLoss)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-            totalProfitLabel.setText("$" + String.format("%.2f", totalProfit));
-            if (totalProfit.compareTo(BigDecimal.ZERO) >= 0) {
-                totalProfitLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
-            } else {
-                totalProfitLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #e74c3c;");
-            }
-
             long profitableTrades = currentTrades.stream()
                     .filter(trade -> trade.getProfitLoss() != null)
                     .filter(trade -> trade.getProfitLoss().compareTo(BigDecimal.ZERO) > 0)
@@ -412,22 +613,98 @@ public class TradesListController implements Initializable {
                     .filter(trade -> trade.getProfitLoss() != null)
                     .count();
 
-            if (totalWithPL > 0) {
-                double winRate = ((double) profitableTrades / totalWithPL) * 100;
-                winRateLabel.setText(String.format("%.1f%%", winRate));
-            } else {
-                winRateLabel.setText("0%");
-            }
+            double winRate = totalWithPL > 0 ? ((double) profitableTrades / totalWithPL) * 100 : 0;
+
+            showStatistics(currentTrades.size(), totalProfit, winRate);
 
         } catch (Exception e) {
             log.error("Ошибка при обновлении статистики", e);
         }
     }
 
+    private void showSummary(ListSummary summary) {
+        showStatistics(summary.totalTrades(), summary.totalProfit(), summary.winRate());
+        resultCountLabel.setText("Всего: " + summary.totalTrades() + " сделок");
+    }
+
+    private void showStatistics(int totalTrades, BigDecimal totalProfit, double winRate) {
+        totalTradesLabel.setText(String.valueOf(totalTrades));
+
+        totalProfitLabel.setText("$" + String.format("%.2f", totalProfit));
+        if (totalProfit.compareTo(BigDecimal.ZERO) >= 0) {
+            totalProfitLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
+        } else {
+            totalProfitLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #e74c3c;");
+        }
+
+        if (winRate > 0) {
+            winRateLabel.setText(String.format("%.1f%%", winRate));
+        } else {
+            winRateLabel.setText("0%");
+        }
+    }
+
     @EventListener
     public void onTradeDataChanged(TradeDataChangedEvent event) {
-        log.info("Получено событие об изменении данных сделок");
-        loadTrades();
+        if (tradesTable == null) {
+            // Представление еще не загружено: данные будут прочитаны при загрузке
+            return;
+        }
+        if (event.isBulk()) {
+            log.info("Массовое изменение сделок: список перечитывается");
+            loadTrades();
+        } else if (tradesTable.getItems() instanceof PagedTradeList pagedList) {
+            applyChanges(pagedList, event.getChanges());
+        } else {
+            applySearchResultChanges(event.getChanges());
+        }
+    }
+
+    /**
+     * Постраничный режим: правка без смены даты заменяет загруженную строку, добавление, удаление и смена даты
+     * сдвигают строки — список пересоздается с новым размером и читает только видимое окно.
+     * Сводка пересчитывается по разнице состояний сделок.
+     */
+    private void applyChanges(PagedTradeList pagedList, List<TradeDataChangedEvent.TradeChange> changes) {
+        boolean shifted = false;
+        for (TradeDataChangedEvent.TradeChange change : changes) {
+            listSummary = listSummary.apply(change);
+            if (change.type() == TradeDataChangedEvent.ChangeType.UPDATED
+                    && Objects.equals(change.before().getTradeDate(), change.after().getTradeDate())) {
+                pagedList.replace(change.after());
+            } else {
+                shifted = true;
+            }
+        }
+
+        if (shifted) {
+            tradesTable.setItems(createPagedTradeList(listSummary.totalTrades()));
+        }
+        showSummary(listSummary);
+
+        log.debug("Список сделок обновлен по {} изменениям{}", changes.size(), shifted ? " (пересоздан)" : "");
+    }
+
+    /**
+     * Режим поиска: измененные сделки заменяются, удаленные убираются. Новые сделки не добавляются —
+     * соответствие запросу (в том числе полнотекстовому) проверяет только БД при следующем поиске.
+     */
+    private void applySearchResultChanges(List<TradeDataChangedEvent.TradeChange> changes) {
+        for (TradeDataChangedEvent.TradeChange change : changes) {
+            for (int i = 0; i < tradesList.size(); i++) {
+                if (tradesList.get(i).getId().equals(change.tradeId())) {
+                    if (change.after() != null) {
+                        tradesList.set(i, change.after());
+                    } else {
+                        tradesList.remove(i);
+                    }
+                    break;
+                }
+            }
+        }
+
+        updateStatistics(tradesList);
+        resultCountLabel.setText("Найдено: " + tradesList.size() + " сделок");
     }
 
     private void showInfo(String message) {
@@ -1,10 +1,12 @@
 package com.example.ta.controller;
 
 import com.example.ta.events.NavigationEvent;
+import com.example.ta.events.TradeDataChangedEvent;
 import com.example.ta.domain.Trade;
 import com.example.ta.domain.TradeStatistics;
 import com.example.ta.domain.TradeStatus;
 import com.example.ta.domain.TradeType;
+import com.example.ta.service.BackgroundLoadService;
 import com.example.ta.service.TradeService;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
@@ -18,6 +20,7 @@ import javafx.util.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -31,7 +34,7 @@ import java.util.ResourceBundle;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class WelcomeDashboardController implements Initializable {
+public class WelcomeDashboardController implements Initializable, CachedView {
 
     @FXML private Label welcomeTimeLabel;
 
@@ -43,6 +46,10 @@ public class WelcomeDashboardController implements Initializable {
 
     private final TradeService tradeService;
     private final ApplicationEventPublisher eventPublisher;
+    private final BackgroundLoadService backgroundLoadService;
+
+    // Сделки изменились, пока главная страница не показывалась
+    private boolean dataStale;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -57,6 +64,22 @@ public class WelcomeDashboardController implements Initializable {
         log.info("WelcomeDashboardController инициализирован");
     }
 
+    @Override
+    public void onViewShown() {
+        updateWelcomeTime();
+
+        if (dataStale) {
+            dataStale = false;
+            loadQuickStatistics();
+            loadRecentTrades();
+        }
+    }
+
+    @EventListener
+    public void onTradeDataChanged(TradeDataChangedEvent event) {
+        dataStale = true;
+    }
+
     private void updateWelcomeTime() {
         LocalDateTime now = LocalDateTime.now();
         String greeting = "";
@@ -77,9 +100,22 @@ public class WelcomeDashboardController implements Initializable {
     }
 
     private void loadQuickStatistics() {
-        try {
-            TradeStatistics stats = tradeService.getQuickStatistics();
+        totalTradesLabel.setText("...");
+        totalProfitLabel.setText("...");
+        winRateLabel.setText("...");
+
+        backgroundLoadService.submit("welcome.quick-statistics",
+                tradeService::getQuickStatistics,
+                this::showQuickStatistics,
+                e -> {
+                    totalTradesLabel.setText("Ошибка");
+                    totalProfitLabel.setText("Ошибка");
+                    winRateLabel.setText("Ошибка");
+                });
+    }
 
+    private void showQuickStatistics(TradeStatistics stats) {
+        try {
             totalTradesLabel.setText(String.valueOf(stats.getTotalTrades()));
 
             BigDecimal totalProfit = stats.getTotalProfit();
@@ -114,9 +150,14 @@ public class WelcomeDashboardController implements Initializable {
     }
 
     private void loadRecentTrades() {
-        try {
-            List<Trade> recentTrades = tradeService.findRecentTrades(5);
+        backgroundLoadService.submit("welcome.recent-trades",
+                () -> tradeService.findRecentTrades(5),
+                this::showRecentTrades,
+                e -> showRecentTradesError());
+    }
 
+    private void showRecentTrades(List<Trade> recentTrades) {
+        try {
             recentTradesContainer.getChildren().clear();
 
             if (recentTrades.isEmpty()) {
@@ -132,13 +173,17 @@ public class WelcomeDashboardController implements Initializable {
 
         } catch (Exception e) {
             log.error("Ошибка при загрузке последних сделок", e);
-            recentTradesContainer.getChildren().clear();
-            Label errorLabel = new Label("Ошибка при загрузке сделок");
-            errorLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #e74c3c;");
-            recentTradesContainer.getChildren().add(errorLabel);
+            showRecentTradesError();
         }
     }
 
+    private void showRecentTradesError() {
+        recentTradesContainer.getChildren().clear();
+        Label errorLabel = new Label("Ошибка при загрузке сделок");
+        errorLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #e74c3c;");
+        recentTradesContainer.getChildren().add(errorLabel);
+    }
+
     private VBox createRecentTradeItem(Trade trade) {
         VBox tradeBox = new VBox(4.0);
         tradeBox.setStyle("-fx-background-color: #f8f9fa; -fx-background-radius: 8; -fx-padding: 12; -fx-border-color: #dee2e6; -fx-border-radius: 8;");
@@ -0,0 +1,28 @@
+package com.example.ta.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги закрытых сделок по одному активу за период
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssetBreakdown {
+    private String assetName;
+    private int totalTrades;
+    private int winningTrades;
+    private int losingTrades;
+    private BigDecimal winRate;
+    private BigDecimal totalProfit;
+    private BigDecimal avgProfit;
+    private BigDecimal totalVolume;
+    private BigDecimal bestTrade;
+    private BigDecimal worstTrade;
+    // Максимальная просадка накопленного P/L по активу от предыдущего максимума
+    private BigDecimal maxDrawdown;
+}
@@ -0,0 +1,36 @@
+package com.example.ta.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Расширенные показатели эффективности закрытых сделок за период.
+ * Отношения, которые не определены на имеющихся данных (например, profit factor без убыточных сделок), равны null.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PerformanceMetrics {
+    // Максимальная просадка накопленного P/L от предыдущего максимума
+    private BigDecimal maxDrawdown;
+    // Максимальная просадка в процентах от достигнутого максимума накопленного P/L
+    private BigDecimal maxDrawdownPercent;
+    // Самый долгий период от максимума до его обновления (или до конца периода), в днях
+    private int maxDrawdownDurationDays;
+    private BigDecimal grossProfit;
+    private BigDecimal grossLoss;
+    private BigDecimal profitFactor;
+    private BigDecimal expectancy;
+    private BigDecimal avgWin;
+    private BigDecimal avgLoss;
+    private BigDecimal payoffRatio;
+    // Коэффициенты Шарпа и Сортино по дневному P/L торговых дней, в годовом выражении
+    private BigDecimal sharpeRatio;
+    private BigDecimal sortinoRatio;
+    private int tradingDays;
+    private int maxWinStreak;
+    private int maxLossStreak;
+}
@@ -24,8 +24,13 @@ public enum PeriodType {
      * Получить начальную дату для периода
      */
     public LocalDate getStartDate() {
-        LocalDate now = LocalDate.now();
+        return getStartDate(LocalDate.now());
+    }
 
+    /**
+     * Получить начальную дату для периода, заканчивающегося днем now
+     */
+    public LocalDate getStartDate(LocalDate now) {
         return switch (this) {
             case TODAY -> now;
             case WEEK -> now.minusWeeks(1);
@@ -41,8 +46,13 @@ public enum PeriodType {
      * Получить конечную дату для периода
      */
     public LocalDate getEndDate() {
-        LocalDate now = LocalDate.now();
+        return getEndDate(LocalDate.now());
+    }
 
+    /**
+     * Получить конечную дату для периода, заканчивающегося днем now
+     */
+    public LocalDate getEndDate(LocalDate now) {
         return switch (this) {
             case TODAY, WEEK, MONTH, QUARTER, HALF_YEAR, YEAR -> now;
             case ALL_TIME, CUSTOM -> null; // Для этих периодов дата устанавливается вручную
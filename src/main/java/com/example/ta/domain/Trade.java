@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,6 +19,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "trades")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -174,4 +177,13 @@ public class Trade {
     public boolean hasChartImage() {
         return chartImagePath != null && !chartImagePath.trim().isEmpty();
     }
+
+    /**
+     * Отсоединенная копия сделки — снимок состояния для событий об изменении
+     */
+    public Trade copy() {
+        return new Trade(id, assetName, entryPoint, exitPoint, profit, entryReason, exitReason, comment, volume,
+                volumeInCurrency, tradeDate, entryTime, exitTime, profitLoss, priceMovementPercent, status,
+                tradeType, currency, chartImagePath, createdAt, updatedAt);
+    }
 }
\ No newline at end of file
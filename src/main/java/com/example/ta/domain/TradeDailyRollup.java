@@ -0,0 +1,52 @@
+package com.example.ta.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Дневной агрегат закрытых сделок.
+ * Строки пересчитываются из trades в той же транзакции, что и сохранение/удаление сделки (DailyRollupService),
+ * поэтому через JPA сущность только читается.
+ */
+@Entity
+@Immutable
+@Table(name = "trade_daily_rollup")
+@Getter
+@NoArgsConstructor
+public class TradeDailyRollup {
+
+    @Id
+    @Column(name = "trade_date")
+    private LocalDate tradeDate;
+
+    // Закрытые сделки с рассчитанным P/L
+    @Column(name = "trade_count", nullable = false)
+    private long tradeCount;
+
+    @Column(name = "winning_trades", nullable = false)
+    private long winningTrades;
+
+    @Column(name = "losing_trades", nullable = false)
+    private long losingTrades;
+
+    @Column(name = "total_profit", precision = 15, scale = 2)
+    private BigDecimal totalProfit;
+
+    // Объем всех закрытых сделок дня (включая сделки без P/L)
+    @Column(name = "closed_volume", precision = 15, scale = 2)
+    private BigDecimal closedVolume;
+
+    @Column(name = "max_profit", precision = 15, scale = 2)
+    private BigDecimal maxProfit;
+
+    @Column(name = "min_profit", precision = 15, scale = 2)
+    private BigDecimal minProfit;
+}
@@ -25,5 +25,6 @@ public class TradeStatistics {
     private BigDecimal avgProfit;
     private BigDecimal maxProfit;
     private BigDecimal maxLoss;
+    private PerformanceMetrics performanceMetrics;
 
 }
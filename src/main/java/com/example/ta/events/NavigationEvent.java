@@ -22,6 +22,7 @@ public class NavigationEvent {
         ADD_TRADE,
         VIEW_TRADES,
         STATISTICS,
+        ASSET_BREAKDOWN,
         VIEW_TRADE_DETAILS,
         EDIT_TRADE,
         HOME,
@@ -1,21 +1,85 @@
 package com.example.ta.events;
 
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
 import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Изменения сделок, накопленные за короткое окно (см. TradeChangePublisher).
+ * Обычное событие содержит список изменений со снимками сделок до и после — слушатели обновляют свои данные
+ * на месте. Массовое событие (bulk, например после импорта) изменений не перечисляет: данные перечитываются целиком.
+ */
 @Getter
 public class TradeDataChangedEvent extends ApplicationEvent {
 
-    private final String action; // "CREATED", "UPDATED", "DELETED"
-    private final Long tradeId;
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * Изменение одной сделки: before — состояние до изменения (null для CREATED),
+     * after — после (null для DELETED). Снимки отсоединены от контекста Hibernate и не изменяются.
+     */
+    public record TradeChange(ChangeType type, Long tradeId, Trade before, Trade after) {
+
+        public static TradeChange created(Trade after) {
+            return new TradeChange(ChangeType.CREATED, after.getId(), null, after);
+        }
 
-    public TradeDataChangedEvent(Object source, String action, Long tradeId) {
+        public static TradeChange updated(Trade before, Trade after) {
+            return new TradeChange(ChangeType.UPDATED, after.getId(), before, after);
+        }
+
+        public static TradeChange deleted(Trade before) {
+            return new TradeChange(ChangeType.DELETED, before.getId(), before, null);
+        }
+
+        /**
+         * Снимки до и после изменения (без null)
+         */
+        public Stream<Trade> snapshots() {
+            return Stream.of(before, after).filter(Objects::nonNull);
+        }
+    }
+
+    private final List<TradeChange> changes;
+    private final boolean bulk;
+
+    public TradeDataChangedEvent(Object source, List<TradeChange> changes) {
+        this(source, List.copyOf(changes), false);
+    }
+
+    private TradeDataChangedEvent(Object source, List<TradeChange> changes, boolean bulk) {
         super(source);
-        this.action = action;
-        this.tradeId = tradeId;
+        this.changes = changes;
+        this.bulk = bulk;
+    }
+
+    /**
+     * Массовое изменение без перечня сделок
+     */
+    public static TradeDataChangedEvent bulk(Object source) {
+        return new TradeDataChangedEvent(source, List.of(), true);
     }
 
-    public TradeDataChangedEvent(Object source, String action) {
-        this(source, action, null);
+    /**
+     * Затрагивают ли изменения закрытые сделки с датой в периоде (null — без ограничения).
+     * Для массового события — всегда да.
+     */
+    public boolean affectsClosedTrades(LocalDate startDate, LocalDate endDate) {
+        return bulk || changes.stream()
+                .flatMap(TradeChange::snapshots)
+                .anyMatch(trade -> trade.getStatus() == TradeStatus.CLOSED
+                        && trade.getTradeDate() != null
+                        && (startDate == null || !trade.getTradeDate().isBefore(startDate))
+                        && (endDate == null || !trade.getTradeDate().isAfter(endDate)));
     }
 }
@@ -0,0 +1,32 @@
+package com.example.ta.repository;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Поля сделки, нужные аналитике (без причин, комментариев и путей к изображениям)
+ */
+public record TradeAnalyticsRow(Long id,
+                                LocalDate tradeDate,
+                                LocalDateTime createdAt,
+                                TradeStatus status,
+                                TradeType tradeType,
+                                Currency currency,
+                                String assetName,
+                                BigDecimal entryPoint,
+                                BigDecimal exitPoint,
+                                BigDecimal profitLoss,
+                                BigDecimal volumeInCurrency) {
+
+    public static TradeAnalyticsRow of(Trade trade) {
+        return new TradeAnalyticsRow(trade.getId(), trade.getTradeDate(), trade.getCreatedAt(), trade.getStatus(),
+                trade.getTradeType(), trade.getCurrency(), trade.getAssetName(), trade.getEntryPoint(),
+                trade.getExitPoint(), trade.getProfitLoss(), trade.getVolumeInCurrency());
+    }
+}
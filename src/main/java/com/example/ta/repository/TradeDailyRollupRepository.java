@@ -0,0 +1,80 @@
+package com.example.ta.repository;
+
+import com.example.ta.domain.TradeDailyRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Изменяющие запросы — нативные SQL; для каждого указана затрагиваемая таблица (HINT_NATIVE_SPACES),
+ * иначе Hibernate после такого запроса сбрасывает весь кэш второго уровня, включая сделки.
+ */
+@Repository
+public interface TradeDailyRollupRepository extends JpaRepository<TradeDailyRollup, LocalDate> {
+
+    /**
+     * Удалить агрегат дня (перед пересчетом)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trade_daily_rollup"))
+    @Query(value = "DELETE FROM trade_daily_rollup WHERE trade_date = :tradeDate", nativeQuery = true)
+    int deleteDay(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * Рассчитать агрегат дня из закрытых сделок; если закрытых сделок нет, строка не создается
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trade_daily_rollup"))
+    @Query(value = "INSERT INTO trade_daily_rollup (trade_date, trade_count, winning_trades, losing_trades, " +
+            "total_profit, closed_volume, max_profit, min_profit) " +
+            "SELECT trade_date, COUNT(profit_loss), " +
+            "COALESCE(SUM(CASE WHEN profit_loss > 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN profit_loss < 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(profit_loss), 0), COALESCE(SUM(entry_point * volume), 0), " +
+            "MAX(profit_loss), MIN(profit_loss) " +
+            "FROM trades WHERE status = 'CLOSED' AND trade_date = :tradeDate GROUP BY trade_date",
+            nativeQuery = true)
+    int insertDay(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * Удалить все дневные агрегаты
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trade_daily_rollup"))
+    @Query(value = "DELETE FROM trade_daily_rollup", nativeQuery = true)
+    int deleteAllDays();
+
+    /**
+     * Рассчитать агрегаты всех дней из закрытых сделок (после массовой загрузки)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trade_daily_rollup"))
+    @Query(value = "INSERT INTO trade_daily_rollup (trade_date, trade_count, winning_trades, losing_trades, " +
+            "total_profit, closed_volume, max_profit, min_profit) " +
+            "SELECT trade_date, COUNT(profit_loss), " +
+            "COALESCE(SUM(CASE WHEN profit_loss > 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN profit_loss < 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(profit_loss), 0), COALESCE(SUM(entry_point * volume), 0), " +
+            "MAX(profit_loss), MIN(profit_loss) " +
+            "FROM trades WHERE status = 'CLOSED' GROUP BY trade_date",
+            nativeQuery = true)
+    int insertAllDays();
+
+    /**
+     * Дневные агрегаты за период в порядке даты
+     */
+    List<TradeDailyRollup> findByTradeDateBetweenOrderByTradeDate(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Все дневные агрегаты в порядке даты
+     */
+    List<TradeDailyRollup> findAllByOrderByTradeDate();
+}
@@ -2,33 +2,66 @@ package com.example.ta.repository;
 
 import com.example.ta.domain.Trade;
 import com.example.ta.domain.TradeStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecificationExecutor<Trade> {
 
+    /**
+     * Количество сделок (результат кэшируется в кэше запросов Hibernate).
+     * Кэшируются только агрегаты и страницы: списки без ограничения размера в кэш запросов не попадают —
+     * при query_cache_layout FULL каждый такой результат хранил бы копии всех своих строк.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long count();
+
     /**
      * Найти сделки по названию актива (с игнорированием регистра)
      */
     List<Trade> findByAssetNameContainingIgnoreCase(String assetName);
 
     /**
-     * Найти сделки по статусу
+     * Полнотекстовый поиск по активу, причинам входа/выхода и комментарию (FTS5),
+     * результаты упорядочены по релевантности (bm25, совпадение в названии актива весит больше).
+     * Фильтры по статусу и датам необязательны (null — без фильтра).
+     */
+    @Query(value = "SELECT t.* FROM trades_fts f JOIN trades t ON t.id = f.rowid " +
+            "WHERE trades_fts MATCH :match " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:startDate IS NULL OR t.trade_date >= :startDate) " +
+            "AND (:endDate IS NULL OR t.trade_date <= :endDate) " +
+            "ORDER BY bm25(trades_fts, 10.0, 2.0, 2.0, 1.0), t.trade_date DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Trade> searchFullText(@Param("match") String match,
+                               @Param("status") String status,
+                               @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate,
+                               @Param("limit") int limit);
+
+    /**
+     * Найти сделки по статусу (новые сначала, не больше размера страницы)
      */
-    List<Trade> findByStatus(TradeStatus status);
+    List<Trade> findByStatusOrderByTradeDateDescIdDesc(TradeStatus status, Pageable pageable);
 
     /**
-     * Найти сделки за период
+     * Найти сделки за период (новые сначала, не больше размера страницы)
      */
-    List<Trade> findByTradeDateBetween(LocalDate startDate, LocalDate endDate);
+    List<Trade> findByTradeDateBetweenOrderByTradeDateDescIdDesc(LocalDate startDate, LocalDate endDate,
+                                                                  Pageable pageable);
 
     /**
      * Найти сделки по активу и статусу
@@ -48,10 +81,10 @@ public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecific
             String assetName, LocalDate startDate, LocalDate endDate);
 
     /**
-     * Найти сделки по статусу и периоду
+     * Найти сделки по статусу и периоду (новые сначала, не больше размера страницы)
      */
-    List<Trade> findByStatusAndTradeDateBetween(
-            TradeStatus status, LocalDate startDate, LocalDate endDate);
+    List<Trade> findByStatusAndTradeDateBetweenOrderByTradeDateDescIdDesc(
+            TradeStatus status, LocalDate startDate, LocalDate endDate, Pageable pageable);
 
     /**
      * Найти прибыльные сделки
@@ -78,36 +111,42 @@ public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecific
     /**
      * Получить общую прибыль за период
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COALESCE(SUM(t.profitLoss), 0) FROM Trade t WHERE t.tradeDate BETWEEN :startDate AND :endDate AND t.status = 'CLOSED'")
     BigDecimal getTotalProfitForPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     /**
      * Получить количество прибыльных сделок за период
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.tradeDate BETWEEN :startDate AND :endDate AND t.profitLoss > 0 AND t.status = 'CLOSED'")
     Long getWinningTradesCountForPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     /**
      * Получить общее количество закрытых сделок за период
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.tradeDate BETWEEN :startDate AND :endDate AND t.status = 'CLOSED'")
     Long getClosedTradesCountForPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     /**
      * Получить максимальную прибыль
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT MAX(t.profitLoss) FROM Trade t WHERE t.status = 'CLOSED'")
     BigDecimal getMaxProfit();
 
     /**
      * Получить максимальный убыток
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT MIN(t.profitLoss) FROM Trade t WHERE t.status = 'CLOSED'")
     BigDecimal getMaxLoss();
 
     /**
      * Получить общий объем торгов за период
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COALESCE(SUM(t.volumeInCurrency), 0) FROM Trade t WHERE t.tradeDate BETWEEN :startDate AND :endDate")
     BigDecimal getTotalVolumeForPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
@@ -116,45 +155,118 @@ public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecific
      */
     List<Trade> findAllByOrderByTradeDateDescCreatedAtDesc();
 
+    /**
+     * Страница сделок в порядке trade_date DESC, id DESC (по смещению)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Trade> findAllByOrderByTradeDateDescIdDesc(Pageable pageable);
+
+    /**
+     * Страница сделок, следующих за ключом (trade_date, id) — keyset-пагинация без OFFSET
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT t FROM Trade t WHERE t.tradeDate < :tradeDate OR (t.tradeDate = :tradeDate AND t.id < :id) " +
+            "ORDER BY t.tradeDate DESC, t.id DESC")
+    List<Trade> findPageAfter(@Param("tradeDate") LocalDate tradeDate, @Param("id") Long id, Pageable pageable);
+
     /**
      * Получить общую прибыль за все время
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COALESCE(SUM(t.profitLoss), 0) FROM Trade t WHERE t.profitLoss IS NOT NULL")
     BigDecimal getTotalProfit();
 
     /**
-     * Получить общий объем за все время
+     * Получить общий объем (цена входа × количество) за все время — в том же определении, что и getClosedTradesTotals
      */
-    @Query("SELECT COALESCE(SUM(t.volumeInCurrency), 0) FROM Trade t WHERE t.volumeInCurrency IS NOT NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COALESCE(SUM(t.entryPoint * t.volume), 0) FROM Trade t " +
+            "WHERE t.entryPoint IS NOT NULL AND t.volume IS NOT NULL")
     BigDecimal getTotalVolume();
 
     /**
      * Получить количество прибыльных сделок за все время
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.profitLoss > 0")
     Long getWinningTradesCount();
 
     /**
      * Получить количество убыточных сделок за все время
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.profitLoss < 0")
     Long getLosingTradesCount();
 
     /**
      * Получить общее количество сделок с рассчитанной прибылью
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.profitLoss IS NOT NULL")
     Long getTradesWithProfitLossCount();
 
     /**
      * Получить максимальную прибыль за все время
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COALESCE(MAX(t.profitLoss), 0) FROM Trade t WHERE t.profitLoss IS NOT NULL")
     BigDecimal getMaxProfitAllTime();
 
     /**
      * Получить максимальный убыток за все время
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COALESCE(MIN(t.profitLoss), 0) FROM Trade t WHERE t.profitLoss IS NOT NULL")
     BigDecimal getMaxLossAllTime();
-}
\ No newline at end of file
+
+    /**
+     * Получить агрегаты по всем закрытым сделкам одним запросом
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(t.profitLoss) AS totalTrades, " +
+            "COALESCE(SUM(t.profitLoss), 0) AS totalProfit, " +
+            "COALESCE(SUM(t.entryPoint * t.volume), 0) AS totalVolume, " +
+            "COALESCE(SUM(CASE WHEN t.profitLoss > 0 THEN 1 ELSE 0 END), 0) AS winningTrades, " +
+            "COALESCE(SUM(CASE WHEN t.profitLoss < 0 THEN 1 ELSE 0 END), 0) AS losingTrades, " +
+            "MAX(t.profitLoss) AS maxProfit, " +
+            "MIN(t.profitLoss) AS maxLoss " +
+            "FROM Trade t WHERE t.status = 'CLOSED'")
+    TradeTotals getClosedTradesTotals();
+
+    /**
+     * Потоковое чтение закрытых сделок с P/L за период (курсор, без загрузки всего списка).
+     * Поток должен читаться и закрываться внутри транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Trade t WHERE t.status = 'CLOSED' AND t.profitLoss IS NOT NULL " +
+            "AND t.tradeDate BETWEEN :startDate AND :endDate ORDER BY t.tradeDate, t.id")
+    Stream<Trade> streamClosedTradesForPeriod(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    /**
+     * Потоковое чтение всех закрытых сделок с P/L (курсор, без загрузки всего списка).
+     * Поток должен читаться и закрываться внутри транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Trade t WHERE t.status = 'CLOSED' AND t.profitLoss IS NOT NULL ORDER BY t.tradeDate, t.id")
+    Stream<Trade> streamClosedTrades();
+
+    /**
+     * Потоковое чтение аналитических полей всех сделок в порядке trade_date, id (для колоночного хранилища).
+     * Поток должен читаться и закрываться внутри транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.ta.repository.TradeAnalyticsRow(t.id, t.tradeDate, t.createdAt, t.status, " +
+            "t.tradeType, t.currency, t.assetName, t.entryPoint, t.exitPoint, t.profitLoss, t.volumeInCurrency) " +
+            "FROM Trade t ORDER BY t.tradeDate, t.id")
+    Stream<TradeAnalyticsRow> streamAnalyticsRows();
+}
@@ -0,0 +1,29 @@
+package com.example.ta.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Агрегированные показатели закрытых сделок, рассчитанные на стороне БД
+ */
+public interface TradeTotals {
+
+    /**
+     * Количество закрытых сделок с рассчитанной прибылью/убытком
+     */
+    Long getTotalTrades();
+
+    BigDecimal getTotalProfit();
+
+    /**
+     * Объем всех закрытых сделок (включая сделки без P/L)
+     */
+    BigDecimal getTotalVolume();
+
+    Long getWinningTrades();
+
+    Long getLosingTrades();
+
+    BigDecimal getMaxProfit();
+
+    BigDecimal getMaxLoss();
+}
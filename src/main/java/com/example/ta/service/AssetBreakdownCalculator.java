@@ -0,0 +1,177 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.AssetBreakdown;
+import com.example.ta.util.FixedPointMoney;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+
+/**
+ * Разбивка закрытых сделок колоночного снимка по активам.
+ * Диапазон индексов делится на части, каждая агрегируется параллельно в массивы по номеру актива из словаря,
+ * частичные итоги сливаются в порядке следования. Просадка сливается через сводку (сумма, максимум и минимум
+ * префикса, максимальная просадка внутри части) — результат совпадает с последовательным проходом.
+ */
+final class AssetBreakdownCalculator {
+
+    private static final int WIN_RATE_SCALE = 4;
+    // Меньшие части не окупают накладные расходы на параллельный запуск
+    private static final int MIN_CHUNK_SIZE = 16_384;
+
+    private AssetBreakdownCalculator() {
+    }
+
+    /**
+     * Итоги по активам для сделок снимка в диапазоне индексов [from, to), по убыванию общего P/L
+     */
+    static List<AssetBreakdown> calculate(TradeColumns columns, int from, int to) {
+        int count = Math.max(0, to - from);
+        int chunkCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4,
+                count / MIN_CHUNK_SIZE));
+        return calculate(columns, from, to, chunkCount);
+    }
+
+    /**
+     * Итоги по активам с заданным числом частей; результат не зависит от chunkCount
+     */
+    static List<AssetBreakdown> calculate(TradeColumns columns, int from, int to, int chunkCount) {
+        int count = Math.max(0, to - from);
+        int chunkSize = count / chunkCount + 1;
+
+        Totals totals = IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(chunk -> Totals.of(columns, from + chunk * chunkSize,
+                        Math.min(to, from + (chunk + 1) * chunkSize)))
+                .reduce(Totals::merge)
+                .orElseGet(() -> new Totals(columns.assetCount()));
+
+        List<AssetBreakdown> breakdown = new ArrayList<>();
+        for (int assetId = 0; assetId < totals.assetCount; assetId++) {
+            if (totals.trades[assetId] > 0 || totals.volume[assetId] != 0) {
+                breakdown.add(totals.toBreakdown(assetId, columns.assetNameById(assetId)));
+            }
+        }
+        breakdown.sort(Comparator.comparing(AssetBreakdown::getTotalProfit).reversed());
+        return breakdown;
+    }
+
+    /**
+     * Итоги части сделок по номеру актива; суммы — фиксированная точка, масштаб 2
+     */
+    private static final class Totals {
+
+        private final int assetCount;
+        private final long[] trades;
+        private final long[] wins;
+        private final long[] losses;
+        private final long[] volume;
+        private final long[] best;
+        private final long[] worst;
+        // Сводка накопленного P/L части: сумма, максимум и минимум префикса (с пустым), максимальная просадка
+        private final long[] profit;
+        private final long[] peak;
+        private final long[] trough;
+        private final long[] drawdown;
+
+        private Totals(int assetCount) {
+            this.assetCount = assetCount;
+            this.trades = new long[assetCount];
+            this.wins = new long[assetCount];
+            this.losses = new long[assetCount];
+            this.volume = new long[assetCount];
+            this.best = new long[assetCount];
+            this.worst = new long[assetCount];
+            this.profit = new long[assetCount];
+            this.peak = new long[assetCount];
+            this.trough = new long[assetCount];
+            this.drawdown = new long[assetCount];
+            Arrays.fill(best, Long.MIN_VALUE);
+            Arrays.fill(worst, Long.MAX_VALUE);
+        }
+
+        static Totals of(TradeColumns columns, int from, int to) {
+            Totals totals = new Totals(columns.assetCount());
+            for (int i = from; i < to; i++) {
+                if (!columns.isClosed(i)) {
+                    continue;
+                }
+                int asset = columns.assetId(i);
+                totals.volume[asset] = FixedPointMoney.add(totals.volume[asset], columns.volumeInCurrency(i));
+                if (!columns.hasProfitLoss(i)) {
+                    continue;
+                }
+
+                long profitLoss = columns.profitLoss(i);
+                totals.trades[asset]++;
+                if (profitLoss > 0) {
+                    totals.wins[asset]++;
+                } else if (profitLoss < 0) {
+                    totals.losses[asset]++;
+                }
+                totals.best[asset] = Math.max(totals.best[asset], profitLoss);
+                totals.worst[asset] = Math.min(totals.worst[asset], profitLoss);
+
+                long equity = FixedPointMoney.add(totals.profit[asset], profitLoss);
+                totals.profit[asset] = equity;
+                totals.peak[asset] = Math.max(totals.peak[asset], equity);
+                totals.trough[asset] = Math.min(totals.trough[asset], equity);
+                totals.drawdown[asset] = Math.max(totals.drawdown[asset], totals.peak[asset] - equity);
+            }
+            return totals;
+        }
+
+        // Слияние с частью, следующей за текущей; результат записывается в текущую
+        Totals merge(Totals next) {
+            for (int asset = 0; asset < assetCount; asset++) {
+                trades[asset] += next.trades[asset];
+                wins[asset] += next.wins[asset];
+                losses[asset] += next.losses[asset];
+                volume[asset] = FixedPointMoney.add(volume[asset], next.volume[asset]);
+                best[asset] = Math.max(best[asset], next.best[asset]);
+                worst[asset] = Math.min(worst[asset], next.worst[asset]);
+
+                long offset = profit[asset];
+                drawdown[asset] = Math.max(Math.max(drawdown[asset], next.drawdown[asset]),
+                        peak[asset] - FixedPointMoney.add(offset, next.trough[asset]));
+                peak[asset] = Math.max(peak[asset], FixedPointMoney.add(offset, next.peak[asset]));
+                trough[asset] = Math.min(trough[asset], FixedPointMoney.add(offset, next.trough[asset]));
+                profit[asset] = FixedPointMoney.add(offset, next.profit[asset]);
+            }
+            return this;
+        }
+
+        AssetBreakdown toBreakdown(int asset, String assetName) {
+            long tradeCount = trades[asset];
+
+            AssetBreakdown breakdown = new AssetBreakdown();
+            breakdown.setAssetName(assetName);
+            breakdown.setTotalTrades((int) tradeCount);
+            breakdown.setWinningTrades((int) wins[asset]);
+            breakdown.setLosingTrades((int) losses[asset]);
+            breakdown.setTotalProfit(FixedPointMoney.toBigDecimal(profit[asset], PRICE_SCALE));
+            breakdown.setTotalVolume(FixedPointMoney.toBigDecimal(volume[asset], PRICE_SCALE));
+            breakdown.setMaxDrawdown(FixedPointMoney.toBigDecimal(drawdown[asset], PRICE_SCALE));
+
+            if (tradeCount > 0) {
+                breakdown.setWinRate(FixedPointMoney.toBigDecimal(
+                        FixedPointMoney.ratio(wins[asset], tradeCount, WIN_RATE_SCALE) * 100, WIN_RATE_SCALE));
+                breakdown.setAvgProfit(FixedPointMoney.toBigDecimal(
+                        FixedPointMoney.divide(profit[asset], tradeCount), PRICE_SCALE));
+                breakdown.setBestTrade(FixedPointMoney.toBigDecimal(best[asset], PRICE_SCALE));
+                breakdown.setWorstTrade(FixedPointMoney.toBigDecimal(worst[asset], PRICE_SCALE));
+            } else {
+                breakdown.setWinRate(BigDecimal.ZERO);
+                breakdown.setAvgProfit(BigDecimal.ZERO);
+                breakdown.setBestTrade(BigDecimal.ZERO);
+                breakdown.setWorstTrade(BigDecimal.ZERO);
+            }
+            return breakdown;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ta.service;
+
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Фоновая загрузка данных для контроллеров.
+ * Запросы выполняются на виртуальных потоках вне JavaFX Application Thread,
+ * результат передается обратно через Platform.runLater.
+ * Новый запрос с тем же ключом отменяет предыдущий, еще не завершенный.
+ */
+@Slf4j
+@Service
+public class BackgroundLoadService {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, Future<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, LoadStatistics> loadStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * Статистика времени выполнения загрузок по ключу
+     */
+    public record LoadStatistics(long count, long failures, long totalNanos, long maxNanos, long lastNanos) {
+
+        private static final LoadStatistics EMPTY = new LoadStatistics(0, 0, 0, 0, 0);
+
+        public double getAverageMillis() {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        private LoadStatistics plus(long nanos, boolean failed) {
+            return new LoadStatistics(count + 1, failures + (failed ? 1 : 0),
+                    totalNanos + nanos, Math.max(maxNanos, nanos), nanos);
+        }
+    }
+
+    /**
+     * Выполнить загрузку в фоне
+     *
+     * @param key       ключ загрузки; новый запрос с тем же ключом отменяет предыдущий
+     * @param task      загрузка данных (выполняется вне FX-потока)
+     * @param onSuccess обработчик результата (выполняется в FX-потоке)
+     * @param onFailure обработчик ошибки (выполняется в FX-потоке)
+     */
+    public <T> void submit(String key, Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        long generation = generations.merge(key, 1L, Long::sum);
+
+        Future<?> future = executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = task.call();
+                long elapsed = recordLatency(key, start, false);
+                log.debug("Загрузка '{}' выполнена за {} мс", key, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+                deliver(key, generation, () -> onSuccess.accept(result));
+            } catch (Exception e) {
+                recordLatency(key, start, true);
+                if (isCurrent(key, generation)) {
+                    log.error("Ошибка фоновой загрузки '{}'", key, e);
+                    deliver(key, generation, () -> onFailure.accept(e));
+                } else {
+                    log.debug("Загрузка '{}' прервана более новым запросом", key);
+                }
+            }
+        });
+
+        Future<?> previous = inFlight.put(key, future);
+        if (previous != null && !previous.isDone()) {
+            previous.cancel(true);
+            log.debug("Предыдущая загрузка '{}' отменена", key);
+        }
+    }
+
+    /**
+     * Выполнить загрузку в фоне без обработки ошибок на стороне вызывающего кода
+     */
+    public <T> void submit(String key, Callable<T> task, Consumer<T> onSuccess) {
+        submit(key, task, onSuccess, e -> {
+        });
+    }
+
+    /**
+     * Исполнитель на виртуальных потоках для фоновых загрузок без ключа (например, окон постраничного списка)
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Отменить загрузку с указанным ключом
+     */
+    public void cancel(String key) {
+        generations.merge(key, 1L, Long::sum);
+        Future<?> future = inFlight.remove(key);
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Статистика времени загрузок по ключам
+     */
+    public Map<String, LoadStatistics> getLoadStatistics() {
+        return Map.copyOf(loadStatistics);
+    }
+
+    private boolean isCurrent(String key, long generation) {
+        Long current = generations.get(key);
+        return current != null && current == generation;
+    }
+
+    private void deliver(String key, long generation, Runnable action) {
+        Platform.runLater(() -> {
+            // Результат устаревшего запроса не применяется, даже если он успел завершиться
+            if (!isCurrent(key, generation)) {
+                return;
+            }
+            inFlight.remove(key);
+            action.run();
+        });
+    }
+
+    private long recordLatency(String key, long start, boolean failed) {
+        long elapsed = System.nanoTime() - start;
+        loadStatistics.merge(key, LoadStatistics.EMPTY.plus(elapsed, failed),
+                (current, ignored) -> current.plus(elapsed, failed));
+        return elapsed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadStatistics.forEach((key, stats) ->
+                log.info("Загрузка '{}': {} вызовов, среднее {} мс, максимум {} мс, ошибок {}",
+                        key, stats.count(), String.format("%.1f", stats.getAverageMillis()),
+                        String.format("%.1f", stats.getMaxMillis()), stats.failures()));
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.ta.service;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Уменьшенные копии изображений графиков для карточки сделки.
+ * Миниатюры сохраняются в папку thumbnails рядом с оригиналом (chart.jpg → thumbnails/chart.jpg.png),
+ * используются, только если не старше оригинала, и кэшируются в памяти (LRU, ограничение по объему декодированных пикселей).
+ */
+@Slf4j
+@Service
+public class ChartImageService {
+
+    private static final String THUMBNAILS_FOLDER = "thumbnails";
+
+    @Value("${trading.images.thumbnail-width:800}")
+    private int thumbnailWidth;
+
+    @Value("${trading.images.thumbnail-height:600}")
+    private int thumbnailHeight;
+
+    @Value("${trading.images.cache-size-mb:64}")
+    private long cacheSizeMb;
+
+    private record CacheKey(Path path, long lastModified) {
+    }
+
+    private final LinkedHashMap<CacheKey, Image> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Миниатюра из кэша, если она уже декодирована для текущей версии файла
+     */
+    public Optional<Image> getCachedThumbnail(String imagePath) {
+        CacheKey key = cacheKey(imagePath);
+        if (key == null) {
+            return Optional.empty();
+        }
+        synchronized (cache) {
+            return Optional.ofNullable(cache.get(key));
+        }
+    }
+
+    /**
+     * Загрузить миниатюру: из кэша, из сохраненного файла миниатюры или декодировав оригинал.
+     * Выполняет файловый ввод-вывод — вызывать вне FX-потока.
+     */
+    public Image loadThumbnail(String imagePath) throws IOException {
+        CacheKey key = cacheKey(imagePath);
+        if (key == null) {
+            throw new IOException("Файл изображения не найден: " + imagePath);
+        }
+
+        synchronized (cache) {
+            Image cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Path thumbnailPath = thumbnailPath(key.path());
+        Image thumbnail;
+        if (Files.exists(thumbnailPath)
+                && Files.getLastModifiedTime(thumbnailPath).compareTo(FileTime.fromMillis(key.lastModified())) >= 0) {
+            thumbnail = decode(thumbnailPath, 0, 0);
+            log.debug("Миниатюра загружена с диска: {}", thumbnailPath);
+        } else {
+            thumbnail = decode(key.path(), thumbnailWidth, thumbnailHeight);
+            saveThumbnail(thumbnail, thumbnailPath);
+        }
+
+        put(key, thumbnail);
+        return thumbnail;
+    }
+
+    /**
+     * Удалить сохраненную миниатюру и записи кэша для изображения
+     */
+    public void deleteThumbnail(String imagePath) {
+        if (imagePath == null || imagePath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(imagePath).toAbsolutePath();
+
+        synchronized (cache) {
+            Iterator<Map.Entry<CacheKey, Image>> iterator = cache.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<CacheKey, Image> entry = iterator.next();
+                if (entry.getKey().path().equals(path)) {
+                    cachedBytes -= imageBytes(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+
+        try {
+            Files.deleteIfExists(thumbnailPath(path));
+        } catch (IOException e) {
+            log.warn("Не удалось удалить миниатюру для {}: {}", imagePath, e.getMessage());
+        }
+    }
+
+    private Image decode(Path path, int width, int height) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            // Декодер сразу уменьшает изображение до запрошенного размера, полноразмерная копия не создается
+            Image image = new Image(inputStream, width, height, true, true);
+            if (image.isError()) {
+                throw new IOException("Не удалось декодировать изображение: " + path, image.getException());
+            }
+            return image;
+        }
+    }
+
+    private void saveThumbnail(Image thumbnail, Path thumbnailPath) {
+        try {
+            Files.createDirectories(thumbnailPath.getParent());
+            ImageIO.write(SwingFXUtils.fromFXImage(thumbnail, null), "png", thumbnailPath.toFile());
+            log.info("Создана миниатюра: {}", thumbnailPath);
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить миниатюру {}: {}", thumbnailPath, e.getMessage());
+        }
+    }
+
+    private void put(CacheKey key, Image image) {
+        long maxBytes = cacheSizeMb * 1024 * 1024;
+
+        synchronized (cache) {
+            Image previous = cache.put(key, image);
+            if (previous != null) {
+                cachedBytes -= imageBytes(previous);
+            }
+            cachedBytes += imageBytes(image);
+
+            Iterator<Map.Entry<CacheKey, Image>> iterator = cache.entrySet().iterator();
+            while (cachedBytes > maxBytes && cache.size() > 1 && iterator.hasNext()) {
+                Map.Entry<CacheKey, Image> eldest = iterator.next();
+                cachedBytes -= imageBytes(eldest.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private CacheKey cacheKey(String imagePath) {
+        if (imagePath == null || imagePath.isBlank()) {
+            return null;
+        }
+        Path path = Path.of(imagePath).toAbsolutePath();
+        try {
+            return new CacheKey(path, Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Полное имя оригинала с расширением: chart.jpg и chart.png из одной папки получают разные миниатюры
+    static Path thumbnailPath(Path imagePath) {
+        return imagePath.getParent().resolve(THUMBNAILS_FOLDER).resolve(imagePath.getFileName() + ".png");
+    }
+
+    private static long imageBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
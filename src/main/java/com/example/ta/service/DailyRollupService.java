@@ -0,0 +1,72 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.TradeDailyRollup;
+import com.example.ta.repository.TradeDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Дневные агрегаты закрытых сделок (таблица trade_daily_rollup).
+ * Кривая эквити за неделю и дольше и индекс диапазонов дат (TradeRangeIndex) читают не больше одной строки
+ * на день вместо всех сделок.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    private final TradeDailyRollupRepository rollupRepository;
+    private final TradeRangeIndex rangeIndex;
+
+    /**
+     * Пересчитать агрегаты указанных дней из trades.
+     * Выполняется в транзакции сохранения/удаления сделки, изменения сделки должны быть сброшены в БД.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshDays(LocalDate... tradeDates) {
+        List<TradeRangeIndex.DayTotals> refreshed = Stream.of(tradeDates)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(tradeDate -> {
+                    rollupRepository.deleteDay(tradeDate);
+                    rollupRepository.insertDay(tradeDate);
+                    log.debug("Дневной агрегат за {} пересчитан", tradeDate);
+                    return rollupRepository.findById(tradeDate)
+                            .map(TradeRangeIndex.DayTotals::of)
+                            .orElseGet(() -> TradeRangeIndex.DayTotals.empty(tradeDate));
+                })
+                .toList();
+
+        rangeIndex.applyAfterCommit(refreshed);
+    }
+
+    /**
+     * Пересчитать все дневные агрегаты (после загрузки сделок в обход TradeService)
+     */
+    @Transactional
+    public void rebuildAll() {
+        rollupRepository.deleteAllDays();
+        int days = rollupRepository.insertAllDays();
+        rangeIndex.invalidateAfterCommit();
+        log.info("Дневные агрегаты пересчитаны: {} дней", days);
+    }
+
+    /**
+     * Дневные агрегаты за период в порядке даты (null — за все время)
+     */
+    @Transactional(readOnly = true)
+    public List<TradeDailyRollup> getDailyRollups(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null) {
+            return rollupRepository.findByTradeDateBetweenOrderByTradeDate(startDate, endDate);
+        }
+        return rollupRepository.findAllByOrderByTradeDate();
+    }
+}
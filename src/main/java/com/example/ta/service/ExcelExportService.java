@@ -1,14 +1,18 @@
 
 package com.example.ta.service;
 
+import com.example.ta.domain.AssetBreakdown;
+import com.example.ta.domain.PerformanceMetrics;
 import com.example.ta.domain.Trade;
 import com.example.ta.domain.TradeStatistics;
 import com.example.ta.util.NumberFormatUtil;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -23,6 +27,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -34,54 +43,131 @@ public class ExcelExportService {
     private static final long RETRY_DELAY_MS = 1000;
 
     /**
-     * Экспорт статистики торговли в Excel
+     * Количество строк листа, одновременно находящихся в памяти; остальные сбрасываются во временный файл
      */
-    public File exportTradingStatistics(TradeStatistics statistics, LocalDate startDate, LocalDate endDate) throws IOException {
+    @Value("${trading.export.row-access-window:200}")
+    private int rowAccessWindow;
+
+    // Экспорты выполняются по очереди в одном фоновом потоке; повторные попытки записи планируются, а не ожидаются
+    private final ScheduledExecutorService exportExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "excel-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Поставить экспорт статистики торговли в Excel в очередь
+     */
+    public ExportJob submitExport(TradeStatistics statistics, LocalDate startDate, LocalDate endDate) {
+        ExportJob job = new ExportJob(describePeriod(statistics));
+        exportExecutor.execute(() -> runExport(job, statistics, startDate, endDate));
+
+        log.info("Экспорт в Excel поставлен в очередь: {}", job.getDescription());
+        return job;
+    }
+
+    private void runExport(ExportJob job, TradeStatistics statistics, LocalDate startDate, LocalDate endDate) {
+        if (job.isCancelRequested()) {
+            job.fail(new CancellationException("Экспорт отменен"));
+            return;
+        }
+
         log.info("Начинаем экспорт статистики в Excel для периода {} - {}", startDate, endDate);
+        job.updateState(ExportJob.State.RUNNING, ExportJob.State.RUNNING.getDisplayName());
 
-        try (Workbook workbook = new XSSFWorkbook()) {
+        // Потоковая книга: в памяти держится только скользящее окно строк
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindow);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet statisticsSheet = workbook.createSheet("Статистика");
             createStatisticsSheet(statisticsSheet, statistics, workbook);
 
-            Sheet tradesSheet = workbook.createSheet("Сделки");
-            List<Trade> trades = tradeService.getClosedTradesForPeriod(startDate, endDate);
-            createTradesSheet(tradesSheet, trades, workbook);
+            Sheet assetsSheet = workbook.createSheet("По активам");
+            createAssetBreakdownSheet(assetsSheet, tradeService.getAssetBreakdown(startDate, endDate), workbook);
 
-            File file = createExcelFileWithRetry(workbook, statistics);
+            Sheet tradesSheet = workbook.createSheet("Сделки");
+            Consumer<Trade> tradesWriter = createTradesSheet(tradesSheet, workbook);
 
-            log.info("Excel отчет успешно создан: {}", file.getAbsolutePath());
-            return file;
+            long totalTrades = statistics.getTotalTrades();
+            long[] writtenTrades = {0};
+            tradeService.forEachClosedTrade(startDate, endDate, trade -> {
+                if (job.isCancelRequested()) {
+                    throw new CancellationException("Экспорт отменен");
+                }
+                tradesWriter.accept(trade);
+                job.updateProgress(++writtenTrades[0], totalTrades);
+            });
+
+            writeFileWithRetry(job, workbook, statistics, 1);
+        } catch (Exception e) {
+            if (job.isCancelRequested()) {
+                log.info("Экспорт отменен пользователем: {}", job.getDescription());
+            } else {
+                log.error("Ошибка при экспорте в Excel", e);
+            }
+            closeWorkbook(workbook);
+            job.fail(e);
         }
     }
 
     /**
-     * Создание файла Excel с повторными попытками при блокировке
+     * Запись файла Excel; при блокировке следующая попытка планируется через RETRY_DELAY_MS,
+     * не занимая поток, так что следующие экспорты в очереди могут выполняться
      */
-    private File createExcelFileWithRetry(Workbook workbook, TradeStatistics statistics) throws IOException {
-        IOException lastException = null;
+    private void writeFileWithRetry(ExportJob job, SXSSFWorkbook workbook, TradeStatistics statistics, int attempt) {
+        if (job.isCancelRequested()) {
+            closeWorkbook(workbook);
+            job.fail(new CancellationException("Экспорт отменен"));
+            return;
+        }
 
-        for (int attempt = 1; attempt <= MAX_RETRY_ATTEMPTS; attempt++) {
-            try {
-                return createExcelFileSecure(workbook, statistics, attempt);
-            } catch (IOException e) {
-                lastException = e;
-                log.warn("Попытка {} из {} неудачна: {}", attempt, MAX_RETRY_ATTEMPTS, e.getMessage());
-
-                if (attempt < MAX_RETRY_ATTEMPTS) {
-                    try {
-                        log.info("Ожидание {} мс перед следующей попыткой...", RETRY_DELAY_MS);
-                        Thread.sleep(RETRY_DELAY_MS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new IOException("Процесс создания файла прерван", ie);
-                    }
-                }
+        job.updateState(ExportJob.State.WRITING, ExportJob.State.WRITING.getDisplayName());
+        try {
+            File file = createExcelFileSecure(workbook, statistics, attempt);
+            closeWorkbook(workbook);
+
+            log.info("Excel отчет успешно создан: {}", file.getAbsolutePath());
+            job.complete(file);
+        } catch (IOException e) {
+            log.warn("Попытка {} из {} неудачна: {}", attempt, MAX_RETRY_ATTEMPTS, e.getMessage());
+
+            if (attempt < MAX_RETRY_ATTEMPTS) {
+                log.info("Следующая попытка через {} мс", RETRY_DELAY_MS);
+                job.updateState(ExportJob.State.WAITING_RETRY, String.format("%s (%d из %d)",
+                        ExportJob.State.WAITING_RETRY.getDisplayName(), attempt + 1, MAX_RETRY_ATTEMPTS));
+                exportExecutor.schedule(() -> writeFileWithRetry(job, workbook, statistics, attempt + 1),
+                        RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            } else {
+                closeWorkbook(workbook);
+                job.fail(new IOException("Не удалось создать Excel файл после " + MAX_RETRY_ATTEMPTS + " попыток", e));
             }
         }
+    }
 
-        throw new IOException("Не удалось создать Excel файл после " + MAX_RETRY_ATTEMPTS + " попыток", lastException);
+    private void closeWorkbook(SXSSFWorkbook workbook) {
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            log.warn("Ошибка при закрытии книги Excel: {}", e.getMessage());
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private String describePeriod(TradeStatistics statistics) {
+        String periodText = statistics.getPeriodType() != null ? statistics.getPeriodType().getDisplayName() : "Выбранный период";
+        if (statistics.getPeriodStart() != null && statistics.getPeriodEnd() != null) {
+            periodText += String.format(" (%s - %s)",
+                    statistics.getPeriodStart().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
+                    statistics.getPeriodEnd().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
+        }
+        return periodText;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
+    }
 
     /**
      * Безопасное создание файла Excel с проверкой блокировки
@@ -165,9 +251,9 @@ public class ExcelExportService {
 
 
     /**
-     * Создание листа со статистикой
+     * Создание листа со статистикой (доступно в пакете для JMH-бенчмарков)
      */
-    private void createStatisticsSheet(Sheet sheet, TradeStatistics stats, Workbook workbook) {
+    void createStatisticsSheet(Sheet sheet, TradeStatistics stats, Workbook workbook) {
         CellStyle headerStyle = createHeaderStyle(workbook);
         CellStyle titleStyle = createTitleStyle(workbook);
         CellStyle dataStyle = createDataStyle(workbook);
@@ -185,13 +271,7 @@ public class ExcelExportService {
         rowNum++;
         Row periodRow = sheet.createRow(rowNum++);
         periodRow.createCell(0).setCellValue("Период:");
-        String periodText = stats.getPeriodType() != null ? stats.getPeriodType().getDisplayName() : "Выбранный период";
-        if (stats.getPeriodStart() != null && stats.getPeriodEnd() != null) {
-            periodText += String.format(" (%s - %s)",
-                    stats.getPeriodStart().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
-                    stats.getPeriodEnd().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
-        }
-        periodRow.createCell(1).setCellValue(periodText);
+        periodRow.createCell(1).setCellValue(describePeriod(stats));
 
         Row dateRow = sheet.createRow(rowNum++);
         dateRow.createCell(0).setCellValue("Дата создания отчета:");
@@ -224,22 +304,121 @@ public class ExcelExportService {
         addStatRow(sheet, rowNum++, "📉 Максимальный убыток",
                 NumberFormatUtil.formatCurrencyWithSpaces(stats.getMaxLoss()), centeredDataStyle);
 
+        PerformanceMetrics metrics = stats.getPerformanceMetrics();
+        if (metrics != null) {
+            rowNum++;
+
+            Row metricsHeaderRow = sheet.createRow(rowNum++);
+            Cell metricsHeaderCell = metricsHeaderRow.createCell(0);
+            metricsHeaderCell.setCellValue("ПОКАЗАТЕЛИ ЭФФЕКТИВНОСТИ");
+            metricsHeaderCell.setCellStyle(headerStyle);
+            sheet.addMergedRegion(new CellRangeAddress(rowNum - 1, rowNum - 1, 0, 1));
+
+            addStatRow(sheet, rowNum++, "📉 Максимальная просадка",
+                    NumberFormatUtil.formatCurrencyWithSpaces(metrics.getMaxDrawdown()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "📉 Максимальная просадка, %",
+                    formatOptionalPercentage(metrics.getMaxDrawdownPercent()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "⏳ Длительность просадки, дней",
+                    NumberFormatUtil.formatIntegerWithSpaces(metrics.getMaxDrawdownDurationDays()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "⚖ Profit factor",
+                    formatOptionalRatio(metrics.getProfitFactor()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "🎲 Математическое ожидание",
+                    NumberFormatUtil.formatCurrencyWithSpaces(metrics.getExpectancy()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "✅ Средняя прибыль",
+                    NumberFormatUtil.formatCurrencyWithSpaces(metrics.getAvgWin()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "❌ Средний убыток",
+                    NumberFormatUtil.formatCurrencyWithSpaces(metrics.getAvgLoss()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "🔁 Payoff ratio",
+                    formatOptionalRatio(metrics.getPayoffRatio()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "📐 Коэффициент Шарпа (годовой)",
+                    formatOptionalRatio(metrics.getSharpeRatio()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "📏 Коэффициент Сортино (годовой)",
+                    formatOptionalRatio(metrics.getSortinoRatio()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "📅 Торговых дней",
+                    NumberFormatUtil.formatIntegerWithSpaces(metrics.getTradingDays()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "🔥 Максимальная серия побед",
+                    NumberFormatUtil.formatIntegerWithSpaces(metrics.getMaxWinStreak()), centeredDataStyle);
+            addStatRow(sheet, rowNum++, "🧊 Максимальная серия поражений",
+                    NumberFormatUtil.formatIntegerWithSpaces(metrics.getMaxLossStreak()), centeredDataStyle);
+        }
+
         setStatisticsColumnWidths(sheet);
     }
 
+    private String formatOptionalRatio(BigDecimal value) {
+        return value != null ? NumberFormatUtil.formatNumber(value, 2) : "—";
+    }
+
+    private String formatOptionalPercentage(BigDecimal value) {
+        return value != null ? NumberFormatUtil.formatPercentage(value) : "—";
+    }
+
     /**
-     * Создание листа с детальными сделками
+     * Создание листа с итогами по активам (доступно в пакете для JMH-бенчмарков)
      */
-    private void createTradesSheet(Sheet sheet, List<Trade> trades, Workbook workbook) {
+    void createAssetBreakdownSheet(Sheet sheet, List<AssetBreakdown> breakdown, Workbook workbook) {
         CellStyle headerStyle = createHeaderStyle(workbook);
         CellStyle dataStyle = createDataStyle(workbook);
+        CellStyle centeredDataStyle = createCenteredDataStyle(workbook);
+        CellStyle currencyFormattedStyle = createCurrencyFormattedStyle(workbook);
+
+        Row headerRow = sheet.createRow(0);
+        String[] headers = {"Актив", "Сделок", "Прибыльных", "Убыточных", "Процент успеха",
+                "Общий P/L", "Средний P/L", "Объем", "Лучшая сделка", "Худшая сделка", "Макс. просадка"};
+
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+
+        int rowNum = 1;
+        for (AssetBreakdown asset : breakdown) {
+            Row row = sheet.createRow(rowNum++);
+
+            Cell assetCell = row.createCell(0);
+            assetCell.setCellValue(asset.getAssetName() != null ? asset.getAssetName() : "");
+            assetCell.setCellStyle(dataStyle);
+
+            setCenteredCell(row, 1, NumberFormatUtil.formatIntegerWithSpaces(asset.getTotalTrades()), centeredDataStyle);
+            setCenteredCell(row, 2, NumberFormatUtil.formatIntegerWithSpaces(asset.getWinningTrades()), centeredDataStyle);
+            setCenteredCell(row, 3, NumberFormatUtil.formatIntegerWithSpaces(asset.getLosingTrades()), centeredDataStyle);
+            setCenteredCell(row, 4, NumberFormatUtil.formatPercentage(asset.getWinRate()), centeredDataStyle);
+
+            setFormattedCurrencyCell(row, 5, asset.getTotalProfit(), currencyFormattedStyle);
+            setFormattedCurrencyCell(row, 6, asset.getAvgProfit(), currencyFormattedStyle);
+            setFormattedCurrencyCell(row, 7, asset.getTotalVolume(), currencyFormattedStyle);
+            setFormattedCurrencyCell(row, 8, asset.getBestTrade(), currencyFormattedStyle);
+            setFormattedCurrencyCell(row, 9, asset.getWorstTrade(), currencyFormattedStyle);
+            setFormattedCurrencyCell(row, 10, asset.getMaxDrawdown(), currencyFormattedStyle);
+        }
+
+        sheet.setColumnWidth(0, 6000);
+        for (int i = 1; i < headers.length; i++) {
+            sheet.setColumnWidth(i, i < 5 ? 3500 : 5000);
+        }
+        sheet.createFreezePane(1, 1);
+    }
+
+    private void setCenteredCell(Row row, int cellNum, String value, CellStyle style) {
+        Cell cell = row.createCell(cellNum);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+    }
+
+    /**
+     * Создание листа с детальными сделками.
+     * Записывает заголовок и возвращает обработчик, добавляющий по одной строке на сделку.
+     * Доступно в пакете для JMH-бенчмарков.
+     */
+    Consumer<Trade> createTradesSheet(Sheet sheet, Workbook workbook) {
+        CellStyle headerStyle = createHeaderStyle(workbook);
         CellStyle currencyFormattedStyle = createCurrencyFormattedStyle(workbook);
         CellStyle dateStyle = createDateStyle(workbook);
         CellStyle textWrapStyle = createTextWrapStyle(workbook);
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
-        int rowNum = 0;
-
-        Row headerRow = sheet.createRow(rowNum++);
+        Row headerRow = sheet.createRow(0);
         String[] headers = {"№", "Актив", "Тип", "Статус", "Дата сделки",
                 "Цена входа", "Цена выхода", "Объем", "Прибыль/Убыток",
                 "Причина входа", "Причина выхода", "Комментарий"};
@@ -250,18 +429,20 @@ public class ExcelExportService {
             cell.setCellStyle(headerStyle);
         }
 
-        for (int i = 0; i < trades.size(); i++) {
-            Trade trade = trades.get(i);
-            Row row = sheet.createRow(rowNum++);
+        setTradesColumnWidths(sheet);
 
-            row.createCell(0).setCellValue(i + 1); // Номер
+        int[] rowNum = {1};
+        return trade -> {
+            Row row = sheet.createRow(rowNum[0]);
+
+            row.createCell(0).setCellValue(rowNum[0]); // Номер
             row.createCell(1).setCellValue(trade.getAssetName() != null ? trade.getAssetName() : "");
             row.createCell(2).setCellValue(trade.getTradeType() != null ? trade.getTradeType().name() : "");
             row.createCell(3).setCellValue(trade.getStatus() != null ? trade.getStatus().name() : "");
 
             Cell dateCell = row.createCell(4);
             if (trade.getTradeDate() != null) {
-                dateCell.setCellValue(trade.getTradeDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
+                dateCell.setCellValue(trade.getTradeDate().format(dateFormatter));
             }
             dateCell.setCellStyle(dateStyle);
 
@@ -281,9 +462,9 @@ public class ExcelExportService {
             Cell commentCell = row.createCell(11);
             commentCell.setCellValue(trade.getComment() != null ? trade.getComment() : "");
             commentCell.setCellStyle(textWrapStyle);
-        }
 
-        setTradesColumnWidths(sheet);
+            rowNum[0]++;
+        };
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.example.ta.service;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.control.ProgressIndicator;
+import lombok.Getter;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Фоновая задача экспорта в Excel.
+ * Свойства прогресса, сообщения и состояния обновляются в FX-потоке и могут быть привязаны к UI.
+ */
+public class ExportJob {
+
+    public enum State {
+        QUEUED("В очереди"),
+        RUNNING("Выгрузка сделок"),
+        WRITING("Запись файла"),
+        WAITING_RETRY("Ожидание повторной попытки"),
+        COMPLETED("Завершено"),
+        FAILED("Ошибка"),
+        CANCELLED("Отменено");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Прогресс в UI обновляется не чаще, чем раз в указанное количество строк
+    private static final long PROGRESS_STEP = 1000;
+
+    @Getter
+    private final String description;
+
+    @Getter
+    private final CompletableFuture<File> result = new CompletableFuture<>();
+
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(ProgressIndicator.INDETERMINATE_PROGRESS);
+    private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper(State.QUEUED.getDisplayName());
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(State.QUEUED);
+
+    ExportJob(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Запросить отмену экспорта
+     */
+    public void cancel() {
+        if (cancelRequested.compareAndSet(false, true) && !result.isDone()) {
+            updateState(State.CANCELLED, State.CANCELLED.getDisplayName());
+        }
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested.get();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    void updateState(State newState, String newMessage) {
+        Platform.runLater(() -> {
+            state.set(newState);
+            message.set(newMessage);
+        });
+    }
+
+    void updateProgress(long rowsWritten, long totalRows) {
+        if (rowsWritten % PROGRESS_STEP != 0 && rowsWritten != totalRows) {
+            return;
+        }
+        double value = totalRows > 0 ? Math.min(1.0, (double) rowsWritten / totalRows) : ProgressIndicator.INDETERMINATE_PROGRESS;
+        String text = String.format("%s: %d из %d", State.RUNNING.getDisplayName(), rowsWritten, totalRows);
+        Platform.runLater(() -> {
+            progress.set(value);
+            message.set(text);
+        });
+    }
+
+    void complete(File file) {
+        Platform.runLater(() -> {
+            progress.set(1.0);
+            state.set(State.COMPLETED);
+            message.set(State.COMPLETED.getDisplayName() + ": " + file.getName());
+        });
+        result.complete(file);
+    }
+
+    void fail(Throwable error) {
+        updateState(isCancelRequested() ? State.CANCELLED : State.FAILED,
+                isCancelRequested() ? State.CANCELLED.getDisplayName() : State.FAILED.getDisplayName() + ": " + error.getMessage());
+        result.completeExceptionally(error);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ta.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+/**
+ * Кэш второго уровня и кэш запросов Hibernate: счетчики попаданий и сброс после записи в обход Hibernate.
+ * Изменения через TradeService Hibernate отслеживает сам; JDBC-запись (импорт выписок) требует явного сброса.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HibernateCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Счетчики кэша с момента запуска: сущности (второй уровень) и результаты запросов
+     */
+    public record CacheStatistics(long entityHits, long entityMisses, long entityPuts,
+                                  long queryHits, long queryMisses, long queryPuts) {
+
+        public double getEntityHitRate() {
+            return hitRate(entityHits, entityMisses);
+        }
+
+        public double getQueryHitRate() {
+            return hitRate(queryHits, queryMisses);
+        }
+
+        private static double hitRate(long hits, long misses) {
+            long requests = hits + misses;
+            return requests > 0 ? hits * 100.0 / requests : 0;
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new CacheStatistics(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount());
+    }
+
+    /**
+     * Сбросить все области кэша (сущности и результаты запросов)
+     */
+    public void evictAll() {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        log.debug("Кэш Hibernate сброшен");
+    }
+
+    @PreDestroy
+    public void logStatistics() {
+        CacheStatistics statistics = getStatistics();
+        log.info("Кэш Hibernate: сделки — попаданий {}, промахов {} ({}%), запросы — попаданий {}, промахов {} ({}%)",
+                statistics.entityHits(), statistics.entityMisses(), String.format("%.1f", statistics.getEntityHitRate()),
+                statistics.queryHits(), statistics.queryMisses(), String.format("%.1f", statistics.getQueryHitRate()));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.ta.service;
 
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -17,17 +19,34 @@ import javafx.stage.Stage;
 import javafx.stage.Window;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImageViewerService {
 
+    private final ChartImageService chartImageService;
+
+    // Изображения крупнее порога (в мегапикселях) открываются в прогрессивном режиме
+    @Value("${trading.images.progressive-threshold-mp:8}")
+    private double progressiveThresholdMp;
+
+    // Декодирование тайлов больших изображений; потоков немного, чтобы не забирать все ядра
+    private final ExecutorService tileExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "image-tiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Открывает изображение в полноэкранном режиме
      */
@@ -46,13 +65,156 @@ public class ImageViewerService {
 
         try {
             log.info("Открываем изображение: {}", imagePath);
-            createImageViewerWindow(imageFile, parentWindow);
+            Dimension imageSize = readImageSize(imageFile);
+            if (imageSize != null && (double) imageSize.width * imageSize.height / 1_000_000 >= progressiveThresholdMp) {
+                createProgressiveViewerWindow(imageFile, imageSize, parentWindow);
+            } else {
+                createImageViewerWindow(imageFile, parentWindow);
+            }
         } catch (Exception e) {
             log.error("Ошибка при открытии изображения: {}", imagePath, e);
             showErrorDialog("Ошибка при открытии изображения: " + e.getMessage(), parentWindow);
         }
     }
 
+    /**
+     * Размер изображения по заголовку файла; null, если формат не поддерживается ImageIO
+     */
+    private Dimension readImageSize(File imageFile) {
+        try {
+            return ProgressiveImagePane.readImageSize(imageFile);
+        } catch (IOException e) {
+            log.debug("Не удалось определить размер изображения {}: {}", imageFile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Создает окно прогрессивного просмотра большого изображения:
+     * сначала показывается миниатюра, затем подгружаются тайлы видимой области
+     */
+    private void createProgressiveViewerWindow(File imageFile, Dimension imageSize, Window parentWindow) {
+        Stage imageStage = new Stage();
+        imageStage.setTitle("Просмотр изображения - " + imageFile.getName());
+        imageStage.initModality(Modality.APPLICATION_MODAL);
+        imageStage.initOwner(parentWindow);
+
+        ProgressiveImagePane imagePane = new ProgressiveImagePane(imageFile, imageSize, tileExecutor);
+        loadPreview(imagePane, imageFile);
+
+        BorderPane root = new BorderPane();
+        root.setCenter(imagePane);
+        root.setBottom(createProgressiveControlPanel(imagePane, imageStage));
+
+        double windowWidth = Math.min(imageSize.width + 50, 1200);
+        double windowHeight = Math.min(imageSize.height + 100, 800);
+
+        Scene scene = new Scene(root, windowWidth, windowHeight);
+        imageStage.setScene(scene);
+
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                imageStage.close();
+            } else if (e.getCode() == KeyCode.PLUS || e.getCode() == KeyCode.ADD) {
+                imagePane.zoom(1.2);
+            } else if (e.getCode() == KeyCode.MINUS || e.getCode() == KeyCode.SUBTRACT) {
+                imagePane.zoom(0.8);
+            } else if (e.getCode() == KeyCode.DIGIT0) {
+                imagePane.setActualSize();
+            } else if (e.getCode() == KeyCode.F) {
+                imagePane.fitToViewport();
+            }
+        });
+
+        imagePane.setOnScroll(e -> {
+            if (e.isControlDown()) {
+                e.consume();
+                imagePane.zoom(e.getDeltaY() > 0 ? 1.1 : 0.9);
+            }
+        });
+
+        imagePane.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                if (imagePane.isActualSize()) {
+                    imagePane.fitToViewport();
+                } else {
+                    imagePane.setActualSize();
+                }
+            }
+        });
+
+        imageStage.setOnHidden(e -> imagePane.dispose());
+
+        if (parentWindow != null) {
+            imageStage.setX(parentWindow.getX() + (parentWindow.getWidth() - windowWidth) / 2);
+            imageStage.setY(parentWindow.getY() + (parentWindow.getHeight() - windowHeight) / 2);
+        }
+
+        imageStage.show();
+        imagePane.fitToViewport();
+        log.info("Окно прогрессивного просмотра открыто: {} × {} px", imageSize.width, imageSize.height);
+    }
+
+    /**
+     * Показывает миниатюру сразу, если она уже в кэше, иначе загружает ее в фоне
+     */
+    private void loadPreview(ProgressiveImagePane imagePane, File imageFile) {
+        String imagePath = imageFile.getAbsolutePath();
+        chartImageService.getCachedThumbnail(imagePath).ifPresentOrElse(imagePane::setPreview, () ->
+                tileExecutor.execute(() -> {
+                    try {
+                        Image preview = chartImageService.loadThumbnail(imagePath);
+                        Platform.runLater(() -> imagePane.setPreview(preview));
+                    } catch (IOException e) {
+                        log.warn("Не удалось загрузить миниатюру {}: {}", imageFile.getName(), e.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Создает панель управления прогрессивного просмотра
+     */
+    private HBox createProgressiveControlPanel(ProgressiveImagePane imagePane, Stage stage) {
+        HBox controlPanel = new HBox(10);
+        controlPanel.setPadding(new Insets(10));
+        controlPanel.setAlignment(Pos.CENTER);
+        controlPanel.setStyle("-fx-background-color: #f8f9fa; -fx-border-color: #dee2e6; -fx-border-width: 1 0 0 0;");
+
+        Button fitToWindowButton = new Button("По размеру окна");
+        fitToWindowButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600; -fx-background-radius: 6; -fx-cursor: hand;");
+        fitToWindowButton.setOnAction(e -> imagePane.fitToViewport());
+
+        Button actualSizeButton = new Button("100%");
+        actualSizeButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600; -fx-background-radius: 6; -fx-cursor: hand;");
+        actualSizeButton.setOnAction(e -> imagePane.setActualSize());
+
+        Button zoomInButton = new Button("+ Увеличить");
+        zoomInButton.setStyle("-fx-background-color: #f39c12; -fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600; -fx-background-radius: 6; -fx-cursor: hand;");
+        zoomInButton.setOnAction(e -> imagePane.zoom(1.2));
+
+        Button zoomOutButton = new Button("- Уменьшить");
+        zoomOutButton.setStyle("-fx-background-color: #e67e22; -fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600; -fx-background-radius: 6; -fx-cursor: hand;");
+        zoomOutButton.setOnAction(e -> imagePane.zoom(0.8));
+
+        Label sizeLabel = new Label(String.format("Размер: %d × %d px", imagePane.getImageWidth(), imagePane.getImageHeight()));
+        sizeLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 12px;");
+
+        Button closeButton = new Button("Закрыть");
+        closeButton.setStyle("-fx-background-color: #95a5a6; -fx-text-fill: white; -fx-font-size: 12px; -fx-font-weight: 600; -fx-background-radius: 6; -fx-cursor: hand;");
+        closeButton.setOnAction(e -> stage.close());
+
+        controlPanel.getChildren().addAll(
+                fitToWindowButton,
+                actualSizeButton,
+                zoomInButton,
+                zoomOutButton,
+                sizeLabel,
+                closeButton
+        );
+
+        return controlPanel;
+    }
+
     /**
      * Создает окно просмотра изображения
      */
@@ -291,4 +453,9 @@ public class ImageViewerService {
 
         alert.showAndWait();
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        tileExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ta.service;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.control.ProgressIndicator;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Фоновая задача импорта сделок из файла брокера.
+ * Свойства прогресса, сообщения и состояния обновляются в FX-потоке и могут быть привязаны к UI.
+ */
+public class ImportJob {
+
+    public enum State {
+        QUEUED("В очереди"),
+        RUNNING("Загрузка сделок"),
+        FINALIZING("Пересчет агрегатов"),
+        COMPLETED("Завершено"),
+        FAILED("Ошибка"),
+        CANCELLED("Отменено");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    @Getter
+    private final String description;
+
+    @Getter
+    private final CompletableFuture<TradeImportService.ImportResult> result = new CompletableFuture<>();
+
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(ProgressIndicator.INDETERMINATE_PROGRESS);
+    private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper(State.QUEUED.getDisplayName());
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(State.QUEUED);
+
+    ImportJob(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Запросить отмену импорта; уже зафиксированные пакеты остаются в БД
+     */
+    public void cancel() {
+        if (cancelRequested.compareAndSet(false, true) && !result.isDone()) {
+            updateState(State.CANCELLED, State.CANCELLED.getDisplayName());
+        }
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested.get();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    void updateState(State newState, String newMessage) {
+        Platform.runLater(() -> {
+            state.set(newState);
+            message.set(newMessage);
+        });
+    }
+
+    /**
+     * Прогресс после очередного пакета: доля прочитанного файла (отрицательная — неизвестна) и скорость записи
+     */
+    void updateProgress(double fraction, long importedRows, long skippedRows, double rowsPerSecond) {
+        double value = fraction >= 0 ? Math.min(1.0, fraction) : ProgressIndicator.INDETERMINATE_PROGRESS;
+        String text = String.format("%s: %d (пропущено %d), %.0f строк/с",
+                State.RUNNING.getDisplayName(), importedRows, skippedRows, rowsPerSecond);
+        Platform.runLater(() -> {
+            progress.set(value);
+            message.set(text);
+        });
+    }
+
+    void complete(TradeImportService.ImportResult importResult) {
+        Platform.runLater(() -> {
+            progress.set(1.0);
+            state.set(State.COMPLETED);
+            message.set(String.format("%s: %d сделок", State.COMPLETED.getDisplayName(), importResult.importedRows()));
+        });
+        result.complete(importResult);
+    }
+
+    void fail(Throwable error) {
+        updateState(isCancelRequested() ? State.CANCELLED : State.FAILED,
+                isCancelRequested() ? State.CANCELLED.getDisplayName() : State.FAILED.getDisplayName() + ": " + error.getMessage());
+        result.completeExceptionally(error);
+    }
+}
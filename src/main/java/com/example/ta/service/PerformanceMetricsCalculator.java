@@ -0,0 +1,182 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.PerformanceMetrics;
+import com.example.ta.util.FixedPointMoney;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+
+/**
+ * Расчет PerformanceMetrics за один проход по закрытым сделкам колоночного снимка в порядке даты.
+ * Промежуточные списки не создаются: просадка, серии и дневной P/L накапливаются по ходу,
+ * дисперсия дневного P/L считается алгоритмом Уэлфорда.
+ */
+final class PerformanceMetricsCalculator {
+
+    private static final int RATIO_SCALE = 2;
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+
+    private PerformanceMetricsCalculator() {
+    }
+
+    /**
+     * Показатели по сделкам снимка в диапазоне индексов [from, to)
+     */
+    static PerformanceMetrics calculate(TradeColumns columns, int from, int to) {
+        // Суммы — фиксированная точка, масштаб 2
+        long equity = 0;
+        long peak = 0;
+        int peakDay = 0;
+        boolean inDrawdown = false;
+        long maxDrawdown = 0;
+        double maxDrawdownPercent = 0;
+        boolean hasDrawdownPercent = false;
+        int maxDrawdownDuration = 0;
+
+        long grossProfit = 0;
+        long grossLoss = 0;
+        long winningTrades = 0;
+        long losingTrades = 0;
+        long totalTrades = 0;
+
+        int winStreak = 0;
+        int lossStreak = 0;
+        int maxWinStreak = 0;
+        int maxLossStreak = 0;
+
+        // Дневной P/L: текущий день накапливается, завершенный учитывается в Шарпе/Сортино
+        int currentDay = 0;
+        long dayProfit = 0;
+        DailyProfitMoments daily = new DailyProfitMoments();
+
+        int lastDay = 0;
+        for (int i = from; i < to; i++) {
+            if (!columns.isClosed(i) || !columns.hasProfitLoss(i)) {
+                continue;
+            }
+
+            int day = columns.tradeDay(i);
+            long profitLoss = columns.profitLoss(i);
+
+            if (totalTrades == 0) {
+                peakDay = day;
+                currentDay = day;
+            } else if (day != currentDay) {
+                daily.add(FixedPointMoney.toDouble(dayProfit, PRICE_SCALE));
+                currentDay = day;
+                dayProfit = 0;
+            }
+            dayProfit = FixedPointMoney.add(dayProfit, profitLoss);
+            lastDay = day;
+            totalTrades++;
+
+            if (profitLoss > 0) {
+                winningTrades++;
+                grossProfit = FixedPointMoney.add(grossProfit, profitLoss);
+                winStreak++;
+                lossStreak = 0;
+                maxWinStreak = Math.max(maxWinStreak, winStreak);
+            } else if (profitLoss < 0) {
+                losingTrades++;
+                grossLoss = FixedPointMoney.subtract(grossLoss, profitLoss);
+                lossStreak++;
+                winStreak = 0;
+                maxLossStreak = Math.max(maxLossStreak, lossStreak);
+            } else {
+                winStreak = 0;
+                lossStreak = 0;
+            }
+
+            equity = FixedPointMoney.add(equity, profitLoss);
+            if (equity >= peak) {
+                if (inDrawdown) {
+                    maxDrawdownDuration = Math.max(maxDrawdownDuration, day - peakDay);
+                    inDrawdown = false;
+                }
+                peak = equity;
+                peakDay = day;
+            } else {
+                inDrawdown = true;
+                long drawdown = peak - equity;
+                maxDrawdown = Math.max(maxDrawdown, drawdown);
+                if (peak > 0) {
+                    maxDrawdownPercent = Math.max(maxDrawdownPercent, (double) drawdown / peak * 100);
+                    hasDrawdownPercent = true;
+                }
+            }
+        }
+
+        if (totalTrades > 0) {
+            // Последний день завершается концом диапазона
+            daily.add(FixedPointMoney.toDouble(dayProfit, PRICE_SCALE));
+        }
+        if (inDrawdown) {
+            maxDrawdownDuration = Math.max(maxDrawdownDuration, lastDay - peakDay);
+        }
+
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.setMaxDrawdown(FixedPointMoney.toBigDecimal(maxDrawdown, PRICE_SCALE));
+        metrics.setMaxDrawdownPercent(hasDrawdownPercent ? toDecimal(maxDrawdownPercent) : null);
+        metrics.setMaxDrawdownDurationDays(maxDrawdownDuration);
+        metrics.setGrossProfit(FixedPointMoney.toBigDecimal(grossProfit, PRICE_SCALE));
+        metrics.setGrossLoss(FixedPointMoney.toBigDecimal(grossLoss, PRICE_SCALE));
+        metrics.setProfitFactor(grossLoss > 0 ? toDecimal((double) grossProfit / grossLoss) : null);
+        metrics.setTradingDays(daily.count);
+        metrics.setMaxWinStreak(maxWinStreak);
+        metrics.setMaxLossStreak(maxLossStreak);
+
+        long avgWin = winningTrades > 0 ? FixedPointMoney.divide(grossProfit, winningTrades) : 0;
+        long avgLoss = losingTrades > 0 ? FixedPointMoney.divide(grossLoss, losingTrades) : 0;
+        metrics.setAvgWin(FixedPointMoney.toBigDecimal(avgWin, PRICE_SCALE));
+        metrics.setAvgLoss(FixedPointMoney.toBigDecimal(avgLoss, PRICE_SCALE));
+        metrics.setPayoffRatio(winningTrades > 0 && avgLoss > 0 ? toDecimal((double) avgWin / avgLoss) : null);
+
+        // Ожидание на сделку: доля прибыльных × средняя прибыль − доля убыточных × средний убыток
+        metrics.setExpectancy(totalTrades > 0
+                ? FixedPointMoney.toBigDecimal(FixedPointMoney.divide(FixedPointMoney.subtract(grossProfit, grossLoss), totalTrades), PRICE_SCALE)
+                : BigDecimal.ZERO.setScale(PRICE_SCALE));
+
+        double annualization = Math.sqrt(TRADING_DAYS_PER_YEAR);
+        double deviation = daily.deviation();
+        double downsideDeviation = daily.downsideDeviation();
+        metrics.setSharpeRatio(deviation > 0 ? toDecimal(daily.mean / deviation * annualization) : null);
+        metrics.setSortinoRatio(downsideDeviation > 0 ? toDecimal(daily.mean / downsideDeviation * annualization) : null);
+
+        return metrics;
+    }
+
+    /**
+     * Среднее, выборочное и нижнее (по убыточным дням) отклонения дневного P/L без хранения ряда
+     */
+    private static final class DailyProfitMoments {
+
+        private int count;
+        private double mean;
+        private double squaredDeviations;
+        private double downsideSquares;
+
+        void add(double profit) {
+            count++;
+            double delta = profit - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (profit - mean);
+            if (profit < 0) {
+                downsideSquares += profit * profit;
+            }
+        }
+
+        double deviation() {
+            return count > 1 ? Math.sqrt(squaredDeviations / (count - 1)) : 0;
+        }
+
+        double downsideDeviation() {
+            return count > 0 ? Math.sqrt(downsideSquares / count) : 0;
+        }
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return BigDecimal.valueOf(value).setScale(RATIO_SCALE, RoundingMode.HALF_UP);
+    }
+}
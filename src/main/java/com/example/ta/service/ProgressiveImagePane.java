@@ -0,0 +1,276 @@
+package com.example.ta.service;
+
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Bounds;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Pane;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Прогрессивный просмотр больших изображений.
+ * Сразу показывает уменьшенную копию, затем в фоне подгружает тайлы видимой области
+ * с разрешением, соответствующим текущему масштабу.
+ */
+@Slf4j
+class ProgressiveImagePane extends ScrollPane {
+
+    // Размер тайла в пикселях экрана
+    private static final int TILE_SIZE = 512;
+    // Максимальное количество тайлов на экране; дальние вытесняются
+    private static final int MAX_TILES = 96;
+
+    private static final double MIN_SCALE = 0.02;
+    private static final double MAX_SCALE = 8.0;
+
+    private record TileKey(int level, int column, int row) {
+    }
+
+    private final File imageFile;
+    @Getter
+    private final int imageWidth;
+    @Getter
+    private final int imageHeight;
+    private final ExecutorService tileExecutor;
+
+    private final Pane canvas = new Pane();
+    private final ImageView previewView = new ImageView();
+    private final Map<TileKey, ImageView> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<TileKey> pendingTiles = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    private double scale = 1.0;
+    private volatile int level = 1;
+    private volatile boolean disposed;
+
+    ProgressiveImagePane(File imageFile, Dimension imageSize, ExecutorService tileExecutor) {
+        this.imageFile = imageFile;
+        this.imageWidth = imageSize.width;
+        this.imageHeight = imageSize.height;
+        this.tileExecutor = tileExecutor;
+
+        previewView.setSmooth(true);
+        canvas.getChildren().add(previewView);
+
+        setContent(canvas);
+        setPannable(true);
+        setHbarPolicy(ScrollBarPolicy.AS_NEEDED);
+        setVbarPolicy(ScrollBarPolicy.AS_NEEDED);
+
+        hvalueProperty().addListener((obs, oldValue, newValue) -> requestVisibleTiles());
+        vvalueProperty().addListener((obs, oldValue, newValue) -> requestVisibleTiles());
+        viewportBoundsProperty().addListener((obs, oldValue, newValue) -> requestVisibleTiles());
+
+        applyScale();
+    }
+
+    /**
+     * Размер изображения без декодирования пикселей
+     */
+    static Dimension readImageSize(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = createReader(input, file);
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Установить уменьшенную копию, отображаемую под тайлами
+     */
+    void setPreview(Image preview) {
+        previewView.setImage(preview);
+    }
+
+    void zoom(double factor) {
+        setScale(scale * factor);
+    }
+
+    void setActualSize() {
+        setScale(1.0);
+    }
+
+    void fitToViewport() {
+        Bounds viewport = getViewportBounds();
+        double width = viewport.getWidth() > 0 ? viewport.getWidth() : getWidth();
+        double height = viewport.getHeight() > 0 ? viewport.getHeight() : getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        setScale(Math.min(width / imageWidth, height / imageHeight));
+    }
+
+    boolean isActualSize() {
+        return Math.abs(scale - 1.0) < 0.001;
+    }
+
+    /**
+     * Прекратить подгрузку тайлов (окно закрыто)
+     */
+    void dispose() {
+        disposed = true;
+        tiles.clear();
+        canvas.getChildren().setAll(previewView);
+    }
+
+    private void setScale(double newScale) {
+        double clamped = Math.max(MIN_SCALE, Math.min(MAX_SCALE, newScale));
+        if (Math.abs(clamped - scale) < 1e-6) {
+            return;
+        }
+        scale = clamped;
+        applyScale();
+    }
+
+    private void applyScale() {
+        canvas.setPrefSize(imageWidth * scale, imageHeight * scale);
+        canvas.setMinSize(imageWidth * scale, imageHeight * scale);
+        previewView.setFitWidth(imageWidth * scale);
+        previewView.setFitHeight(imageHeight * scale);
+
+        // Уровень прореживания: при уменьшении читаем каждый n-й пиксель исходника
+        int newLevel = Integer.highestOneBit(Math.max(1, (int) Math.floor(1.0 / scale)));
+        if (newLevel != level) {
+            level = newLevel;
+            tiles.clear();
+            canvas.getChildren().setAll(previewView);
+        } else {
+            tiles.forEach(this::positionTile);
+        }
+
+        log.debug("Масштаб просмотра {}, уровень тайлов {}", String.format("%.3f", scale), level);
+        requestVisibleTiles();
+    }
+
+    private void requestVisibleTiles() {
+        if (disposed) {
+            return;
+        }
+
+        Bounds viewport = getViewportBounds();
+        if (viewport.getWidth() <= 0 || viewport.getHeight() <= 0) {
+            return;
+        }
+
+        double contentWidth = imageWidth * scale;
+        double contentHeight = imageHeight * scale;
+        double offsetX = Math.max(0, contentWidth - viewport.getWidth()) * getHvalue();
+        double offsetY = Math.max(0, contentHeight - viewport.getHeight()) * getVvalue();
+
+        // Видимая область в координатах исходного изображения
+        int sourceTile = TILE_SIZE * level;
+        int firstColumn = (int) Math.floor(offsetX / scale / sourceTile);
+        int lastColumn = (int) Math.floor(Math.min(imageWidth - 1, (offsetX + viewport.getWidth()) / scale) / sourceTile);
+        int firstRow = (int) Math.floor(offsetY / scale / sourceTile);
+        int lastRow = (int) Math.floor(Math.min(imageHeight - 1, (offsetY + viewport.getHeight()) / scale) / sourceTile);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                TileKey key = new TileKey(level, column, row);
+                if (tiles.get(key) == null && pendingTiles.add(key)) {
+                    tileExecutor.execute(() -> loadTile(key));
+                }
+            }
+        }
+    }
+
+    private void loadTile(TileKey key) {
+        try {
+            if (disposed || key.level() != level) {
+                return;
+            }
+            Image tileImage = decodeTile(key);
+            Platform.runLater(() -> showTile(key, tileImage));
+        } catch (Exception e) {
+            log.warn("Не удалось загрузить тайл {} изображения {}: {}", key, imageFile.getName(), e.getMessage());
+        } finally {
+            pendingTiles.remove(key);
+        }
+    }
+
+    private Image decodeTile(TileKey key) throws IOException {
+        Rectangle region = sourceRegion(key);
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageFile)) {
+            ImageReader reader = createReader(input, imageFile);
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(key.level(), key.level(), 0, 0);
+                BufferedImage tile = reader.read(0, param);
+                return SwingFXUtils.toFXImage(tile, null);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void showTile(TileKey key, Image tileImage) {
+        // Тайл устаревшего уровня масштаба не показываем
+        if (disposed || key.level() != level || tiles.containsKey(key)) {
+            return;
+        }
+
+        ImageView tileView = new ImageView(tileImage);
+        tileView.setSmooth(true);
+        tiles.put(key, tileView);
+        positionTile(key, tileView);
+        canvas.getChildren().add(tileView);
+
+        Iterator<Map.Entry<TileKey, ImageView>> iterator = tiles.entrySet().iterator();
+        while (tiles.size() > MAX_TILES && iterator.hasNext()) {
+            canvas.getChildren().remove(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    private void positionTile(TileKey key, ImageView tileView) {
+        Rectangle region = sourceRegion(key);
+        tileView.setLayoutX(region.x * scale);
+        tileView.setLayoutY(region.y * scale);
+        tileView.setFitWidth(region.width * scale);
+        tileView.setFitHeight(region.height * scale);
+    }
+
+    private Rectangle sourceRegion(TileKey key) {
+        int sourceTile = TILE_SIZE * key.level();
+        int x = key.column() * sourceTile;
+        int y = key.row() * sourceTile;
+        return new Rectangle(x, y, Math.min(sourceTile, imageWidth - x), Math.min(sourceTile, imageHeight - y));
+    }
+
+    private static ImageReader createReader(ImageInputStream input, File file) throws IOException {
+        if (input == null) {
+            throw new IOException("Не удалось открыть изображение: " + file);
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("Неподдерживаемый формат изображения: " + file.getName());
+        }
+        return readers.next();
+    }
+}
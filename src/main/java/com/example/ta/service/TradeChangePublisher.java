@@ -0,0 +1,129 @@
+package com.example.ta.service;
+
+import com.example.ta.events.TradeDataChangedEvent;
+import com.example.ta.events.TradeDataChangedEvent.ChangeType;
+import com.example.ta.events.TradeDataChangedEvent.TradeChange;
+import javafx.application.Platform;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Публикация TradeDataChangedEvent с объединением изменений.
+ * Изменения, зафиксированные в течение окна (trading.events.coalesce-window-ms) с первого из них, публикуются
+ * одним событием в FX-потоке: серия правок вызывает одно обновление UI. Несколько изменений одной сделки
+ * сводятся к одному (создание и удаление в одном окне взаимно уничтожаются).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradeChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${trading.events.coalesce-window-ms:150}")
+    private long coalesceWindowMs;
+
+    private final List<TradeChange> pending = new ArrayList<>();
+    private boolean bulkPending;
+    private boolean flushScheduled;
+
+    /**
+     * Опубликовать изменение после фиксации текущей транзакции (без транзакции — сразу)
+     */
+    public void publishAfterCommit(TradeChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(change);
+                }
+            });
+        } else {
+            publish(change);
+        }
+    }
+
+    public synchronized void publish(TradeChange change) {
+        pending.add(change);
+        scheduleFlush();
+    }
+
+    /**
+     * Массовое изменение (импорт): слушатели перечитают данные целиком
+     */
+    public synchronized void publishBulk() {
+        bulkPending = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            CompletableFuture.runAsync(this::flush,
+                    CompletableFuture.delayedExecutor(coalesceWindowMs, TimeUnit.MILLISECONDS, Platform::runLater));
+        }
+    }
+
+    private void flush() {
+        List<TradeChange> changes;
+        boolean bulk;
+        synchronized (this) {
+            changes = coalesce(pending);
+            bulk = bulkPending;
+            pending.clear();
+            bulkPending = false;
+            flushScheduled = false;
+        }
+
+        if (bulk) {
+            log.debug("Публикация массового изменения сделок");
+            eventPublisher.publishEvent(TradeDataChangedEvent.bulk(this));
+        } else if (!changes.isEmpty()) {
+            log.debug("Публикация {} изменений сделок", changes.size());
+            eventPublisher.publishEvent(new TradeDataChangedEvent(this, changes));
+        }
+    }
+
+    /**
+     * Свести последовательные изменения каждой сделки к одному, сохраняя порядок первых изменений
+     */
+    static List<TradeChange> coalesce(List<TradeChange> changes) {
+        Map<Long, TradeChange> merged = new LinkedHashMap<>();
+        for (TradeChange change : changes) {
+            TradeChange previous = merged.get(change.tradeId());
+            if (previous == null) {
+                merged.put(change.tradeId(), change);
+                continue;
+            }
+
+            ChangeType type;
+            if (previous.type() == ChangeType.CREATED) {
+                // Сделка появилась в этом окне: для слушателей она либо создана в итоговом виде, либо ее не было
+                if (change.type() == ChangeType.DELETED) {
+                    merged.remove(change.tradeId());
+                    continue;
+                }
+                type = ChangeType.CREATED;
+            } else if (previous.type() == ChangeType.DELETED && change.type() == ChangeType.CREATED) {
+                // SQLite может повторно выдать id последней удаленной строки
+                type = ChangeType.UPDATED;
+            } else {
+                type = change.type();
+            }
+            merged.put(change.tradeId(), new TradeChange(type, change.tradeId(), previous.before(), change.after()));
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
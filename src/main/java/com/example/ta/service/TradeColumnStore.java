@@ -0,0 +1,191 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.AssetBreakdown;
+import com.example.ta.domain.PerformanceMetrics;
+import com.example.ta.events.TradeDataChangedEvent;
+import com.example.ta.events.TradeDataChangedEvent.TradeChange;
+import com.example.ta.repository.TradeAnalyticsRow;
+import com.example.ta.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Колоночное хранилище сделок в памяти для статистики и кривой эквити.
+ * Снимок строится из БД при первом обращении; изменения из TradeDataChangedEvent применяются к нему без запроса к БД,
+ * массовое событие (импорт) сбрасывает снимок. Расчеты за период — циклы по примитивным массивам без загрузки сущностей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradeColumnStore {
+
+    private final TradeRepository tradeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Версия данных; снимок с меньшей версией устарел
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(long version, TradeColumns columns) {
+    }
+
+    /**
+     * Кривая эквити: индексы закрытых сделок с P/L в снимке и накопленный P/L после каждой (масштаб 2)
+     */
+    public record EquityCurve(TradeColumns columns, int[] tradeIndexes, long[] cumulativeProfit) {
+
+        public int size() {
+            return tradeIndexes.length;
+        }
+
+        public boolean isEmpty() {
+            return tradeIndexes.length == 0;
+        }
+    }
+
+    /**
+     * Актуальный снимок сделок
+     */
+    public TradeColumns columns() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            return current.columns();
+        }
+        return rebuild();
+    }
+
+    /**
+     * Сбросить снимок; он будет перестроен при следующем чтении
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        log.debug("Колоночный снимок сделок сброшен");
+    }
+
+    // Раньше слушателей UI, чтобы их фоновые пересчеты не прочитали устаревший снимок
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onTradeDataChanged(TradeDataChangedEvent event) {
+        if (event.isBulk()) {
+            invalidate();
+        } else {
+            applyChanges(event.getChanges());
+        }
+    }
+
+    private synchronized void applyChanges(List<TradeChange> changes) {
+        long currentVersion = version.get();
+        Snapshot current = snapshot;
+        if (current == null || current.version() != currentVersion) {
+            // Снимка нет или он уже устарел — будет построен заново при следующем чтении
+            invalidate();
+            return;
+        }
+
+        // Удаляются строки всех измененных сделок: снимок мог быть построен уже после фиксации изменения
+        long[] changedIds = changes.stream().mapToLong(TradeChange::tradeId).toArray();
+        List<TradeAnalyticsRow> changedRows = changes.stream()
+                .map(TradeChange::after)
+                .filter(Objects::nonNull)
+                .map(TradeAnalyticsRow::of)
+                .toList();
+        TradeColumns columns = current.columns().withChanges(changedIds, changedRows);
+
+        // Сброс во время применения изменений оставляет снимок устаревшим
+        if (version.compareAndSet(currentVersion, currentVersion + 1)) {
+            snapshot = new Snapshot(currentVersion + 1, columns);
+            log.debug("Колоночный снимок сделок обновлен: {} изменений", changes.size());
+        }
+    }
+
+    /**
+     * Расширенные показатели эффективности закрытых сделок за период (null — без ограничения)
+     */
+    public PerformanceMetrics getPerformanceMetrics(LocalDate startDate, LocalDate endDate) {
+        TradeColumns columns = columns();
+        return PerformanceMetricsCalculator.calculate(columns, columns.fromIndex(startDate), columns.toIndex(endDate));
+    }
+
+    /**
+     * Итоги закрытых сделок по активам за период (null — без ограничения), рассчитанные параллельно
+     */
+    public List<AssetBreakdown> getAssetBreakdown(LocalDate startDate, LocalDate endDate) {
+        TradeColumns columns = columns();
+        return AssetBreakdownCalculator.calculate(columns, columns.fromIndex(startDate), columns.toIndex(endDate));
+    }
+
+    /**
+     * Кривая эквити по закрытым сделкам с P/L за период (null — без ограничения)
+     */
+    public EquityCurve getEquityCurve(LocalDate startDate, LocalDate endDate) {
+        TradeColumns columns = columns();
+        int from = columns.fromIndex(startDate);
+        int to = columns.toIndex(endDate);
+
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (columns.isClosed(i) && columns.hasProfitLoss(i)) {
+                count++;
+            }
+        }
+
+        int[] tradeIndexes = new int[count];
+        long[] cumulativeProfit = new long[count];
+        long equity = 0;
+        int point = 0;
+        for (int i = from; i < to; i++) {
+            if (columns.isClosed(i) && columns.hasProfitLoss(i)) {
+                equity = Math.addExact(equity, columns.profitLoss(i));
+                tradeIndexes[point] = i;
+                cumulativeProfit[point] = equity;
+                point++;
+            }
+        }
+
+        return new EquityCurve(columns, tradeIndexes, cumulativeProfit);
+    }
+
+    private synchronized TradeColumns rebuild() {
+        long targetVersion = version.get();
+        Snapshot current = snapshot;
+        if (current != null && current.version() == targetVersion) {
+            return current.columns();
+        }
+
+        long startTime = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        TradeColumns columns = transactionTemplate.execute(status -> {
+            TradeColumns.Builder builder = TradeColumns.builder();
+            try (Stream<TradeAnalyticsRow> rows = tradeRepository.streamAnalyticsRows()) {
+                Iterator<TradeAnalyticsRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    builder.add(iterator.next());
+                }
+            }
+            return builder.build();
+        });
+
+        // Если во время построения пришло изменение, снимок останется устаревшим и будет перестроен при следующем чтении
+        snapshot = new Snapshot(targetVersion, columns);
+
+        log.info("Колоночный снимок сделок построен: {} сделок, {} активов за {} мс",
+                columns.size(), columns.assetCount(), (System.nanoTime() - startTime) / 1_000_000);
+
+        return columns;
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import com.example.ta.repository.TradeAnalyticsRow;
+import com.example.ta.util.FixedPointMoney;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+
+/**
+ * Неизменяемый колоночный снимок сделок для аналитики.
+ * Каждое поле хранится в отдельном примитивном массиве (строка i — i-я сделка в порядке trade_date, id):
+ * дата — номер дня от эпохи, суммы и цены — фиксированная точка (масштаб 2), перечисления — ordinal,
+ * названия активов закодированы словарем. Расчеты за период выполняются простыми циклами по диапазону индексов.
+ */
+public final class TradeColumns {
+
+    private static final byte HAS_PROFIT_LOSS = 1;
+    private static final byte HAS_VOLUME = 1 << 1;
+    private static final byte HAS_EXIT_POINT = 1 << 2;
+
+    private static final TradeStatus[] STATUSES = TradeStatus.values();
+    private static final TradeType[] TRADE_TYPES = TradeType.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final int size;
+    private final long[] ids;
+    private final int[] tradeDays;
+    private final long[] createdAtSeconds;
+    private final byte[] statuses;
+    private final byte[] tradeTypes;
+    private final byte[] currencies;
+    private final byte[] flags;
+    private final int[] assetIds;
+    private final long[] entryPrices;
+    private final long[] exitPrices;
+    private final long[] profitLoss;
+    private final long[] volumeInCurrency;
+    private final String[] assetNames;
+
+    private TradeColumns(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.tradeDays = Arrays.copyOf(builder.tradeDays, size);
+        this.createdAtSeconds = Arrays.copyOf(builder.createdAtSeconds, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.tradeTypes = Arrays.copyOf(builder.tradeTypes, size);
+        this.currencies = Arrays.copyOf(builder.currencies, size);
+        this.flags = Arrays.copyOf(builder.flags, size);
+        this.assetIds = Arrays.copyOf(builder.assetIds, size);
+        this.entryPrices = Arrays.copyOf(builder.entryPrices, size);
+        this.exitPrices = Arrays.copyOf(builder.exitPrices, size);
+        this.profitLoss = Arrays.copyOf(builder.profitLoss, size);
+        this.volumeInCurrency = Arrays.copyOf(builder.volumeInCurrency, size);
+        this.assetNames = builder.assetNames.toArray(new String[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Дата сделки как номер дня от эпохи
+     */
+    public int tradeDay(int index) {
+        return tradeDays[index];
+    }
+
+    public LocalDate tradeDate(int index) {
+        return LocalDate.ofEpochDay(tradeDays[index]);
+    }
+
+    public LocalDateTime createdAt(int index) {
+        return LocalDateTime.ofEpochSecond(createdAtSeconds[index], 0, ZoneOffset.UTC);
+    }
+
+    public TradeStatus status(int index) {
+        return STATUSES[statuses[index]];
+    }
+
+    public boolean isClosed(int index) {
+        return statuses[index] == TradeStatus.CLOSED.ordinal();
+    }
+
+    public TradeType tradeType(int index) {
+        return TRADE_TYPES[tradeTypes[index]];
+    }
+
+    public Currency currency(int index) {
+        return CURRENCIES[currencies[index]];
+    }
+
+    /**
+     * Код актива в словаре (одинаковые названия — одинаковый код)
+     */
+    public int assetId(int index) {
+        return assetIds[index];
+    }
+
+    public String assetName(int index) {
+        return assetNames[assetIds[index]];
+    }
+
+    /**
+     * Количество различных активов в словаре
+     */
+    public int assetCount() {
+        return assetNames.length;
+    }
+
+    public String assetNameById(int assetId) {
+        return assetNames[assetId];
+    }
+
+    /**
+     * Цена входа, масштаб 2
+     */
+    public long entryPrice(int index) {
+        return entryPrices[index];
+    }
+
+    public boolean hasExitPrice(int index) {
+        return (flags[index] & HAS_EXIT_POINT) != 0;
+    }
+
+    /**
+     * Цена выхода, масштаб 2 (0, если не задана)
+     */
+    public long exitPrice(int index) {
+        return exitPrices[index];
+    }
+
+    public boolean hasProfitLoss(int index) {
+        return (flags[index] & HAS_PROFIT_LOSS) != 0;
+    }
+
+    /**
+     * P/L, масштаб 2 (0, если не рассчитан)
+     */
+    public long profitLoss(int index) {
+        return profitLoss[index];
+    }
+
+    public boolean hasVolume(int index) {
+        return (flags[index] & HAS_VOLUME) != 0;
+    }
+
+    /**
+     * Объем в валюте, масштаб 2 (0, если не рассчитан)
+     */
+    public long volumeInCurrency(int index) {
+        return volumeInCurrency[index];
+    }
+
+    /**
+     * Индекс первой сделки с датой не раньше startDate (null — с начала)
+     */
+    public int fromIndex(LocalDate startDate) {
+        return startDate == null ? 0 : lowerBound(Math.toIntExact(startDate.toEpochDay()));
+    }
+
+    /**
+     * Индекс, следующий за последней сделкой с датой не позже endDate (null — до конца)
+     */
+    public int toIndex(LocalDate endDate) {
+        return endDate == null ? size : lowerBound(Math.toIntExact(endDate.toEpochDay()) + 1);
+    }
+
+    // Первый индекс с tradeDay >= day (массив дат отсортирован)
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tradeDays[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Новый снимок с примененными изменениями: строки removedIds удаляются, addedRows вставляются на свои места
+     * в порядке trade_date, id. Один проход по массивам без обращения к БД.
+     */
+    public TradeColumns withChanges(long[] removedIds, List<TradeAnalyticsRow> addedRows) {
+        long[] removed = removedIds.clone();
+        Arrays.sort(removed);
+        List<TradeAnalyticsRow> added = addedRows.stream()
+                .sorted(Comparator.comparing(TradeAnalyticsRow::tradeDate).thenComparing(TradeAnalyticsRow::id))
+                .toList();
+
+        Builder builder = builder();
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            while (next < added.size() && precedes(added.get(next), i)) {
+                builder.add(added.get(next++));
+            }
+            if (Arrays.binarySearch(removed, ids[i]) < 0) {
+                builder.copy(this, i);
+            }
+        }
+        while (next < added.size()) {
+            builder.add(added.get(next++));
+        }
+        return builder.build();
+    }
+
+    private boolean precedes(TradeAnalyticsRow row, int index) {
+        long day = row.tradeDate().toEpochDay();
+        return day < tradeDays[index] || (day == tradeDays[index] && row.id() < ids[index]);
+    }
+
+    /**
+     * Построитель снимка; строки должны добавляться в порядке trade_date, id
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int[] tradeDays = new int[INITIAL_CAPACITY];
+        private long[] createdAtSeconds = new long[INITIAL_CAPACITY];
+        private byte[] statuses = new byte[INITIAL_CAPACITY];
+        private byte[] tradeTypes = new byte[INITIAL_CAPACITY];
+        private byte[] currencies = new byte[INITIAL_CAPACITY];
+        private byte[] flags = new byte[INITIAL_CAPACITY];
+        private int[] assetIds = new int[INITIAL_CAPACITY];
+        private long[] entryPrices = new long[INITIAL_CAPACITY];
+        private long[] exitPrices = new long[INITIAL_CAPACITY];
+        private long[] profitLoss = new long[INITIAL_CAPACITY];
+        private long[] volumeInCurrency = new long[INITIAL_CAPACITY];
+
+        private final Map<String, Integer> assetDictionary = new HashMap<>();
+        private final List<String> assetNames = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(TradeAnalyticsRow row) {
+            int day = Math.toIntExact(row.tradeDate().toEpochDay());
+            if (size > 0 && day < tradeDays[size - 1]) {
+                throw new IllegalArgumentException("Сделки должны добавляться в порядке даты: " + row.id());
+            }
+            if (size == ids.length) {
+                grow();
+            }
+
+            byte rowFlags = 0;
+            if (row.profitLoss() != null) {
+                rowFlags |= HAS_PROFIT_LOSS;
+            }
+            if (row.volumeInCurrency() != null) {
+                rowFlags |= HAS_VOLUME;
+            }
+            if (row.exitPoint() != null) {
+                rowFlags |= HAS_EXIT_POINT;
+            }
+
+            ids[size] = row.id();
+            tradeDays[size] = day;
+            createdAtSeconds[size] = row.createdAt() != null ? row.createdAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+            statuses[size] = (byte) row.status().ordinal();
+            tradeTypes[size] = (byte) row.tradeType().ordinal();
+            currencies[size] = (byte) row.currency().ordinal();
+            flags[size] = rowFlags;
+            assetIds[size] = assetId(row.assetName());
+            entryPrices[size] = FixedPointMoney.fromBigDecimal(row.entryPoint(), PRICE_SCALE);
+            exitPrices[size] = FixedPointMoney.fromBigDecimal(row.exitPoint(), PRICE_SCALE);
+            profitLoss[size] = FixedPointMoney.fromBigDecimal(row.profitLoss(), PRICE_SCALE);
+            volumeInCurrency[size] = FixedPointMoney.fromBigDecimal(row.volumeInCurrency(), PRICE_SCALE);
+            size++;
+            return this;
+        }
+
+        /**
+         * Скопировать строку другого снимка без повторного преобразования значений
+         */
+        Builder copy(TradeColumns source, int index) {
+            if (size > 0 && source.tradeDays[index] < tradeDays[size - 1]) {
+                throw new IllegalArgumentException("Сделки должны добавляться в порядке даты: " + source.ids[index]);
+            }
+            if (size == ids.length) {
+                grow();
+            }
+
+            ids[size] = source.ids[index];
+            tradeDays[size] = source.tradeDays[index];
+            createdAtSeconds[size] = source.createdAtSeconds[index];
+            statuses[size] = source.statuses[index];
+            tradeTypes[size] = source.tradeTypes[index];
+            currencies[size] = source.currencies[index];
+            flags[size] = source.flags[index];
+            assetIds[size] = assetId(source.assetName(index));
+            entryPrices[size] = source.entryPrices[index];
+            exitPrices[size] = source.exitPrices[index];
+            profitLoss[size] = source.profitLoss[index];
+            volumeInCurrency[size] = source.volumeInCurrency[index];
+            size++;
+            return this;
+        }
+
+        private int assetId(String assetName) {
+            return assetDictionary.computeIfAbsent(assetName, name -> {
+                assetNames.add(name);
+                return assetNames.size() - 1;
+            });
+        }
+
+        public TradeColumns build() {
+            return new TradeColumns(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            tradeDays = Arrays.copyOf(tradeDays, capacity);
+            createdAtSeconds = Arrays.copyOf(createdAtSeconds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            tradeTypes = Arrays.copyOf(tradeTypes, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            assetIds = Arrays.copyOf(assetIds, capacity);
+            entryPrices = Arrays.copyOf(entryPrices, capacity);
+            exitPrices = Arrays.copyOf(exitPrices, capacity);
+            profitLoss = Arrays.copyOf(profitLoss, capacity);
+            volumeInCurrency = Arrays.copyOf(volumeInCurrency, capacity);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Trade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Отбор строк импорта, которые уже есть в базе: сделка считается той же, если совпадают актив, дата,
+ * время входа и цена входа. Ключи сделок читаются из БД по датам, когда дата впервые встречается в файле, —
+ * до вставки строк этой даты. Поэтому повторный импорт выписки ничего не добавляет, а одинаковые строки внутри
+ * одного файла (например, частичные исполнения по одной цене) загружаются как есть.
+ * Ключи читаются в транзакции readOnly — через пул чтения, не занимая соединение писателя, которое в это время
+ * вставляет пакеты импорта.
+ */
+final class TradeDuplicateFilter {
+
+    private static final String SELECT_KEYS_SQL = "SELECT asset_name, trade_date, entry_time, entry_point " +
+            "FROM trades WHERE trade_date IN (%s)";
+
+    // Количество дат в одном запросе — с запасом до ограничения SQLite на число параметров
+    private static final int DATES_PER_QUERY = 500;
+
+    /**
+     * Цена сравнивается как double: в SQLite она хранится с числовым сродством и "280.50" читается как 280.5
+     */
+    private record TradeKey(String assetName, LocalDate tradeDate, LocalDateTime entryTime, double entryPoint) {
+
+        static TradeKey of(Trade trade) {
+            return new TradeKey(trade.getAssetName(), trade.getTradeDate(), trade.getEntryTime(),
+                    trade.getEntryPoint().doubleValue());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final Map<LocalDate, Set<TradeKey>> existingKeys = new HashMap<>();
+
+    TradeDuplicateFilter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Удалить из пакета сделки, которые уже есть в базе
+     *
+     * @return количество удаленных сделок
+     */
+    int removeExisting(List<Trade> trades) {
+        List<LocalDate> newDates = trades.stream()
+                .map(Trade::getTradeDate)
+                .distinct()
+                .filter(date -> !existingKeys.containsKey(date))
+                .toList();
+        if (!newDates.isEmpty()) {
+            readTransaction.executeWithoutResult(status -> loadKeys(newDates));
+        }
+
+        int size = trades.size();
+        trades.removeIf(trade -> existingKeys.get(trade.getTradeDate()).contains(TradeKey.of(trade)));
+        return size - trades.size();
+    }
+
+    private void loadKeys(List<LocalDate> dates) {
+        for (int from = 0; from < dates.size(); from += DATES_PER_QUERY) {
+            List<LocalDate> chunk = dates.subList(from, Math.min(dates.size(), from + DATES_PER_QUERY));
+            chunk.forEach(date -> existingKeys.put(date, new HashSet<>()));
+
+            // Даты передаются так же, как их записывает импорт (java.sql.Date), чтобы совпало представление в SQLite
+            String sql = SELECT_KEYS_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, resultSet -> {
+                LocalDate tradeDate = resultSet.getDate("trade_date").toLocalDate();
+                Timestamp entryTime = resultSet.getTimestamp("entry_time");
+                TradeKey key = new TradeKey(resultSet.getString("asset_name"), tradeDate,
+                        entryTime != null ? entryTime.toLocalDateTime() : null, resultSet.getDouble("entry_point"));
+                existingKeys.computeIfAbsent(tradeDate, date -> new HashSet<>()).add(key);
+            }, chunk.stream().map(Date::valueOf).toArray());
+        }
+    }
+}
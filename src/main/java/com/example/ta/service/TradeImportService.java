@@ -0,0 +1,305 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Trade;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Массовый импорт сделок из выписок брокера (CSV, XLSX).
+ * Файл читается потоково, строки пишутся пакетами JDBC в крупных транзакциях через очередь писателя
+ * TradeWriteQueue: у Trade идентификатор IDENTITY, при котором Hibernate не объединяет вставки в пакеты,
+ * поэтому id назначает SQLite при вставке без колонки id.
+ * Строки, совпадающие с уже загруженными сделками, пропускаются (TradeDuplicateFilter) — повторный импорт
+ * той же выписки не создает дубликатов.
+ * После импорта дневные агрегаты и кэши статистики пересчитываются один раз и публикуется одно
+ * TradeDataChangedEvent на весь файл.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TradeImportService {
+
+    // Колонки те же, что пишет Hibernate для Trade; created_at/updated_at заполняются вместо аудита JPA
+    private static final String INSERT_TRADE_SQL = "INSERT INTO trades (asset_name, entry_point, exit_point, entry_reason, " +
+            "exit_reason, comment, volume, volume_in_currency, trade_date, entry_time, exit_time, profit_loss, " +
+            "price_movement_percent, status, trade_type, currency, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Количество сообщений об ошибочных строках в результате импорта
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TradeWriteQueue writeQueue;
+    private final DailyRollupService dailyRollupService;
+    private final TradeStatisticsAggregator statisticsAggregator;
+    private final HibernateCacheService hibernateCacheService;
+    private final TradeChangePublisher changePublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Количество строк в одной транзакции вставки
+     */
+    @Value("${trading.import.batch-size:5000}")
+    private int batchSize;
+
+    /**
+     * Пропускать строки, совпадающие с уже загруженными сделками по активу, дате, времени и цене входа
+     */
+    @Value("${trading.import.skip-duplicates:true}")
+    private boolean skipDuplicates;
+
+    /**
+     * Десятичный разделитель чисел в CSV: "." или ",", auto — определить по файлу
+     */
+    @Value("${trading.import.decimal-separator:auto}")
+    private String decimalSeparator;
+
+    // Импорты выполняются по очереди в одном фоновом потоке, пакеты записывает поток-писатель TradeWriteQueue
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trade-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Итог импорта: загружено и пропущено строк (из них — уже загруженных ранее), сообщения об ошибках
+     * (не больше MAX_REPORTED_ERRORS), время
+     */
+    public record ImportResult(Path file, long importedRows, long skippedRows, long duplicateRows, List<String> errors,
+                               long elapsedMillis) {
+
+        public double getRowsPerSecond() {
+            return elapsedMillis > 0 ? importedRows * 1000.0 / elapsedMillis : importedRows;
+        }
+    }
+
+    public static boolean isSupported(Path file) {
+        return TradeStatementReader.isSupported(file);
+    }
+
+    /**
+     * Поставить импорт файла в очередь
+     */
+    public ImportJob submitImport(Path file) {
+        ImportJob job = new ImportJob(file.getFileName().toString());
+        importExecutor.execute(() -> runImport(job, file));
+
+        log.info("Импорт сделок поставлен в очередь: {}", file);
+        return job;
+    }
+
+    private void runImport(ImportJob job, Path file) {
+        if (job.isCancelRequested()) {
+            job.fail(new CancellationException("Импорт отменен"));
+            return;
+        }
+
+        log.info("Начинаем импорт сделок из {}", file);
+        job.updateState(ImportJob.State.RUNNING, ImportJob.State.RUNNING.getDisplayName());
+
+        ImportRun run = new ImportRun(job, new TradeStatementReader(file, csvDecimalSeparator()));
+        Exception failure = null;
+        try {
+            run.reader.read(run::onRow);
+            run.flush();
+        } catch (Exception e) {
+            failure = e;
+            if (job.isCancelRequested()) {
+                log.info("Импорт отменен пользователем после {} строк: {}", run.imported, file);
+            } else {
+                log.error("Ошибка при импорте сделок из {}", file, e);
+            }
+        }
+
+        if (run.imported > 0) {
+            // Часть пакетов могла быть зафиксирована и при ошибке — агрегаты должны их учитывать
+            job.updateState(ImportJob.State.FINALIZING, ImportJob.State.FINALIZING.getDisplayName());
+            try {
+                refreshDerivedData();
+            } catch (Exception e) {
+                log.error("Ошибка при пересчете агрегатов после импорта", e);
+                job.fail(e);
+                return;
+            }
+        }
+
+        if (run.duplicates > 0) {
+            log.warn("При импорте {} пропущено {} строк, совпадающих с уже загруженными сделками",
+                    file.getFileName(), run.duplicates);
+        }
+
+        long elapsedMillis = (System.nanoTime() - run.startTime) / 1_000_000;
+        ImportResult result = new ImportResult(file, run.imported, run.skipped, run.duplicates, List.copyOf(run.errors),
+                elapsedMillis);
+        log.info("Импорт {} завершен: загружено {}, пропущено {} строк за {} мс ({} строк/с)",
+                file.getFileName(), result.importedRows(), result.skippedRows(), elapsedMillis,
+                Math.round(result.getRowsPerSecond()));
+
+        if (failure != null) {
+            job.fail(failure);
+        } else {
+            job.complete(result);
+        }
+    }
+
+    private char csvDecimalSeparator() {
+        return switch (decimalSeparator.trim()) {
+            case "." -> '.';
+            case "," -> ',';
+            case "auto", "" -> TradeRowMapper.DETECT_DECIMAL_SEPARATOR;
+            default -> {
+                log.warn("Неизвестный десятичный разделитель '{}' в trading.import.decimal-separator, " +
+                        "разделитель будет определен по файлу", decimalSeparator);
+                yield TradeRowMapper.DETECT_DECIMAL_SEPARATOR;
+            }
+        };
+    }
+
+    /**
+     * Пересчитать данные, которые TradeService поддерживает при сохранении по одной сделке, и оповестить UI
+     */
+    private void refreshDerivedData() {
+        writeQueue.executeWithoutResult(dailyRollupService::rebuildAll);
+        // Вставки JDBC не видны кэшу запросов Hibernate — закэшированные списки и агрегаты устарели
+        hibernateCacheService.evictAll();
+        statisticsAggregator.invalidate();
+
+        // Одно массовое событие на весь файл: слушатели перечитывают данные целиком
+        changePublisher.publishBulk();
+    }
+
+    /**
+     * Состояние одного импорта: текущий пакет, счетчики и сопоставление колонок
+     */
+    private final class ImportRun {
+
+        private final ImportJob job;
+        private final TradeStatementReader reader;
+        private final long startTime = System.nanoTime();
+        private final List<Trade> batch = new ArrayList<>(batchSize);
+        private final List<String> errors = new ArrayList<>();
+        private final TradeDuplicateFilter duplicateFilter = skipDuplicates ? new TradeDuplicateFilter(jdbcTemplate, transactionManager) : null;
+
+        private TradeRowMapper mapper;
+        private long imported;
+        private long skipped;
+        private long duplicates;
+
+        ImportRun(ImportJob job, TradeStatementReader reader) {
+            this.job = job;
+            this.reader = reader;
+        }
+
+        void onRow(long rowNumber, List<String> cells) {
+            if (job.isCancelRequested()) {
+                throw new CancellationException("Импорт отменен");
+            }
+            if (cells.stream().allMatch(String::isBlank)) {
+                return;
+            }
+            if (mapper == null) {
+                // Первая непустая строка — заголовок; без обязательных колонок импорт прерывается
+                mapper = TradeRowMapper.fromHeader(cells, reader.decimalSeparator());
+                return;
+            }
+
+            try {
+                batch.add(mapper.map(cells));
+            } catch (IllegalArgumentException e) {
+                skipped++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Строка " + rowNumber + ": " + e.getMessage());
+                }
+                return;
+            }
+
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (duplicateFilter != null) {
+                int removed = duplicateFilter.removeExisting(batch);
+                duplicates += removed;
+                skipped += removed;
+            }
+            if (!batch.isEmpty()) {
+                writeQueue.executeWithoutResult(() -> insertBatch(batch));
+                imported += batch.size();
+                batch.clear();
+            }
+
+            double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            job.updateProgress(reader.progress(), imported, skipped, seconds > 0 ? imported / seconds : 0);
+            log.debug("Импортировано {} сделок, пропущено {}", imported, skipped);
+        }
+    }
+
+    private void insertBatch(List<Trade> trades) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, trades, trades.size(), (statement, trade) -> {
+            statement.setString(1, trade.getAssetName());
+            setDecimal(statement, 2, trade.getEntryPoint());
+            setDecimal(statement, 3, trade.getExitPoint());
+            statement.setString(4, trade.getEntryReason());
+            statement.setString(5, trade.getExitReason());
+            statement.setString(6, trade.getComment());
+            setDecimal(statement, 7, trade.getVolume());
+            setDecimal(statement, 8, trade.getVolumeInCurrency());
+            statement.setDate(9, Date.valueOf(trade.getTradeDate()));
+            setTimestamp(statement, 10, trade.getEntryTime());
+            setTimestamp(statement, 11, trade.getExitTime());
+            setDecimal(statement, 12, trade.getProfitLoss());
+            setDecimal(statement, 13, trade.getPriceMovementPercent());
+            statement.setString(14, trade.getStatus().name());
+            statement.setString(15, trade.getTradeType().name());
+            statement.setString(16, trade.getCurrency().name());
+            statement.setTimestamp(17, Timestamp.valueOf(now));
+            statement.setTimestamp(18, Timestamp.valueOf(now));
+        });
+    }
+
+    private static void setDecimal(PreparedStatement statement, int index, BigDecimal value) throws SQLException {
+        if (value != null) {
+            statement.setBigDecimal(index, value);
+        } else {
+            statement.setNull(index, Types.NUMERIC);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            statement.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            statement.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+}
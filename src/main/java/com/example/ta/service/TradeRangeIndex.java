@@ -0,0 +1,251 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.TradeDailyRollup;
+import com.example.ta.domain.TradeStatistics;
+import com.example.ta.repository.TradeDailyRollupRepository;
+import com.example.ta.util.FenwickTree;
+import com.example.ta.util.FixedPointMoney;
+import com.example.ta.util.MinMaxSegmentTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+
+/**
+ * Индекс дневных агрегатов для запросов по произвольному диапазону дат за O(log n).
+ * Ячейка — календарный день от первого дня с закрытыми сделками; суммы (количество, прибыльные, убыточные,
+ * P/L, объем) хранятся в деревьях Фенвика, максимум и минимум P/L — в дереве отрезков.
+ * Строится из trade_daily_rollup при первом обращении и обновляется по дням после фиксации изменений сделок.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradeRangeIndex {
+
+    // Запас ячеек после последнего дня, чтобы новые сделки не требовали перестроения
+    private static final int HEADROOM_DAYS = 366;
+
+    private final TradeDailyRollupRepository rollupRepository;
+
+    // Поколение данных: сброс и изменения вне построенного индекса делают начатое построение устаревшим
+    private long generation;
+    private volatile Cells cells;
+
+    /**
+     * Агрегаты одного дня в фиксированной точке (масштаб 2); день без закрытых сделок — нули без экстремумов
+     */
+    public record DayTotals(LocalDate tradeDate, long tradeCount, long winningTrades, long losingTrades,
+                            long totalProfit, long closedVolume, long maxProfit, long minProfit) {
+
+        public static DayTotals of(TradeDailyRollup rollup) {
+            return new DayTotals(rollup.getTradeDate(), rollup.getTradeCount(),
+                    rollup.getWinningTrades(), rollup.getLosingTrades(),
+                    FixedPointMoney.fromBigDecimal(rollup.getTotalProfit(), PRICE_SCALE),
+                    FixedPointMoney.fromBigDecimal(rollup.getClosedVolume(), PRICE_SCALE),
+                    rollup.getMaxProfit() != null
+                            ? FixedPointMoney.fromBigDecimal(rollup.getMaxProfit(), PRICE_SCALE) : MinMaxSegmentTree.NO_MAX,
+                    rollup.getMinProfit() != null
+                            ? FixedPointMoney.fromBigDecimal(rollup.getMinProfit(), PRICE_SCALE) : MinMaxSegmentTree.NO_MIN);
+        }
+
+        public static DayTotals empty(LocalDate tradeDate) {
+            return new DayTotals(tradeDate, 0, 0, 0, 0, 0, MinMaxSegmentTree.NO_MAX, MinMaxSegmentTree.NO_MIN);
+        }
+    }
+
+    /**
+     * Применить пересчитанные дни после успешной фиксации транзакции
+     */
+    public void applyAfterCommit(List<DayTotals> days) {
+        afterCommit(() -> apply(days));
+    }
+
+    /**
+     * Сбросить индекс после фиксации транзакции; он будет перестроен при следующем запросе
+     */
+    public void invalidateAfterCommit() {
+        afterCommit(this::invalidate);
+    }
+
+    public synchronized void invalidate() {
+        cells = null;
+        generation++;
+        log.debug("Индекс диапазонов дат сброшен");
+    }
+
+    /**
+     * Индекс построен и отвечает из памяти без обращения к БД
+     */
+    public boolean isBuilt() {
+        return cells != null;
+    }
+
+    /**
+     * Статистика по закрытым сделкам за диапазон дат (null — без ограничения).
+     * Если индекс не построен, он строится в вызывающем потоке — из FX-потока вызывать только при isBuilt().
+     */
+    public TradeStatistics getStatistics(LocalDate startDate, LocalDate endDate) {
+        Cells current = cells;
+        if (current == null) {
+            current = build();
+        }
+        synchronized (this) {
+            return current.statistics(startDate, endDate);
+        }
+    }
+
+    private synchronized void apply(List<DayTotals> days) {
+        if (cells == null) {
+            // Построение, начатое до фиксации, могло прочитать старые агрегаты
+            generation++;
+            return;
+        }
+        for (DayTotals day : days) {
+            if (!cells.contains(day.tradeDate())) {
+                // День вне диапазона ячеек — индекс перестраивается с новыми границами
+                invalidate();
+                log.debug("Дата {} вне индекса диапазонов, индекс будет перестроен", day.tradeDate());
+                return;
+            }
+            cells.setDay(day);
+        }
+    }
+
+    /**
+     * Построение вне блокировки: запросы к уже построенному индексу и применение изменений не ждут чтения из БД.
+     * Если за время построения индекс был сброшен или изменен, результат используется только для текущего запроса,
+     * а индекс будет перестроен при следующем.
+     */
+    private Cells build() {
+        long targetGeneration;
+        synchronized (this) {
+            targetGeneration = generation;
+        }
+
+        long startTime = System.nanoTime();
+        List<TradeDailyRollup> rollups = rollupRepository.findAllByOrderByTradeDate();
+        Cells built = new Cells(rollups);
+
+        synchronized (this) {
+            if (generation == targetGeneration && cells == null) {
+                cells = built;
+            }
+        }
+
+        log.info("Индекс диапазонов дат построен: {} дней с закрытыми сделками, {} ячеек, {} мс",
+                rollups.size(), built.capacity, (System.nanoTime() - startTime) / 1_000_000);
+        return built;
+    }
+
+    /**
+     * Ячейки индекса; изменяются и читаются под блокировкой TradeRangeIndex
+     */
+    private static final class Cells {
+
+        private final long baseDay;
+        private final int capacity;
+
+        private final FenwickTree tradeCounts;
+        private final FenwickTree winningTrades;
+        private final FenwickTree losingTrades;
+        private final FenwickTree totalProfit;
+        private final FenwickTree closedVolume;
+        private final MinMaxSegmentTree extremes;
+
+        // Текущие значения ячеек — для расчета приращений при обновлении дня
+        private final long[] dayCounts;
+        private final long[] dayWins;
+        private final long[] dayLosses;
+        private final long[] dayProfit;
+        private final long[] dayVolume;
+
+        Cells(List<TradeDailyRollup> rollups) {
+            baseDay = rollups.isEmpty() ? LocalDate.now().toEpochDay() : rollups.getFirst().getTradeDate().toEpochDay();
+            long lastDay = rollups.isEmpty() ? baseDay : rollups.getLast().getTradeDate().toEpochDay();
+            capacity = Math.toIntExact(lastDay - baseDay + 1 + HEADROOM_DAYS);
+
+            dayCounts = new long[capacity];
+            dayWins = new long[capacity];
+            dayLosses = new long[capacity];
+            dayProfit = new long[capacity];
+            dayVolume = new long[capacity];
+            extremes = new MinMaxSegmentTree(capacity);
+
+            for (TradeDailyRollup rollup : rollups) {
+                DayTotals day = DayTotals.of(rollup);
+                int cell = (int) (rollup.getTradeDate().toEpochDay() - baseDay);
+                dayCounts[cell] = day.tradeCount();
+                dayWins[cell] = day.winningTrades();
+                dayLosses[cell] = day.losingTrades();
+                dayProfit[cell] = day.totalProfit();
+                dayVolume[cell] = day.closedVolume();
+                extremes.set(cell, day.minProfit(), day.maxProfit());
+            }
+
+            tradeCounts = FenwickTree.of(dayCounts);
+            winningTrades = FenwickTree.of(dayWins);
+            losingTrades = FenwickTree.of(dayLosses);
+            totalProfit = FenwickTree.of(dayProfit);
+            closedVolume = FenwickTree.of(dayVolume);
+        }
+
+        TradeStatistics statistics(LocalDate startDate, LocalDate endDate) {
+            int from = startDate == null ? 0 : cell(startDate.toEpochDay());
+            int to = endDate == null ? capacity : cell(endDate.toEpochDay() + 1);
+
+            long count = tradeCounts.rangeSum(from, to);
+            long maxProfit = extremes.max(from, to);
+            long maxLoss = extremes.min(from, to);
+            return TradeStatisticsAggregator.toStatistics(count,
+                    winningTrades.rangeSum(from, to), losingTrades.rangeSum(from, to),
+                    totalProfit.rangeSum(from, to), closedVolume.rangeSum(from, to),
+                    maxProfit != MinMaxSegmentTree.NO_MAX ? maxProfit : 0L,
+                    maxLoss != MinMaxSegmentTree.NO_MIN ? maxLoss : 0L);
+        }
+
+        boolean contains(LocalDate date) {
+            long offset = date.toEpochDay() - baseDay;
+            return offset >= 0 && offset < capacity;
+        }
+
+        void setDay(DayTotals day) {
+            int cell = (int) (day.tradeDate().toEpochDay() - baseDay);
+            tradeCounts.add(cell, day.tradeCount() - dayCounts[cell]);
+            winningTrades.add(cell, day.winningTrades() - dayWins[cell]);
+            losingTrades.add(cell, day.losingTrades() - dayLosses[cell]);
+            totalProfit.add(cell, Math.subtractExact(day.totalProfit(), dayProfit[cell]));
+            closedVolume.add(cell, Math.subtractExact(day.closedVolume(), dayVolume[cell]));
+            extremes.set(cell, day.minProfit(), day.maxProfit());
+
+            dayCounts[cell] = day.tradeCount();
+            dayWins[cell] = day.winningTrades();
+            dayLosses[cell] = day.losingTrades();
+            dayProfit[cell] = day.totalProfit();
+            dayVolume[cell] = day.closedVolume();
+        }
+
+        // Ячейка для дня с ограничением границами индекса
+        private int cell(long epochDay) {
+            return (int) Math.max(0, Math.min(capacity, epochDay - baseDay));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
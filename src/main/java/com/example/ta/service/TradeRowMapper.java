@@ -0,0 +1,337 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Преобразование строки выписки брокера в сделку.
+ * Колонки определяются по заголовку (русские и английские названия); обязательны актив, дата,
+ * цена входа и количество. Прибыль, процентное движение и объем в валюте рассчитываются самой сделкой.
+ * Числа вида "1,234" читаются по десятичному разделителю файла: он задается при создании или определяется
+ * по первому числу, в котором однозначен ("1 234,56", "0,5", "1,234,567").
+ */
+final class TradeRowMapper {
+
+    enum Field {
+        ASSET("asset", "symbol", "ticker", "instrument", "актив", "инструмент", "тикер", "символ"),
+        TYPE("type", "side", "direction", "тип", "направление", "операция"),
+        STATUS("status", "статус"),
+        DATE("date", "trade date", "дата", "дата сделки"),
+        ENTRY_PRICE("entry", "entry price", "open price", "price", "вход", "цена входа", "цена открытия", "цена"),
+        EXIT_PRICE("exit", "exit price", "close price", "выход", "цена выхода", "цена закрытия"),
+        VOLUME("volume", "quantity", "qty", "size", "объем", "количество", "кол во"),
+        CURRENCY("currency", "валюта"),
+        ENTRY_TIME("entry time", "open time", "время входа", "время открытия"),
+        EXIT_TIME("exit time", "close time", "время выхода", "время закрытия"),
+        ENTRY_REASON("entry reason", "причина входа"),
+        EXIT_REASON("exit reason", "причина выхода"),
+        COMMENT("comment", "note", "комментарий", "примечание");
+
+        private final String[] headers;
+
+        Field(String... headers) {
+            this.headers = headers;
+        }
+    }
+
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd H:mm[:ss]"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy H:mm[:ss]"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy H:mm[:ss]"));
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd.MM.yy"));
+
+    /**
+     * Десятичный разделитель файла не известен и определяется по значениям
+     */
+    static final char DETECT_DECIMAL_SEPARATOR = '\0';
+
+    // Один разделитель и ровно три цифры после него при 1-3 цифрах до: дробь или разряды тысяч ("1,234", "12.500")
+    private static final Pattern AMBIGUOUS_NUMBER = Pattern.compile("-?[1-9]\\d{0,2}[.,]\\d{3}");
+
+    private final Map<Field, Integer> columns;
+    private char decimalSeparator;
+
+    private TradeRowMapper(Map<Field, Integer> columns, char decimalSeparator) {
+        this.columns = columns;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * Сопоставить колонки по строке заголовка
+     *
+     * @param decimalSeparator десятичный разделитель чисел файла ('.' или ',') или DETECT_DECIMAL_SEPARATOR
+     * @throws IllegalArgumentException если не найдены обязательные колонки
+     */
+    static TradeRowMapper fromHeader(List<String> header, char decimalSeparator) {
+        Map<Field, Integer> columns = new EnumMap<>(Field.class);
+        for (int i = 0; i < header.size(); i++) {
+            String name = normalizeHeader(header.get(i));
+            for (Field field : Field.values()) {
+                if (!columns.containsKey(field) && List.of(field.headers).contains(name)) {
+                    columns.put(field, i);
+                    break;
+                }
+            }
+        }
+
+        for (Field required : List.of(Field.ASSET, Field.DATE, Field.ENTRY_PRICE, Field.VOLUME)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("В заголовке файла не найдена колонка " + required.headers[0]
+                        + " (" + required.headers[required.headers.length - 1] + ")");
+            }
+        }
+        return new TradeRowMapper(columns, decimalSeparator);
+    }
+
+    /**
+     * Сделка из строки файла
+     *
+     * @throws IllegalArgumentException если значение обязательного поля отсутствует или не распознано
+     */
+    Trade map(List<String> cells) {
+        Trade trade = new Trade();
+
+        String assetName = require(cells, Field.ASSET);
+        if (assetName.length() > 100) {
+            throw new IllegalArgumentException("название актива длиннее 100 символов");
+        }
+        trade.setAssetName(assetName);
+
+        String dateValue = require(cells, Field.DATE);
+        LocalDateTime dateTime = parseDateTime(dateValue);
+        trade.setTradeDate(dateTime != null ? dateTime.toLocalDate() : parseDate(dateValue));
+
+        trade.setEntryPoint(positive(number(require(cells, Field.ENTRY_PRICE)), Field.ENTRY_PRICE));
+        trade.setVolume(positive(number(require(cells, Field.VOLUME)), Field.VOLUME).abs());
+
+        String exitValue = value(cells, Field.EXIT_PRICE);
+        if (!exitValue.isEmpty()) {
+            trade.setExitPoint(positive(number(exitValue), Field.EXIT_PRICE));
+        }
+
+        trade.setTradeType(parseTradeType(value(cells, Field.TYPE)));
+        trade.setCurrency(parseCurrency(value(cells, Field.CURRENCY)));
+
+        String statusValue = value(cells, Field.STATUS);
+        trade.setStatus(statusValue.isEmpty()
+                ? (trade.getExitPoint() != null ? TradeStatus.CLOSED : TradeStatus.OPEN)
+                : parseStatus(statusValue));
+
+        String entryTime = value(cells, Field.ENTRY_TIME);
+        trade.setEntryTime(!entryTime.isEmpty() ? parseTime(entryTime, trade.getTradeDate()) : dateTime);
+        String exitTime = value(cells, Field.EXIT_TIME);
+        if (!exitTime.isEmpty()) {
+            trade.setExitTime(parseTime(exitTime, trade.getTradeDate()));
+        }
+
+        trade.setEntryReason(limit(value(cells, Field.ENTRY_REASON), 500));
+        trade.setExitReason(limit(value(cells, Field.EXIT_REASON), 500));
+        trade.setComment(limit(value(cells, Field.COMMENT), 1000));
+
+        trade.calculateProfitAndMovement();
+        return trade;
+    }
+
+    private String value(List<String> cells, Field field) {
+        Integer index = columns.get(field);
+        if (index == null || index >= cells.size() || cells.get(index) == null) {
+            return "";
+        }
+        return cells.get(index).trim();
+    }
+
+    private String require(List<String> cells, Field field) {
+        String value = value(cells, field);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("не заполнено поле " + field.headers[0]);
+        }
+        return value;
+    }
+
+    private static BigDecimal positive(BigDecimal value, Field field) {
+        if (value.signum() == 0 || (value.signum() < 0 && field != Field.VOLUME)) {
+            throw new IllegalArgumentException("поле " + field.headers[0] + " должно быть больше 0");
+        }
+        return value;
+    }
+
+    // Десятичный разделитель файла запоминается по первому числу, в котором он однозначен
+    private BigDecimal number(String text) {
+        if (decimalSeparator == DETECT_DECIMAL_SEPARATOR) {
+            decimalSeparator = detectDecimalSeparator(text);
+        }
+        return parseNumber(text, decimalSeparator);
+    }
+
+    /**
+     * Число с учетом разделителей разрядов и десятичной запятой: "1 234,56", "1,234.56", "$1234.5".
+     * Запись вида "1,234" или "1.234" читается по десятичному разделителю файла, без него — ошибка
+     *
+     * @throws IllegalArgumentException если число не распознано или неоднозначно
+     */
+    static BigDecimal parseNumber(String text, char decimalSeparator) {
+        String number = digits(text);
+        int lastComma = number.lastIndexOf(',');
+        int lastDot = number.lastIndexOf('.');
+        if (lastComma >= 0 && lastDot >= 0) {
+            // Последний из разделителей — десятичный, остальные — разряды
+            number = lastComma > lastDot
+                    ? number.replace(".", "").replace(',', '.')
+                    : number.replace(",", "");
+        } else if (lastComma >= 0 || lastDot >= 0) {
+            char separator = lastComma >= 0 ? ',' : '.';
+            boolean fraction;
+            if (number.indexOf(separator) != number.lastIndexOf(separator)) {
+                fraction = false;
+            } else if (!AMBIGUOUS_NUMBER.matcher(number).matches()) {
+                fraction = true;
+            } else if (decimalSeparator == DETECT_DECIMAL_SEPARATOR) {
+                throw new IllegalArgumentException("неоднозначное число '" + text
+                        + "': не известен десятичный разделитель файла (trading.import.decimal-separator)");
+            } else {
+                fraction = separator == decimalSeparator;
+            }
+            number = fraction ? number.replace(separator, '.') : number.replace(String.valueOf(separator), "");
+        }
+
+        try {
+            return new BigDecimal(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("не удалось распознать число '" + text + "'");
+        }
+    }
+
+    /**
+     * Десятичный разделитель, который однозначно следует из записи числа, иначе DETECT_DECIMAL_SEPARATOR
+     */
+    static char detectDecimalSeparator(String text) {
+        String number = digits(text);
+        int lastComma = number.lastIndexOf(',');
+        int lastDot = number.lastIndexOf('.');
+        if (lastComma >= 0 && lastDot >= 0) {
+            return lastComma > lastDot ? ',' : '.';
+        }
+        if (lastComma < 0 && lastDot < 0) {
+            return DETECT_DECIMAL_SEPARATOR;
+        }
+
+        char separator = lastComma >= 0 ? ',' : '.';
+        if (number.indexOf(separator) != number.lastIndexOf(separator)) {
+            // Повторяющийся разделитель — разряды, десятичный — другой
+            return separator == ',' ? '.' : ',';
+        }
+        return AMBIGUOUS_NUMBER.matcher(number).matches() ? DETECT_DECIMAL_SEPARATOR : separator;
+    }
+
+    // Цифры, знак и разделители без пробелов, символов валюты и т.п.
+    private static String digits(String text) {
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c) || c == '.' || c == ',' || c == '-') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(text, format);
+            } catch (DateTimeParseException ignored) {
+                // Следующий формат
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate parseDate(String text) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text, format);
+            } catch (DateTimeParseException ignored) {
+                // Следующий формат
+            }
+        }
+        throw new IllegalArgumentException("не удалось распознать дату '" + text + "'");
+    }
+
+    // Время без даты относится к дате сделки
+    private static LocalDateTime parseTime(String text, LocalDate tradeDate) {
+        LocalDateTime dateTime = parseDateTime(text);
+        if (dateTime != null) {
+            return dateTime;
+        }
+        try {
+            return tradeDate.atTime(LocalTime.parse(text.length() == 4 ? "0" + text : text));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("не удалось распознать время '" + text + "'");
+        }
+    }
+
+    private static TradeType parseTradeType(String text) {
+        return switch (text.toLowerCase(Locale.ROOT)) {
+            case "", "long", "buy", "b", "лонг", "покупка", "купля" -> TradeType.LONG;
+            case "short", "sell", "s", "шорт", "продажа" -> TradeType.SHORT;
+            default -> throw new IllegalArgumentException("неизвестный тип сделки '" + text + "'");
+        };
+    }
+
+    private static TradeStatus parseStatus(String text) {
+        return switch (text.toLowerCase(Locale.ROOT)) {
+            case "open", "opened", "открыта", "открыто" -> TradeStatus.OPEN;
+            case "closed", "close", "закрыта", "закрыто" -> TradeStatus.CLOSED;
+            default -> throw new IllegalArgumentException("неизвестный статус '" + text + "'");
+        };
+    }
+
+    private static Currency parseCurrency(String text) {
+        if (text.isEmpty()) {
+            return Currency.USD;
+        }
+        for (Currency currency : Currency.values()) {
+            if (currency.getCode().equalsIgnoreCase(text) || currency.getSymbol().equals(text)) {
+                return currency;
+            }
+        }
+        if (text.equalsIgnoreCase("RUR") || text.equalsIgnoreCase("руб")) {
+            return Currency.RUB;
+        }
+        throw new IllegalArgumentException("неизвестная валюта '" + text + "'");
+    }
+
+    private static String normalizeHeader(String header) {
+        return header.toLowerCase(Locale.ROOT)
+                .replace('ё', 'е')
+                .replaceAll("[^\\p{L}\\p{Nd}]+", " ")
+                .trim();
+    }
+
+    private static String limit(String value, int maxLength) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -1,47 +1,103 @@
 package com.example.ta.service;
 
+import com.example.ta.domain.AssetBreakdown;
 import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeDailyRollup;
 import com.example.ta.domain.TradeStatistics;
 import com.example.ta.domain.TradeStatus;
+import com.example.ta.events.TradeDataChangedEvent.TradeChange;
 import com.example.ta.repository.TradeRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
+@Transactional(readOnly = true)
 public class TradeService {
 
     private final TradeRepository tradeRepository;
+    private final TradeStatisticsAggregator statisticsAggregator;
+    private final TradeColumnStore tradeColumnStore;
+    private final DailyRollupService dailyRollupService;
+    private final TradeRangeIndex tradeRangeIndex;
+    private final EntityManager entityManager;
+    private final TradeWriteQueue writeQueue;
+    private final TradeChangePublisher changePublisher;
 
+    @Value("${trading.trades-list.search-limit:500}")
+    private int searchLimit;
+
+    /**
+     * Запись выполняет поток-писатель TradeWriteQueue в своей транзакции; метод ждет ее фиксации
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trade save(Trade trade) {
         log.info("Сохранение сделки: {}", trade.getAssetName());
 
-        autoSetStatusBasedOnExitTime(trade);
-
-        return tradeRepository.save(trade);
+        return persistInWriter(trade);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Trade update(Trade trade) {
         log.info("Обновление сделки: {}", trade.getAssetName());
 
+        return persistInWriter(trade);
+    }
+
+    private Trade persistInWriter(Trade trade) {
+        // После отката новая сделка не должна сохранить назначенный при вставке id
+        Long originalId = trade.getId();
+        return writeQueue.execute(() -> persist(trade), () -> trade.setId(originalId));
+    }
+
+    private Trade persist(Trade trade) {
         autoSetStatusBasedOnExitTime(trade);
+        trade.calculateProfitAndMovement();
+
+        Optional<Trade> existing = findExisting(trade.getId());
+        TradeStatisticsAggregator.Contribution before = existing.map(TradeStatisticsAggregator.Contribution::of).orElse(null);
+        LocalDate previousDate = existing.map(Trade::getTradeDate).orElse(null);
+        // Снимок до слияния: управляемая сущность existing получит новые значения при сохранении
+        Trade previousState = existing.map(Trade::copy).orElse(null);
+
+        // Сброс в БД до пересчета дневных агрегатов — они читают trades SQL-запросом
+        Trade savedTrade = tradeRepository.saveAndFlush(trade);
+        statisticsAggregator.applyAfterCommit(before, TradeStatisticsAggregator.Contribution.of(savedTrade));
+        dailyRollupService.refreshDays(previousDate, savedTrade.getTradeDate());
+        changePublisher.publishAfterCommit(previousState == null
+                ? TradeChange.created(savedTrade.copy())
+                : TradeChange.updated(previousState, savedTrade.copy()));
+
+        return savedTrade;
+    }
 
-        return tradeRepository.save(trade);
+    // Состояние сделки в БД до изменения (дата и вклад в агрегаты читаются до слияния изменений)
+    private Optional<Trade> findExisting(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return tradeRepository.findById(id);
     }
 
     @Transactional(readOnly = true)
@@ -60,30 +116,110 @@ public class TradeService {
     }
 
     @Transactional(readOnly = true)
-    public List<Trade> search(String assetName, TradeStatus status, LocalDate startDate, LocalDate endDate) {
-        // Реализация поиска с различными комбинациями параметров
-        if (assetName != null && !assetName.trim().isEmpty() && status != null && startDate != null && endDate != null) {
-            return tradeRepository.findByAssetNameContainingIgnoreCaseAndStatusAndTradeDateBetween(assetName, status, startDate, endDate);
-        } else if (assetName != null && !assetName.trim().isEmpty() && status != null) {
-            return tradeRepository.findByAssetNameContainingIgnoreCaseAndStatus(assetName, status);
-        } else if (assetName != null && !assetName.trim().isEmpty() && startDate != null && endDate != null) {
-            return tradeRepository.findByAssetNameContainingIgnoreCaseAndTradeDateBetween(assetName, startDate, endDate);
-        } else if (status != null && startDate != null && endDate != null) {
-            return tradeRepository.findByStatusAndTradeDateBetween(status, startDate, endDate);
-        } else if (assetName != null && !assetName.trim().isEmpty()) {
-            return tradeRepository.findByAssetNameContainingIgnoreCase(assetName);
+    public long count() {
+        return tradeRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    public long countWithProfitLoss() {
+        return tradeRepository.getTradesWithProfitLossCount();
+    }
+
+    /**
+     * Страница сделок (новые сначала) по номеру страницы
+     */
+    @Transactional(readOnly = true)
+    public List<Trade> findPage(int pageIndex, int pageSize) {
+        return tradeRepository.findAllByOrderByTradeDateDescIdDesc(PageRequest.of(pageIndex, pageSize));
+    }
+
+    /**
+     * Страница сделок (новые сначала), следующих за указанной сделкой
+     */
+    @Transactional(readOnly = true)
+    public List<Trade> findPageAfter(LocalDate tradeDate, Long id, int pageSize) {
+        return tradeRepository.findPageAfter(tradeDate, id, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Сводка по всем сделкам для списка сделок: количество, общая прибыль и винрейт
+     */
+    @Transactional(readOnly = true)
+    public TradeStatistics getTradesSummary() {
+        TradeStatistics stats = new TradeStatistics();
+
+        long withProfitLoss = tradeRepository.getTradesWithProfitLossCount();
+        long winningTrades = tradeRepository.getWinningTradesCount();
+
+        stats.setTotalTrades((int) tradeRepository.count());
+        stats.setTotalProfit(tradeRepository.getTotalProfit());
+        stats.setWinningTrades((int) winningTrades);
+        stats.setLosingTrades(tradeRepository.getLosingTradesCount().intValue());
+        stats.setWinRate(withProfitLoss > 0
+                ? BigDecimal.valueOf(winningTrades)
+                        .divide(BigDecimal.valueOf(withProfitLoss), 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO);
+
+        return stats;
+    }
+
+    /**
+     * Заданы ли условия поиска; без них список сделок показывается постранично (PagedTradeList)
+     */
+    public static boolean hasSearchFilters(String query, TradeStatus status, LocalDate startDate, LocalDate endDate) {
+        return toFullTextMatch(query) != null || status != null || (startDate != null && endDate != null);
+    }
+
+    /**
+     * Поиск сделок; результат ограничен trading.trades-list.search-limit (новые сначала, для полнотекстового
+     * поиска — по релевантности)
+     */
+    @Transactional(readOnly = true)
+    public List<Trade> search(String query, TradeStatus status, LocalDate startDate, LocalDate endDate) {
+        String match = toFullTextMatch(query);
+        if (match != null) {
+            long start = System.nanoTime();
+            List<Trade> trades = tradeRepository.searchFullText(match, status != null ? status.name() : null,
+                    startDate, endDate, searchLimit);
+            log.debug("Полнотекстовый поиск '{}': {} сделок за {} мкс", query, trades.size(),
+                    (System.nanoTime() - start) / 1_000);
+            return trades;
+        }
+
+        PageRequest limit = PageRequest.of(0, searchLimit);
+        if (status != null && startDate != null && endDate != null) {
+            return tradeRepository.findByStatusAndTradeDateBetweenOrderByTradeDateDescIdDesc(status, startDate, endDate,
+                    limit);
         } else if (status != null) {
-            return tradeRepository.findByStatus(status);
+            return tradeRepository.findByStatusOrderByTradeDateDescIdDesc(status, limit);
         } else if (startDate != null && endDate != null) {
-            return tradeRepository.findByTradeDateBetween(startDate, endDate);
+            return tradeRepository.findByTradeDateBetweenOrderByTradeDateDescIdDesc(startDate, endDate, limit);
         } else {
-            return tradeRepository.findAll();
+            return tradeRepository.findAllByOrderByTradeDateDescIdDesc(limit);
         }
     }
 
+    /**
+     * Строка поиска в выражение FTS5: каждое слово — фраза с поиском по префиксу, слова объединяются через AND.
+     * Кавычки экранируются, поэтому операторы FTS5 во вводе пользователя не интерпретируются.
+     */
+    static String toFullTextMatch(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String match = Arrays.stream(query.strip().split("\\s+"))
+                .map(token -> token.replace("\"", ""))
+                .filter(token -> !token.isEmpty())
+                .map(token -> "\"" + token + "\"*")
+                .collect(Collectors.joining(" "));
+        return match.isEmpty() ? null : match;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean delete(Long id) {
         try {
-            tradeRepository.deleteById(id);
+            deleteById(id);
             return true;
         } catch (Exception e) {
             log.error("Ошибка при удалении сделки с ID: {}", id, e);
@@ -93,26 +229,41 @@ public class TradeService {
 
     @Transactional(readOnly = true)
     public TradeStatistics getStatistics(LocalDate startDate, LocalDate endDate) {
-        // Получаем только ЗАКРЫТЫЕ сделки за период
-        List<Trade> allTradesInPeriod = tradeRepository.findByTradeDateBetween(startDate, endDate);
-        List<Trade> closedTrades = allTradesInPeriod.stream()
-                .filter(trade -> trade.getStatus() == TradeStatus.CLOSED)
-                .toList();
+        // Агрегаты по ЗАКРЫТЫМ сделкам — суммы на диапазоне дней из индекса в памяти, сделки не читаются
+        TradeStatistics stats = tradeRangeIndex.getStatistics(startDate, endDate);
+        stats.setPerformanceMetrics(tradeColumnStore.getPerformanceMetrics(startDate, endDate));
+        stats.setPeriodStart(startDate);
+        stats.setPeriodEnd(endDate);
 
-        log.info("Расчет статистики за период {} - {}: найдено {} закрытых сделок из {} общих",
-                startDate, endDate, closedTrades.size(), allTradesInPeriod.size());
+        log.info("Расчет статистики за период {} - {}: {} закрытых сделок с P/L, прибыльных: {}, убыточных: {}, прибыль: {}, винрейт: {}%",
+                startDate, endDate, stats.getTotalTrades(), stats.getWinningTrades(), stats.getLosingTrades(),
+                stats.getTotalProfit(), stats.getWinRate());
 
-        return calculateStatisticsFromClosedTrades(closedTrades, startDate, endDate);
+        return stats;
     }
 
-    @Transactional(readOnly = true)
-    public List<Trade> findByAsset(String assetName) {
-        return tradeRepository.findByAssetNameContainingIgnoreCase(assetName);
+    /**
+     * Основные показатели за диапазон дат без расширенных метрик — для живого обновления при выборе дат.
+     * Без транзакции: построенный индекс отвечает из памяти и не занимает соединение с БД.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradeStatistics getRangeStatistics(LocalDate startDate, LocalDate endDate) {
+        TradeStatistics stats = tradeRangeIndex.getStatistics(startDate, endDate);
+        stats.setPeriodStart(startDate);
+        stats.setPeriodEnd(endDate);
+        return stats;
+    }
+
+    /**
+     * Индекс диапазонов дат построен: getRangeStatistics ответит из памяти без чтения из БД
+     */
+    public boolean isRangeStatisticsReady() {
+        return tradeRangeIndex.isBuilt();
     }
 
     @Transactional(readOnly = true)
-    public List<Trade> findByStatus(TradeStatus status) {
-        return tradeRepository.findByStatus(status);
+    public List<Trade> findByAsset(String assetName) {
+        return tradeRepository.findByAssetNameContainingIgnoreCase(assetName);
     }
 
     @Transactional(readOnly = true)
@@ -131,195 +282,47 @@ public class TradeService {
         return tradeRepository.findAll(pageRequest).getContent();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteById(Long id) {
         log.info("Удаление сделки с ID: {}", id);
-        tradeRepository.deleteById(id);
-    }
-
-    @Transactional(readOnly = true)
-    public TradeStatistics calculateStatistics() {
-        // Получаем все сделки и фильтруем только ЗАКРЫТЫЕ
-        List<Trade> allTrades = findAll();
-        List<Trade> closedTrades = allTrades.stream()
-                .filter(trade -> trade.getStatus() == TradeStatus.CLOSED)
-                .toList();
 
-        log.info("Расчет общей статистики: найдено {} закрытых сделок из {} общих",
-                closedTrades.size(), allTrades.size());
-
-        return calculateStatisticsFromClosedTrades(closedTrades, null, null);
+        writeQueue.executeWithoutResult(() -> remove(id));
     }
 
-    @Transactional(readOnly = true)
-    public TradeStatistics getQuickStatistics() {
-        TradeStatistics stats = new TradeStatistics();
+    private void remove(Long id) {
+        Optional<Trade> existing = findExisting(id);
+        TradeStatisticsAggregator.Contribution before = existing.map(TradeStatisticsAggregator.Contribution::of).orElse(null);
+        LocalDate previousDate = existing.map(Trade::getTradeDate).orElse(null);
 
-        // Получаем только ЗАКРЫТЫЕ сделки для статистики
-        List<Trade> allTrades = tradeRepository.findAll();
-        List<Trade> closedTrades = allTrades.stream()
-                .filter(trade -> trade.getStatus() == TradeStatus.CLOSED)
-                .filter(trade -> trade.getProfitLoss() != null)
-                .toList();
-
-        log.info("Быстрая статистика: обрабатываем {} закрытых сделок с P/L из {} общих",
-                closedTrades.size(), allTrades.size());
-
-        // Общее количество ЗАКРЫТЫХ сделок с P/L
-        stats.setTotalTrades(closedTrades.size());
-
-        // Общая прибыль только закрытых сделок
-        BigDecimal totalProfit = closedTrades.stream()
-                .map(Trade::getProfitLoss)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalProfit(totalProfit);
-
-        // Общий объем (можем считать из всех сделок)
-        BigDecimal totalVolume = allTrades.stream()
-                .filter(trade -> trade.getVolume() != null && trade.getEntryPoint() != null)
-                .map(trade -> trade.getVolume().multiply(trade.getEntryPoint()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalVolume(totalVolume);
-
-        // Прибыльные и убыточные сделки (только закрытые)
-        Long winningTrades = closedTrades.stream()
-                .filter(trade -> trade.getProfitLoss().compareTo(BigDecimal.ZERO) > 0)
-                .count();
-
-        Long losingTrades = closedTrades.stream()
-                .filter(trade -> trade.getProfitLoss().compareTo(BigDecimal.ZERO) < 0)
-                .count();
-
-        stats.setWinningTrades(winningTrades.intValue());
-        stats.setLosingTrades(losingTrades.intValue());
-
-        // Винрейт
-        if (!closedTrades.isEmpty()) {
-            BigDecimal winRate = BigDecimal.valueOf(winningTrades)
-                    .divide(BigDecimal.valueOf(closedTrades.size()), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            stats.setWinRate(winRate);
-        } else {
-            stats.setWinRate(BigDecimal.ZERO);
-        }
+        Trade previousState = existing.map(Trade::copy).orElse(null);
 
-        // Средняя прибыль
-        if (!closedTrades.isEmpty()) {
-            BigDecimal avgProfit = totalProfit.divide(BigDecimal.valueOf(closedTrades.size()), 2, RoundingMode.HALF_UP);
-            stats.setAvgProfit(avgProfit);
-        } else {
-            stats.setAvgProfit(BigDecimal.ZERO);
+        tradeRepository.deleteById(id);
+        tradeRepository.flush();
+        statisticsAggregator.applyAfterCommit(before, null);
+        dailyRollupService.refreshDays(previousDate);
+        if (previousState != null) {
+            changePublisher.publishAfterCommit(TradeChange.deleted(previousState));
         }
+    }
 
-        // Максимальная прибыль и убыток (только закрытые)
-        BigDecimal maxProfit = closedTrades.stream()
-                .map(Trade::getProfitLoss)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        stats.setMaxProfit(maxProfit);
-
-        BigDecimal maxLoss = closedTrades.stream()
-                .map(Trade::getProfitLoss)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        stats.setMaxLoss(maxLoss);
+    @Transactional(readOnly = true)
+    public TradeStatistics calculateStatistics() {
+        TradeStatistics stats = statisticsAggregator.getClosedTradesStatistics();
+        stats.setPerformanceMetrics(tradeColumnStore.getPerformanceMetrics(null, null));
 
-        log.info("Быстрая статистика: {} закрытых сделок, прибыльных: {}, убыточных: {}, прибыль: {}, винрейт: {}%",
-                closedTrades.size(), winningTrades, losingTrades, totalProfit, stats.getWinRate());
+        log.info("Общая статистика из накопительных агрегатов: {} закрытых сделок с P/L, прибыль: {}, винрейт: {}%",
+                stats.getTotalTrades(), stats.getTotalProfit(), stats.getWinRate());
 
         return stats;
     }
 
-    /**
-     * Расчет статистики только из закрытых сделок
-     */
-    private TradeStatistics calculateStatisticsFromClosedTrades(List<Trade> closedTrades, LocalDate startDate, LocalDate endDate) {
-        TradeStatistics stats = new TradeStatistics();
-
-        // Устанавливаем период
-        stats.setPeriodStart(startDate);
-        stats.setPeriodEnd(endDate);
-
-        if (closedTrades == null || closedTrades.isEmpty()) {
-            // Возвращаем пустую статистику с нулевыми значениями
-            stats.setTotalTrades(0);
-            stats.setTotalProfit(BigDecimal.ZERO);
-            stats.setTotalVolume(BigDecimal.ZERO);
-            stats.setWinningTrades(0);
-            stats.setLosingTrades(0);
-            stats.setWinRate(BigDecimal.ZERO);
-            stats.setAvgProfit(BigDecimal.ZERO);
-            stats.setMaxProfit(BigDecimal.ZERO);
-            stats.setMaxLoss(BigDecimal.ZERO);
-            return stats;
-        }
-
-        // Фильтруем только сделки с рассчитанной прибылью/убытком
-        List<Trade> tradesWithProfitLoss = closedTrades.stream()
-                .filter(trade -> trade.getProfitLoss() != null)
-                .toList();
-
-        // Общее количество ЗАКРЫТЫХ сделок с P/L
-        stats.setTotalTrades(tradesWithProfitLoss.size());
-
-        // Общая прибыль
-        BigDecimal totalProfit = tradesWithProfitLoss.stream()
-                .map(Trade::getProfitLoss)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalProfit(totalProfit);
-
-        // Общий объем торгов (все закрытые сделки)
-        BigDecimal totalVolume = closedTrades.stream()
-                .filter(trade -> trade.getVolume() != null && trade.getEntryPoint() != null)
-                .map(trade -> trade.getVolume().multiply(trade.getEntryPoint()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalVolume(totalVolume);
-
-        // Прибыльные и убыточные сделки
-        int winningTrades = (int) tradesWithProfitLoss.stream()
-                .filter(trade -> trade.getProfitLoss().compareTo(BigDecimal.ZERO) > 0)
-                .count();
-
-        int losingTrades = (int) tradesWithProfitLoss.stream()
-                .filter(trade -> trade.getProfitLoss().compareTo(BigDecimal.ZERO) < 0)
-                .count();
-
-        stats.setWinningTrades(winningTrades);
-        stats.setLosingTrades(losingTrades);
-
-        // Процент успешных сделок
-        if (!tradesWithProfitLoss.isEmpty()) {
-            BigDecimal winRate = BigDecimal.valueOf(winningTrades)
-                    .divide(BigDecimal.valueOf(tradesWithProfitLoss.size()), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            stats.setWinRate(winRate);
-        } else {
-            stats.setWinRate(BigDecimal.ZERO);
-        }
-
-        // Средняя прибыль на сделку
-        if (!tradesWithProfitLoss.isEmpty()) {
-            BigDecimal avgProfit = totalProfit.divide(BigDecimal.valueOf(tradesWithProfitLoss.size()), 2, RoundingMode.HALF_UP);
-            stats.setAvgProfit(avgProfit);
-        } else {
-            stats.setAvgProfit(BigDecimal.ZERO);
-        }
-
-        // Максимальная прибыль
-        BigDecimal maxProfit = tradesWithProfitLoss.stream()
-                .map(Trade::getProfitLoss)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        stats.setMaxProfit(maxProfit);
-
-        // Максимальный убыток
-        BigDecimal maxLoss = tradesWithProfitLoss.stream()
-                .map(Trade::getProfitLoss)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        stats.setMaxLoss(maxLoss);
+    @Transactional(readOnly = true)
+    public TradeStatistics getQuickStatistics() {
+        TradeStatistics stats = statisticsAggregator.getQuickStatistics();
 
-        log.info("Статистика только закрытых сделок: {} сделок с P/L, прибыльных: {}, убыточных: {}, прибыль: {}, винрейт: {}%",
-                tradesWithProfitLoss.size(), winningTrades, losingTrades, totalProfit, stats.getWinRate());
+        log.info("Быстрая статистика: {} закрытых сделок, прибыльных: {}, убыточных: {}, прибыль: {}, винрейт: {}%",
+                stats.getTotalTrades(), stats.getWinningTrades(), stats.getLosingTrades(),
+                stats.getTotalProfit(), stats.getWinRate());
 
         return stats;
     }
@@ -333,29 +336,58 @@ public class TradeService {
     }
 
     /**
-     * Получить только закрытые сделки для построения кривой эквити
+     * Кривая эквити по закрытым сделкам за период из колоночного снимка
      */
-    @Transactional(readOnly = true)
-    public List<Trade> getClosedTradesForPeriod(LocalDate startDate, LocalDate endDate) {
-        List<Trade> allTrades;
-
-        if (startDate != null && endDate != null) {
-            allTrades = tradeRepository.findByTradeDateBetween(startDate, endDate);
-            log.info("Найдено {} сделок за период {} - {}", allTrades.size(), startDate, endDate);
-        } else {
-            allTrades = tradeRepository.findAll();
-            log.info("Найдено {} сделок за все время", allTrades.size());
-        }
+    public TradeColumnStore.EquityCurve getEquityCurve(LocalDate startDate, LocalDate endDate) {
+        TradeColumnStore.EquityCurve curve = tradeColumnStore.getEquityCurve(startDate, endDate);
+        log.info("Кривая эквити за период {} - {}: {} закрытых сделок с P/L", startDate, endDate, curve.size());
+        return curve;
+    }
 
-        List<Trade> closedTrades = allTrades.stream()
-                .filter(trade -> trade.getStatus() == TradeStatus.CLOSED)
-                .filter(trade -> trade.getProfitLoss() != null)
-                .filter(trade -> trade.getTradeDate() != null) // Добавляем проверку даты
-                .collect(Collectors.toList()); // Используем collect вместо toList()
+    /**
+     * Разбивка закрытых сделок за период по активам из колоночного снимка
+     */
+    public List<AssetBreakdown> getAssetBreakdown(LocalDate startDate, LocalDate endDate) {
+        long startTime = System.nanoTime();
+        List<AssetBreakdown> breakdown = tradeColumnStore.getAssetBreakdown(startDate, endDate);
+        log.info("Разбивка по активам за период {} - {}: {} активов за {} мс", startDate, endDate,
+                breakdown.size(), (System.nanoTime() - startTime) / 1_000_000);
+        return breakdown;
+    }
 
-        log.info("Из них закрытых сделок с P/L и датой: {}", closedTrades.size());
+    /**
+     * Дневные агрегаты закрытых сделок за период для кривой эквити по дням
+     */
+    @Transactional(readOnly = true)
+    public List<TradeDailyRollup> getDailyRollups(LocalDate startDate, LocalDate endDate) {
+        return dailyRollupService.getDailyRollups(startDate, endDate);
+    }
 
-        return closedTrades;
+    /**
+     * Последовательно обработать закрытые сделки за период, не загружая их списком.
+     * Сделки читаются курсором в порядке даты и сразу отсоединяются от контекста,
+     * поэтому расход памяти не зависит от количества сделок.
+     *
+     * @return количество обработанных сделок
+     */
+    @Transactional(readOnly = true)
+    public long forEachClosedTrade(LocalDate startDate, LocalDate endDate, Consumer<Trade> action) {
+        try (Stream<Trade> trades = startDate != null && endDate != null
+                ? tradeRepository.streamClosedTradesForPeriod(startDate, endDate)
+                : tradeRepository.streamClosedTrades()) {
+
+            long processed = 0;
+            Iterator<Trade> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                Trade trade = iterator.next();
+                action.accept(trade);
+                entityManager.detach(trade);
+                processed++;
+            }
+
+            log.info("Потоково обработано {} закрытых сделок за период {} - {}", processed, startDate, endDate);
+            return processed;
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,267 @@
+package com.example.ta.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Потоковое чтение выписки брокера (CSV или XLSX) построчно, без загрузки файла в память.
+ * CSV читается с автоопределением разделителя (';', ',' или табуляция) и поддержкой кавычек;
+ * XLSX — событийным SAX-разбором первого листа, даты выдаются в формате ISO, числа — без форматирования ячейки.
+ */
+final class TradeStatementReader {
+
+    /**
+     * Обработчик строки файла; rowNumber — номер строки в файле, начиная с 1
+     */
+    interface RowHandler {
+        void row(long rowNumber, List<String> cells);
+    }
+
+    private final Path file;
+    private volatile FileChannel channel;
+    private long fileSize;
+    private char decimalSeparator;
+
+    /**
+     * @param csvDecimalSeparator десятичный разделитель чисел CSV ('.' или ','),
+     *                            TradeRowMapper.DETECT_DECIMAL_SEPARATOR — определить по файлу
+     */
+    TradeStatementReader(Path file, char csvDecimalSeparator) {
+        this.file = file;
+        this.decimalSeparator = csvDecimalSeparator;
+    }
+
+    static boolean isSupported(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".txt") || name.endsWith(".xlsx");
+    }
+
+    /**
+     * Доля прочитанного файла от 0 до 1; для XLSX неизвестна (-1)
+     */
+    double progress() {
+        FileChannel current = channel;
+        if (current == null || fileSize <= 0) {
+            return -1;
+        }
+        try {
+            return (double) current.position() / fileSize;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Десятичный разделитель чисел файла, известен после первой строки. В XLSX числа выдаются с точкой;
+     * в CSV без настройки он следует из разделителя колонок: при ';' — запятая, при ',' — точка
+     * (запятая в числе без кавычек разбила бы значение). Для табуляции не известен — TradeRowMapper
+     * определяет его по значениям.
+     */
+    char decimalSeparator() {
+        return decimalSeparator;
+    }
+
+    void read(RowHandler handler) throws IOException {
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+            readXlsx(handler);
+        } else {
+            readCsv(handler);
+        }
+    }
+
+    private void readCsv(RowHandler handler) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(fileChannel, StandardCharsets.UTF_8.newDecoder()
+                     .onMalformedInput(CodingErrorAction.REPLACE)
+                     .onUnmappableCharacter(CodingErrorAction.REPLACE), -1))) {
+            channel = fileChannel;
+            fileSize = fileChannel.size();
+
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            char delimiter = detectDelimiter(line);
+            if (decimalSeparator == TradeRowMapper.DETECT_DECIMAL_SEPARATOR) {
+                decimalSeparator = switch (delimiter) {
+                    case ';' -> ',';
+                    case ',' -> '.';
+                    default -> TradeRowMapper.DETECT_DECIMAL_SEPARATOR;
+                };
+            }
+
+            long lineNumber = 0;
+            long rowNumber = 1;
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (line != null) {
+                lineNumber++;
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            cell.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            cell.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == delimiter) {
+                        cells.add(cell.toString());
+                        cell.setLength(0);
+                    } else {
+                        cell.append(c);
+                    }
+                }
+
+                if (quoted) {
+                    // Перевод строки внутри кавычек — часть значения, строка файла продолжается
+                    cell.append('\n');
+                } else {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                    handler.row(rowNumber, cells);
+                    cells = new ArrayList<>(cells.size());
+                    rowNumber = lineNumber + 1;
+                }
+                line = reader.readLine();
+            }
+        } finally {
+            channel = null;
+        }
+    }
+
+    // Разделитель — самый частый из допустимых символов в строке заголовка вне кавычек
+    private static char detectDelimiter(String header) {
+        int semicolons = 0;
+        int commas = 0;
+        int tabs = 0;
+        boolean quoted = false;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                switch (c) {
+                    case ';' -> semicolons++;
+                    case ',' -> commas++;
+                    case '\t' -> tabs++;
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (tabs > semicolons && tabs > commas) {
+            return '\t';
+        }
+        return semicolons >= commas && semicolons > 0 ? ';' : ',';
+    }
+
+    private void readXlsx(RowHandler handler) throws IOException {
+        // Числа листа выдает RawValueFormatter — всегда с точкой и без разделителей разрядов
+        decimalSeparator = '.';
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(xssfReader.getStylesTable(), null, strings,
+                        new SheetRows(handler), new RawValueFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Не удалось прочитать файл Excel: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сборка строк листа из событий ячеек; пропущенные ячейки заполняются пустыми значениями
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private List<String> cells = new ArrayList<>();
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new ArrayList<>(cells.size());
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.row(rowNum + 1L, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue != null ? formattedValue : "");
+        }
+    }
+
+    /**
+     * Значения ячеек без пользовательского формата: даты — ISO, числа — точное десятичное представление
+     */
+    private static final class RawValueFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                LocalDateTime dateTime = DateUtil.getLocalDateTime(value, use1904Windowing, true);
+                return dateTime.toLocalTime().equals(LocalTime.MIDNIGHT)
+                        ? dateTime.toLocalDate().toString()
+                        : dateTime.toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
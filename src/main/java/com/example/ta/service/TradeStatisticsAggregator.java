@@ -0,0 +1,267 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatistics;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.repository.TradeRepository;
+import com.example.ta.repository.TradeTotals;
+import com.example.ta.util.FixedPointMoney;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+import static com.example.ta.util.FixedPointMoney.VOLUME_SCALE;
+
+/**
+ * Накопительные агрегаты по сделкам, обновляемые при каждом сохранении/удалении.
+ * Позволяет получать общую статистику без загрузки всех сделок из БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradeStatisticsAggregator {
+
+    private static final int WIN_RATE_SCALE = 4;
+
+    private final TradeRepository tradeRepository;
+
+    private boolean loaded;
+    private boolean extremesStale;
+
+    // Поколение изменений: растет при регистрации каждого изменения и при сбросе.
+    // loadedGeneration — поколение, на котором агрегаты прочитаны из БД
+    private long generation;
+    private long loadedGeneration;
+
+    // Суммы хранятся в фиксированной точке (масштаб 2), BigDecimal создается только при выдаче статистики
+    private long totalTrades;
+    private long winningTrades;
+    private long losingTrades;
+    private long totalProfit;
+    private long closedVolume;
+    private long totalVolume;
+    private boolean hasExtremes;
+    private long maxProfit;
+    private long maxLoss;
+
+    /**
+     * Вклад одной сделки в агрегаты (суммы в фиксированной точке, масштаб 2)
+     */
+    public record Contribution(boolean closed, boolean hasProfitLoss, long profitLoss, boolean hasVolume, long volume) {
+
+        public static Contribution of(Trade trade) {
+            boolean hasVolume = trade.getEntryPoint() != null && trade.getVolume() != null;
+            long volume = hasVolume
+                    ? FixedPointMoney.multiply(
+                            FixedPointMoney.fromBigDecimal(trade.getEntryPoint(), PRICE_SCALE), PRICE_SCALE,
+                            FixedPointMoney.fromBigDecimal(trade.getVolume(), VOLUME_SCALE), VOLUME_SCALE,
+                            PRICE_SCALE)
+                    : 0L;
+            return new Contribution(trade.getStatus() == TradeStatus.CLOSED,
+                    trade.getProfitLoss() != null, FixedPointMoney.fromBigDecimal(trade.getProfitLoss(), PRICE_SCALE),
+                    hasVolume, volume);
+        }
+    }
+
+    /**
+     * Применить изменение сделки после успешной фиксации транзакции
+     *
+     * @param before вклад сделки до изменения (null для новой сделки)
+     * @param after  вклад сделки после изменения (null для удаленной сделки)
+     */
+    public void applyAfterCommit(Contribution before, Contribution after) {
+        long changeGeneration = nextGeneration();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(changeGeneration, before, after);
+                }
+            });
+        } else {
+            apply(changeGeneration, before, after);
+        }
+    }
+
+    private synchronized long nextGeneration() {
+        return ++generation;
+    }
+
+    /**
+     * Сбросить агрегаты; при следующем чтении они будут пересчитаны из БД
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+        generation++;
+        log.debug("Агрегаты статистики сброшены");
+    }
+
+    /**
+     * Статистика по закрытым сделкам (объем только закрытых сделок)
+     */
+    public synchronized TradeStatistics getClosedTradesStatistics() {
+        ensureLoaded();
+        return toStatistics(closedVolume);
+    }
+
+    /**
+     * Быстрая статистика для главной страницы (объем по всем сделкам)
+     */
+    public synchronized TradeStatistics getQuickStatistics() {
+        ensureLoaded();
+        return toStatistics(totalVolume);
+    }
+
+    private synchronized void apply(long changeGeneration, Contribution before, Contribution after) {
+        if (!loaded) {
+            // Агрегаты еще не загружены — они будут рассчитаны из БД при первом чтении
+            return;
+        }
+        if (loadedGeneration >= changeGeneration) {
+            // Агрегаты прочитаны после регистрации изменения (например, между фиксацией и afterCommit)
+            // и могли уже учесть его — повторное применение посчитало бы сделку дважды
+            loaded = false;
+            log.debug("Агрегаты статистики загружены во время фиксации изменения и будут перечитаны");
+            return;
+        }
+        if (before != null) {
+            subtract(before);
+        }
+        if (after != null) {
+            add(after);
+        }
+    }
+
+    private void add(Contribution contribution) {
+        if (contribution.hasVolume()) {
+            totalVolume = FixedPointMoney.add(totalVolume, contribution.volume());
+            if (contribution.closed()) {
+                closedVolume = FixedPointMoney.add(closedVolume, contribution.volume());
+            }
+        }
+
+        if (!contribution.closed() || !contribution.hasProfitLoss()) {
+            return;
+        }
+
+        long profitLoss = contribution.profitLoss();
+        totalTrades++;
+        totalProfit = FixedPointMoney.add(totalProfit, profitLoss);
+        if (profitLoss > 0) {
+            winningTrades++;
+        } else if (profitLoss < 0) {
+            losingTrades++;
+        }
+
+        if (!extremesStale) {
+            maxProfit = hasExtremes ? Math.max(maxProfit, profitLoss) : profitLoss;
+            maxLoss = hasExtremes ? Math.min(maxLoss, profitLoss) : profitLoss;
+            hasExtremes = true;
+        }
+    }
+
+    private void subtract(Contribution contribution) {
+        if (contribution.hasVolume()) {
+            totalVolume = FixedPointMoney.subtract(totalVolume, contribution.volume());
+            if (contribution.closed()) {
+                closedVolume = FixedPointMoney.subtract(closedVolume, contribution.volume());
+            }
+        }
+
+        if (!contribution.closed() || !contribution.hasProfitLoss()) {
+            return;
+        }
+
+        long profitLoss = contribution.profitLoss();
+        totalTrades--;
+        totalProfit = FixedPointMoney.subtract(totalProfit, profitLoss);
+        if (profitLoss > 0) {
+            winningTrades--;
+        } else if (profitLoss < 0) {
+            losingTrades--;
+        }
+
+        // Удаление экстремума нельзя откатить инкрементально — перечитаем MAX/MIN при следующем чтении
+        if (hasExtremes && (profitLoss == maxProfit || profitLoss == maxLoss)) {
+            extremesStale = true;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            TradeTotals totals = tradeRepository.getClosedTradesTotals();
+
+            totalTrades = totals.getTotalTrades();
+            winningTrades = totals.getWinningTrades();
+            losingTrades = totals.getLosingTrades();
+            totalProfit = FixedPointMoney.fromBigDecimal(totals.getTotalProfit(), PRICE_SCALE);
+            closedVolume = FixedPointMoney.fromBigDecimal(totals.getTotalVolume(), PRICE_SCALE);
+            totalVolume = FixedPointMoney.fromBigDecimal(tradeRepository.getTotalVolume(), PRICE_SCALE);
+            loadExtremes(totals.getMaxProfit(), totals.getMaxLoss());
+            loaded = true;
+            loadedGeneration = generation;
+
+            log.info("Агрегаты статистики загружены из БД: {} закрытых сделок с P/L", totalTrades);
+        } else if (extremesStale) {
+            loadExtremes(tradeRepository.getMaxProfit(), tradeRepository.getMaxLoss());
+
+            log.debug("Экстремумы P/L пересчитаны: max={}, min={}", maxProfit, maxLoss);
+        }
+    }
+
+    private void loadExtremes(BigDecimal max, BigDecimal min) {
+        hasExtremes = max != null && min != null;
+        maxProfit = FixedPointMoney.fromBigDecimal(max, PRICE_SCALE);
+        maxLoss = FixedPointMoney.fromBigDecimal(min, PRICE_SCALE);
+        extremesStale = false;
+    }
+
+    private TradeStatistics toStatistics(long volume) {
+        return toStatistics(totalTrades, winningTrades, losingTrades, totalProfit, volume, maxProfit, maxLoss);
+    }
+
+    /**
+     * Преобразовать агрегаты, рассчитанные в БД, в статистику
+     */
+    static TradeStatistics toStatistics(TradeTotals totals) {
+        return toStatistics(totals.getTotalTrades(), totals.getWinningTrades(), totals.getLosingTrades(),
+                FixedPointMoney.fromBigDecimal(totals.getTotalProfit(), PRICE_SCALE),
+                FixedPointMoney.fromBigDecimal(totals.getTotalVolume(), PRICE_SCALE),
+                FixedPointMoney.fromBigDecimal(totals.getMaxProfit(), PRICE_SCALE),
+                FixedPointMoney.fromBigDecimal(totals.getMaxLoss(), PRICE_SCALE));
+    }
+
+    /**
+     * Статистика из агрегатов в фиксированной точке (масштаб 2); отсутствующие экстремумы равны 0
+     */
+    static TradeStatistics toStatistics(long totalTrades, long winningTrades, long losingTrades,
+                                        long totalProfit, long volume, long maxProfit, long maxLoss) {
+        TradeStatistics stats = new TradeStatistics();
+
+        stats.setTotalTrades((int) totalTrades);
+        stats.setTotalProfit(FixedPointMoney.toBigDecimal(totalProfit, PRICE_SCALE));
+        stats.setTotalVolume(FixedPointMoney.toBigDecimal(volume, PRICE_SCALE));
+        stats.setWinningTrades((int) winningTrades);
+        stats.setLosingTrades((int) losingTrades);
+
+        if (totalTrades > 0) {
+            // Доля прибыльных с 4 знаками, в процентах
+            stats.setWinRate(FixedPointMoney.toBigDecimal(
+                    FixedPointMoney.ratio(winningTrades, totalTrades, WIN_RATE_SCALE) * 100, WIN_RATE_SCALE));
+            stats.setAvgProfit(FixedPointMoney.toBigDecimal(FixedPointMoney.divide(totalProfit, totalTrades), PRICE_SCALE));
+        } else {
+            stats.setWinRate(BigDecimal.ZERO);
+            stats.setAvgProfit(BigDecimal.ZERO);
+        }
+
+        stats.setMaxProfit(FixedPointMoney.toBigDecimal(maxProfit, PRICE_SCALE));
+        stats.setMaxLoss(FixedPointMoney.toBigDecimal(maxLoss, PRICE_SCALE));
+
+        return stats;
+    }
+}
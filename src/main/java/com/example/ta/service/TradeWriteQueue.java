@@ -0,0 +1,193 @@
+package com.example.ta.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Очередь записи в БД с единственным потоком-писателем.
+ * Операции выполняются по очереди в потоке trade-writer; операции, накопившиеся за время предыдущей фиксации,
+ * объединяются в одну транзакцию (групповая фиксация), и серия сохранений платит за один COMMIT.
+ * Если групповая транзакция откатывается, операции группы повторяются по одной — ошибка одной операции
+ * не отменяет остальные.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TradeWriteQueue {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Максимальное количество операций в одной транзакции
+     */
+    @Value("${trading.database.write-group-size:64}")
+    private int maxGroupSize;
+
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final WriteTask<Void> stopTask = new WriteTask<>(() -> null, () -> {
+    });
+
+    private TransactionTemplate transactionTemplate;
+    private Thread writerThread;
+    private volatile boolean stopped;
+
+    /**
+     * Операция записи; onRollback возвращает измененные операцией объекты в исходное состояние после отката
+     */
+    private static final class WriteTask<T> {
+
+        private final Supplier<T> work;
+        private final Runnable onRollback;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        WriteTask(Supplier<T> work, Runnable onRollback) {
+            this.work = work;
+            this.onRollback = onRollback;
+        }
+
+        void run() {
+            value = work.get();
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+
+        void rollback(Throwable error) {
+            value = null;
+            onRollback.run();
+            if (error != null) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        writerThread = new Thread(this::writeLoop, "trade-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Выполнить операцию записи в транзакции писателя и дождаться ее фиксации
+     */
+    public <T> T execute(Supplier<T> work) {
+        return execute(work, () -> {
+        });
+    }
+
+    /**
+     * Выполнить операцию записи и дождаться фиксации.
+     * onRollback вызывается, если транзакция с операцией откатилась (перед повтором операции или с ошибкой).
+     */
+    public <T> T execute(Supplier<T> work, Runnable onRollback) {
+        if (Thread.currentThread() == writerThread) {
+            // Запись из операции очереди участвует в текущей транзакции писателя
+            return work.get();
+        }
+        if (stopped) {
+            throw new IllegalStateException("Очередь записи в БД остановлена");
+        }
+
+        WriteTask<T> task = new WriteTask<>(work, onRollback);
+        queue.add(task);
+        try {
+            return task.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание записи в БД прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void executeWithoutResult(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void writeLoop() {
+        List<WriteTask<?>> group = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, maxGroupSize - 1);
+            stopping = group.remove(stopTask);
+
+            if (!group.isEmpty()) {
+                commit(group);
+            }
+            group.clear();
+        }
+
+        List<WriteTask<?>> rejected = new ArrayList<>();
+        queue.drainTo(rejected);
+        rejected.forEach(task -> task.result.completeExceptionally(
+                new IllegalStateException("Очередь записи в БД остановлена")));
+    }
+
+    private void commit(List<WriteTask<?>> group) {
+        if (group.size() > 1) {
+            long startTime = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(WriteTask::run));
+                group.forEach(WriteTask::complete);
+                log.debug("Групповая фиксация: {} операций записи за {} мс", group.size(),
+                        (System.nanoTime() - startTime) / 1_000_000);
+                return;
+            } catch (RuntimeException | Error e) {
+                log.warn("Групповая транзакция из {} операций откатилась, операции повторяются по одной: {}",
+                        group.size(), e.getMessage());
+                group.forEach(task -> task.rollback(null));
+            }
+        }
+
+        for (WriteTask<?> task : group) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> task.run());
+                task.complete();
+            } catch (RuntimeException | Error e) {
+                task.rollback(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Уже поставленные операции фиксируются до остановки
+        stopped = true;
+        queue.add(stopTask);
+        writerThread.join(SHUTDOWN_TIMEOUT_MS);
+    }
+}
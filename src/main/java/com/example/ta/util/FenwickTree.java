@@ -0,0 +1,61 @@
+package com.example.ta.util;
+
+/**
+ * Дерево Фенвика (binary indexed tree) над long: изменение элемента и сумма на отрезке за O(log n).
+ * Суммы проверяются на переполнение, как в FixedPointMoney.
+ */
+public final class FenwickTree {
+
+    private final long[] tree;
+
+    public FenwickTree(int size) {
+        this.tree = new long[size + 1];
+    }
+
+    /**
+     * Дерево по исходным значениям за O(n)
+     */
+    public static FenwickTree of(long[] values) {
+        FenwickTree fenwick = new FenwickTree(values.length);
+        long[] tree = fenwick.tree;
+        for (int i = 1; i <= values.length; i++) {
+            tree[i] = Math.addExact(tree[i], values[i - 1]);
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] = Math.addExact(tree[parent], tree[i]);
+            }
+        }
+        return fenwick;
+    }
+
+    public int size() {
+        return tree.length - 1;
+    }
+
+    /**
+     * Прибавить delta к элементу index
+     */
+    public void add(int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] = Math.addExact(tree[i], delta);
+        }
+    }
+
+    /**
+     * Сумма элементов [0, index)
+     */
+    public long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum = Math.addExact(sum, tree[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Сумма элементов [from, to)
+     */
+    public long rangeSum(int from, int to) {
+        return to <= from ? 0 : Math.subtractExact(prefixSum(to), prefixSum(from));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.ta.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежные значения с фиксированной точкой в виде масштабированного long.
+ * Значение x при масштабе s хранится как x * 10^s: цены и P/L — масштаб 2 (копейки/центы),
+ * объем в единицах актива — масштаб 8, как у колонок Trade.
+ * Арифметика не создает объектов и проверяет переполнение (ArithmeticException).
+ * BigDecimal используется только на границе — при чтении из сущностей и выдаче в UI/экспорт.
+ */
+public final class FixedPointMoney {
+
+    /**
+     * Масштаб цен, сумм и P/L
+     */
+    public static final int PRICE_SCALE = 2;
+
+    /**
+     * Масштаб количества единиц актива
+     */
+    public static final int VOLUME_SCALE = 8;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private FixedPointMoney() {
+    }
+
+    /**
+     * Перевести BigDecimal в масштабированный long (округление HALF_UP)
+     */
+    public static long fromBigDecimal(BigDecimal value, int scale) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Перевести масштабированный long в BigDecimal (для UI и экспорта)
+     */
+    public static BigDecimal toBigDecimal(long value, int scale) {
+        return BigDecimal.valueOf(value, scale);
+    }
+
+    /**
+     * Приближенное значение для графиков
+     */
+    public static double toDouble(long value, int scale) {
+        return (double) value / POWERS_OF_TEN[scale];
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Произведение значений с масштабами scaleA и scaleB, приведенное к resultScale (HALF_UP).
+     * Например, цена (2) × объем (8) → сумма (2).
+     */
+    public static long multiply(long a, int scaleA, long b, int scaleB, int resultScale) {
+        int productScale = scaleA + scaleB;
+        long product;
+        try {
+            product = Math.multiplyExact(a, b);
+        } catch (ArithmeticException overflow) {
+            // Промежуточное произведение не помещается в long, хотя результат после округления может поместиться
+            return BigDecimal.valueOf(a, scaleA).multiply(BigDecimal.valueOf(b, scaleB))
+                    .setScale(resultScale, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValueExact();
+        }
+
+        if (productScale >= resultScale) {
+            return divideRoundHalfUp(product, POWERS_OF_TEN[productScale - resultScale]);
+        }
+        return Math.multiplyExact(product, POWERS_OF_TEN[resultScale - productScale]);
+    }
+
+    /**
+     * Деление значения на целое (например, среднее по количеству сделок), масштаб сохраняется
+     */
+    public static long divide(long value, long divisor) {
+        return divideRoundHalfUp(value, divisor);
+    }
+
+    /**
+     * Отношение numerator / denominator с масштабом scale (HALF_UP)
+     */
+    public static long ratio(long numerator, long denominator, int scale) {
+        return divideRoundHalfUp(Math.multiplyExact(numerator, POWERS_OF_TEN[scale]), denominator);
+    }
+
+    /**
+     * Целочисленное деление с округлением половины от нуля — как RoundingMode.HALF_UP у BigDecimal
+     */
+    private static long divideRoundHalfUp(long dividend, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Деление на ноль");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // |remainder| * 2 >= |divisor| без переполнения
+        if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            return (dividend < 0) == (divisor < 0) ? Math.addExact(quotient, 1) : Math.subtractExact(quotient, 1);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ta.util;
+
+import java.util.Arrays;
+
+/**
+ * Дерево отрезков для минимума и максимума на отрезке с изменением элемента за O(log n).
+ * Пустой элемент задается парой (Long.MAX_VALUE, Long.MIN_VALUE) и не влияет на результат.
+ */
+public final class MinMaxSegmentTree {
+
+    public static final long NO_MIN = Long.MAX_VALUE;
+    public static final long NO_MAX = Long.MIN_VALUE;
+
+    private final int size;
+    private final long[] min;
+    private final long[] max;
+
+    public MinMaxSegmentTree(int size) {
+        this.size = size;
+        this.min = new long[2 * size];
+        this.max = new long[2 * size];
+        Arrays.fill(min, NO_MIN);
+        Arrays.fill(max, NO_MAX);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Задать минимум и максимум элемента index
+     */
+    public void set(int index, long minValue, long maxValue) {
+        int node = index + size;
+        min[node] = minValue;
+        max[node] = maxValue;
+        for (node >>= 1; node > 0; node >>= 1) {
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Минимум на [from, to) или NO_MIN, если все элементы пусты
+     */
+    public long min(int from, int to) {
+        long result = NO_MIN;
+        for (int left = from + size, right = to + size; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                result = Math.min(result, min[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = Math.min(result, min[--right]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Максимум на [from, to) или NO_MAX, если все элементы пусты
+     */
+    public long max(int from, int to) {
+        long result = NO_MAX;
+        for (int left = from + size, right = to + size; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                result = Math.max(result, max[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = Math.max(result, max[--right]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ta.util;
+
+import java.util.Arrays;
+
+/**
+ * Прореживание упорядоченного по x ряда до ширины графика в пикселях.
+ * Диапазон x делится на корзины (по одной на пиксель), в каждой остаются первая, минимальная,
+ * максимальная и последняя точки — линия выглядит так же, как по всем точкам, и истинные экстремумы не теряются.
+ */
+public final class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Первый индекс с x[i] >= value (x упорядочен по возрастанию)
+     */
+    public static int lowerBound(double[] x, double value) {
+        int low = 0;
+        int high = x.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (x[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Индексы точек диапазона [from, to), оставляемых при прореживании до bucketCount корзин, по возрастанию
+     */
+    public static int[] minMaxIndexes(double[] x, double[] y, int from, int to, int bucketCount) {
+        int count = to - from;
+        if (count <= 0) {
+            return new int[0];
+        }
+        if (bucketCount <= 0 || count <= bucketCount * 4) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        double minX = x[from];
+        double span = x[to - 1] - minX;
+        double bucketsPerUnit = span > 0 ? bucketCount / span : 0;
+
+        int[] result = new int[bucketCount * 4 + 4];
+        int size = 0;
+
+        int bucket = -1;
+        int first = -1;
+        int min = -1;
+        int max = -1;
+        int last = -1;
+        for (int i = from; i < to; i++) {
+            int pointBucket = Math.min(bucketCount - 1, (int) ((x[i] - minX) * bucketsPerUnit));
+            if (pointBucket != bucket) {
+                if (bucket >= 0) {
+                    size = appendBucket(result, size, first, min, max, last);
+                }
+                bucket = pointBucket;
+                first = i;
+                min = i;
+                max = i;
+            } else {
+                if (y[i] < y[min]) {
+                    min = i;
+                }
+                if (y[i] > y[max]) {
+                    max = i;
+                }
+            }
+            last = i;
+        }
+        size = appendBucket(result, size, first, min, max, last);
+
+        return Arrays.copyOf(result, size);
+    }
+
+    // Точки корзины в порядке индексов, без повторов
+    private static int appendBucket(int[] result, int size, int first, int min, int max, int last) {
+        int low = Math.min(min, max);
+        int high = Math.max(min, max);
+        size = appendDistinct(result, size, first);
+        size = appendDistinct(result, size, low);
+        size = appendDistinct(result, size, high);
+        return appendDistinct(result, size, last);
+    }
+
+    private static int appendDistinct(int[] result, int size, int index) {
+        if (size > 0 && result[size - 1] == index) {
+            return size;
+        }
+        result[size] = index;
+        return size + 1;
+    }
+}
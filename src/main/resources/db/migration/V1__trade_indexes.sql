@@ -0,0 +1,21 @@
+-- Индексы под запросы TradeRepository.
+-- id — INTEGER PRIMARY KEY (псевдоним rowid) и неявно дописывается в конец каждого индекса,
+-- поэтому индекс по trade_date обслуживает и сортировку trade_date, id (keyset-пагинация).
+
+-- Статистика по закрытым сделкам, выборки по статусу и статусу за период
+CREATE INDEX IF NOT EXISTS idx_trades_status_trade_date ON trades (status, trade_date);
+
+-- Список сделок (trade_date DESC, created_at DESC) и выборки за период
+CREATE INDEX IF NOT EXISTS idx_trades_trade_date_created_at ON trades (trade_date, created_at);
+
+-- Keyset-пагинация (trade_date DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_trades_trade_date ON trades (trade_date);
+
+-- Поиск по активу
+CREATE INDEX IF NOT EXISTS idx_trades_asset_name ON trades (asset_name);
+
+-- Прибыльные/убыточные сделки и агрегаты по P/L за все время
+CREATE INDEX IF NOT EXISTS idx_trades_profit_loss ON trades (profit_loss);
+
+-- Общий объем за все время
+CREATE INDEX IF NOT EXISTS idx_trades_volume_in_currency ON trades (volume_in_currency);
@@ -0,0 +1,34 @@
+-- Полнотекстовый индекс FTS5 по текстовым полям сделки.
+-- external content: текст хранится только в trades, индекс синхронизируется триггерами
+-- в той же транзакции, что и изменение сделки.
+CREATE VIRTUAL TABLE IF NOT EXISTS trades_fts USING fts5(
+    asset_name,
+    entry_reason,
+    exit_reason,
+    comment,
+    content = 'trades',
+    content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS trades_fts_after_insert AFTER INSERT ON trades BEGIN
+    INSERT INTO trades_fts (rowid, asset_name, entry_reason, exit_reason, comment)
+    VALUES (new.id, new.asset_name, new.entry_reason, new.exit_reason, new.comment);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trades_fts_after_delete AFTER DELETE ON trades BEGIN
+    INSERT INTO trades_fts (trades_fts, rowid, asset_name, entry_reason, exit_reason, comment)
+    VALUES ('delete', old.id, old.asset_name, old.entry_reason, old.exit_reason, old.comment);
+END;
+
+CREATE TRIGGER IF NOT EXISTS trades_fts_after_update
+AFTER UPDATE OF asset_name, entry_reason, exit_reason, comment ON trades BEGIN
+    INSERT INTO trades_fts (trades_fts, rowid, asset_name, entry_reason, exit_reason, comment)
+    VALUES ('delete', old.id, old.asset_name, old.entry_reason, old.exit_reason, old.comment);
+    INSERT INTO trades_fts (rowid, asset_name, entry_reason, exit_reason, comment)
+    VALUES (new.id, new.asset_name, new.entry_reason, new.exit_reason, new.comment);
+END;
+
+-- Индексация уже существующих сделок
+INSERT INTO trades_fts (trades_fts) VALUES ('rebuild');
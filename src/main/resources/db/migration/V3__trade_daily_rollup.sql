@@ -0,0 +1,17 @@
+-- Дневные агрегаты закрытых сделок (таблицу создает Hibernate по сущности TradeDailyRollup).
+-- Дальше строки поддерживает DailyRollupService при каждом сохранении/удалении сделки.
+DELETE FROM trade_daily_rollup;
+
+INSERT INTO trade_daily_rollup (trade_date, trade_count, winning_trades, losing_trades,
+                                total_profit, closed_volume, max_profit, min_profit)
+SELECT trade_date,
+       COUNT(profit_loss),
+       COALESCE(SUM(CASE WHEN profit_loss > 0 THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN profit_loss < 0 THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(profit_loss), 0),
+       COALESCE(SUM(entry_point * volume), 0),
+       MAX(profit_loss),
+       MIN(profit_loss)
+FROM trades
+WHERE status = 'CLOSED'
+GROUP BY trade_date;
@@ -0,0 +1,86 @@
+package com.example.ta.config;
+
+import com.example.ta.config.QueryPlanDiagnostics.CapturingStatementInspector;
+import com.example.ta.config.QueryPlanDiagnostics.QueryPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка планов на SQLite в памяти: запрос по индексу проходит, полный просмотр таблицы попадает в нарушения,
+ * а перехватчик не прерывает выполнение запроса исключением
+ */
+class QueryPlanDiagnosticsTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private QueryPlanDiagnostics diagnostics;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE trades (id INTEGER PRIMARY KEY, asset_name TEXT, status TEXT, trade_date DATE)");
+        jdbcTemplate.execute("CREATE INDEX idx_trades_trade_date ON trades (trade_date)");
+        jdbcTemplate.update("INSERT INTO trades (asset_name, status, trade_date) VALUES ('BTC', 'CLOSED', '2024-01-01')");
+
+        // Репозиторий, транзакции и EntityManager нужны только для захвата SQL через Hibernate
+        diagnostics = new QueryPlanDiagnostics(null, jdbcTemplate, null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void reportsOnlyQueriesWithoutIndex() {
+        QueryPlan indexed = diagnostics.explain("findByTradeDateBetween",
+                "SELECT * FROM trades WHERE trade_date BETWEEN ? AND ?");
+        QueryPlan fullScan = diagnostics.explain("findByStatus",
+                "SELECT * FROM trades WHERE status = ?");
+
+        List<QueryPlan> violations = QueryPlanDiagnostics.findFullScans(List.of(indexed, fullScan));
+
+        assertEquals(List.of("findByStatus"), violations.stream().map(QueryPlan::method).toList());
+    }
+
+    @Test
+    void substringSearchIsNotReported() {
+        QueryPlan search = diagnostics.explain("findByAssetNameContainingIgnoreCase",
+                "SELECT * FROM trades WHERE lower(asset_name) LIKE ?");
+
+        assertTrue(search.isFullScan());
+        assertTrue(QueryPlanDiagnostics.findFullScans(List.of(search)).isEmpty());
+    }
+
+    @Test
+    void capturedQueryRunsAsEmptySelectWithoutException() {
+        CapturingStatementInspector inspector = new CapturingStatementInspector();
+        String sql = "SELECT id, asset_name FROM trades WHERE status = 'CLOSED'";
+
+        List<String> captured = new ArrayList<>();
+        CapturingStatementInspector.CAPTURED.set(captured);
+        String executed;
+        try {
+            executed = assertDoesNotThrow(() -> inspector.inspect(sql));
+        } finally {
+            CapturingStatementInspector.CAPTURED.remove();
+        }
+
+        assertEquals(List.of(sql), captured);
+        assertTrue(jdbcTemplate.queryForList(executed).isEmpty());
+        assertEquals(1, jdbcTemplate.queryForList(sql).size());
+        // Вне режима захвата запрос не изменяется
+        assertEquals(sql, inspector.inspect(sql));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.ta.controller;
+
+import com.example.ta.domain.Trade;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Окна сделок загружаются в фоне: обращение к незагруженному окну не блокирует поток и возвращает заглушку
+ */
+class PagedTradeListTest {
+
+    private static final int SIZE = 25;
+    private static final int PAGE_SIZE = 10;
+
+    // Задачи фоновой загрузки и возврата в FX-поток выполняются вручную
+    private final Queue<Runnable> pendingTasks = new ArrayDeque<>();
+    private final Executor manualExecutor = pendingTasks::add;
+
+    private final List<Trade> trades = LongStream.rangeClosed(1, SIZE)
+            .mapToObj(id -> trade(id, LocalDate.of(2024, 1, 1).minusDays(id)))
+            .toList();
+    private final List<String> sourceCalls = new ArrayList<>();
+
+    private PagedTradeList list;
+
+    @BeforeEach
+    void setUp() {
+        PagedTradeList.PageSource source = new PagedTradeList.PageSource() {
+            @Override
+            public List<Trade> loadAfter(LocalDate tradeDate, Long id, int limit) {
+                sourceCalls.add("after:" + id);
+                int from = Math.toIntExact(id);
+                return trades.subList(from, Math.min(SIZE, from + limit));
+            }
+
+            @Override
+            public List<Trade> loadPage(int pageIndex, int pageSize) {
+                sourceCalls.add("page:" + pageIndex);
+                int from = pageIndex * pageSize;
+                return trades.subList(from, Math.min(SIZE, from + pageSize));
+            }
+        };
+        list = new PagedTradeList(source, SIZE, PAGE_SIZE, 30, manualExecutor, manualExecutor);
+    }
+
+    @Test
+    void returnsPlaceholderUntilPageIsLoaded() {
+        List<Integer> replacedRows = new ArrayList<>();
+        list.addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                for (int index = change.getFrom(); index < change.getTo(); index++) {
+                    replacedRows.add(index);
+                }
+            }
+        });
+
+        assertNull(list.get(3));
+        assertTrue(sourceCalls.isEmpty(), "окно не должно читаться в вызывающем потоке");
+
+        runPendingTasks();
+
+        assertEquals(4L, list.get(3).getId());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), replacedRows);
+    }
+
+    @Test
+    void prefetchesNextPageByKeyInSecondHalfOfPage() {
+        list.get(0);
+        runPendingTasks();
+
+        list.get(7);
+        runPendingTasks();
+
+        assertTrue(list.isPageResident(1));
+        assertEquals(List.of("page:0", "after:10"), sourceCalls);
+        assertEquals(11L, list.get(10).getId());
+    }
+
+    @Test
+    void requestsPageOnlyOnceWhileLoading() {
+        list.get(0);
+        list.get(1);
+        list.get(2);
+        runPendingTasks();
+
+        assertEquals(List.of("page:0"), sourceCalls);
+    }
+
+    @Test
+    void retriesPageAfterFailedLoad() {
+        PagedTradeList failing = new PagedTradeList(new PagedTradeList.PageSource() {
+            private boolean failed;
+
+            @Override
+            public List<Trade> loadAfter(LocalDate tradeDate, Long id, int limit) {
+                return List.of();
+            }
+
+            @Override
+            public List<Trade> loadPage(int pageIndex, int pageSize) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("database is locked");
+                }
+                return trades.subList(0, pageSize);
+            }
+        }, SIZE, PAGE_SIZE, 30, manualExecutor, manualExecutor);
+
+        assertNull(failing.get(0));
+        runPendingTasks();
+        assertFalse(failing.isPageResident(0));
+
+        assertNull(failing.get(0));
+        runPendingTasks();
+        assertEquals(1L, failing.get(0).getId());
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static Trade trade(long id, LocalDate tradeDate) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setTradeDate(tradeDate);
+        return trade;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ta.controller;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import com.example.ta.service.TradeService;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Форма сделки хранится в кэше представлений: повторное редактирование не должно оставлять значения предыдущей сделки
+ */
+@ExtendWith(ApplicationExtension.class)
+class TradeFormControllerTest {
+
+    private TradeFormController controller;
+
+    @Start
+    void start(Stage stage) throws IOException {
+        controller = new TradeFormController(mock(TradeService.class), mock(ApplicationEventPublisher.class));
+
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/ta/trade-form-view.fxml"));
+        loader.setControllerFactory(type -> controller);
+        stage.setScene(new Scene(loader.load()));
+        stage.show();
+    }
+
+    @Test
+    void editingSecondTradeReplacesAllFieldsOfFirst(FxRobot robot) {
+        Trade closedTrade = trade(1L, "AAPL", TradeStatus.CLOSED, LocalDate.of(2024, 3, 4));
+        closedTrade.setExitPoint(new BigDecimal("160.5"));
+        closedTrade.setProfitLoss(new BigDecimal("102.5"));
+        closedTrade.setEntryTime(LocalDateTime.of(2024, 3, 4, 10, 15));
+        closedTrade.setExitTime(LocalDateTime.of(2024, 3, 5, 16, 45));
+        closedTrade.setComment("Первая сделка");
+
+        Trade openTrade = trade(2L, "MSFT", TradeStatus.OPEN, LocalDate.of(2024, 6, 10));
+
+        robot.interact(() -> controller.setEditMode(closedTrade));
+        robot.interact(() -> controller.setEditMode(openTrade));
+        WaitForAsyncUtils.waitForFxEvents();
+
+        assertEquals("MSFT", textField(robot, "#assetNameField").getText());
+        assertEquals("400", textField(robot, "#entryPointField").getText());
+        assertEquals("", textField(robot, "#exitPointField").getText());
+        assertEquals("2", textField(robot, "#volumeField").getText());
+        assertEquals("", textField(robot, "#profitLossField").getText());
+        assertEquals("", textField(robot, "#entryTimeField").getText());
+        assertEquals("", textField(robot, "#exitTimeField").getText());
+        assertEquals("", robot.lookup("#notesArea").queryAs(TextArea.class).getText());
+        assertEquals(LocalDate.of(2024, 6, 10), robot.lookup("#tradeDatePicker").queryAs(DatePicker.class).getValue());
+        assertEquals(TradeStatus.OPEN, robot.lookup("#statusComboBox").queryAs(ComboBox.class).getValue());
+        assertEquals("", textField(robot, "#exitTimeField").getStyle());
+    }
+
+    private static Trade trade(Long id, String assetName, TradeStatus status, LocalDate tradeDate) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setAssetName(assetName);
+        trade.setStatus(status);
+        trade.setTradeType(TradeType.LONG);
+        trade.setCurrency(Currency.USD);
+        trade.setTradeDate(tradeDate);
+        trade.setEntryPoint(new BigDecimal("400"));
+        trade.setVolume(new BigDecimal("2"));
+        return trade;
+    }
+
+    private static TextField textField(FxRobot robot, String query) {
+        return robot.lookup(query).queryAs(TextField.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.AssetBreakdown;
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import com.example.ta.repository.TradeAnalyticsRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Слияние частичных итогов по активам: разбиение на любое число частей дает тот же результат,
+ * что последовательный проход, включая просадку, пересекающую границу частей
+ */
+class AssetBreakdownCalculatorTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void drawdownAcrossChunkBoundaryIsMerged() {
+        // Пик +100 в первой части, спад до -50 во второй: просадка 150
+        TradeColumns columns = columns(
+                closed(1, "BTC", "100.00"),
+                closed(2, "BTC", "-80.00"),
+                closed(3, "BTC", "-70.00"),
+                closed(4, "BTC", "30.00"));
+
+        for (int chunkCount = 1; chunkCount <= 4; chunkCount++) {
+            AssetBreakdown btc = AssetBreakdownCalculator.calculate(columns, 0, columns.size(), chunkCount).getFirst();
+
+            assertEquals(new BigDecimal("150.00"), btc.getMaxDrawdown(), "частей: " + chunkCount);
+            assertEquals(new BigDecimal("-20.00"), btc.getTotalProfit());
+            assertEquals(new BigDecimal("100.00"), btc.getBestTrade());
+            assertEquals(new BigDecimal("-80.00"), btc.getWorstTrade());
+            assertEquals(4, btc.getTotalTrades());
+            assertEquals(2, btc.getWinningTrades());
+            assertEquals(2, btc.getLosingTrades());
+        }
+    }
+
+    @Test
+    void anyChunkCountMatchesSequentialPass() {
+        Random random = new Random(3);
+        TradeAnalyticsRow[] rows = new TradeAnalyticsRow[1_000];
+        for (int i = 0; i < rows.length; i++) {
+            String asset = "A" + random.nextInt(7);
+            TradeStatus status = random.nextInt(8) == 0 ? TradeStatus.OPEN : TradeStatus.CLOSED;
+            BigDecimal profitLoss = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(20_001) - 10_000, 2);
+            rows[i] = row(i + 1, START.plusDays(i / 10), status, asset, profitLoss,
+                    BigDecimal.valueOf(random.nextInt(100_000), 2));
+        }
+        TradeColumns columns = columns(rows);
+
+        List<AssetBreakdown> sequential = AssetBreakdownCalculator.calculate(columns, 0, columns.size(), 1);
+        for (int chunkCount : new int[]{2, 3, 7, 16, 999}) {
+            assertSameBreakdown(sequential, AssetBreakdownCalculator.calculate(columns, 0, columns.size(), chunkCount));
+        }
+
+        int from = columns.fromIndex(START.plusDays(20));
+        int to = columns.toIndex(START.plusDays(60));
+        assertSameBreakdown(AssetBreakdownCalculator.calculate(columns, from, to, 1),
+                AssetBreakdownCalculator.calculate(columns, from, to, 5));
+    }
+
+    @Test
+    void openTradesAreIgnoredAndClosedWithoutProfitLossAddOnlyVolume() {
+        TradeColumns columns = columns(
+                row(1, START, TradeStatus.OPEN, "ETH", null, new BigDecimal("500.00")),
+                row(2, START, TradeStatus.CLOSED, "ETH", null, new BigDecimal("200.00")),
+                closed(3, "ETH", "10.00"));
+
+        AssetBreakdown eth = AssetBreakdownCalculator.calculate(columns, 0, columns.size(), 2).getFirst();
+
+        assertEquals(1, eth.getTotalTrades());
+        assertEquals(new BigDecimal("300.00"), eth.getTotalVolume());
+        assertEquals(new BigDecimal("10.00"), eth.getAvgProfit());
+    }
+
+    @Test
+    void resultIsSortedByTotalProfitDescending() {
+        TradeColumns columns = columns(
+                closed(1, "LOSS", "-5.00"),
+                closed(2, "WIN", "50.00"),
+                closed(3, "FLAT", "0.00"));
+
+        List<String> assets = AssetBreakdownCalculator.calculate(columns, 0, columns.size(), 2).stream()
+                .map(AssetBreakdown::getAssetName)
+                .toList();
+
+        assertEquals(List.of("WIN", "FLAT", "LOSS"), assets);
+    }
+
+    @Test
+    void emptyRangeHasNoAssets() {
+        TradeColumns columns = columns(closed(1, "BTC", "1.00"));
+
+        assertTrue(AssetBreakdownCalculator.calculate(columns, 0, 0, 3).isEmpty());
+    }
+
+    private static void assertSameBreakdown(List<AssetBreakdown> expected, List<AssetBreakdown> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            AssetBreakdown e = expected.get(i);
+            AssetBreakdown a = actual.get(i);
+            assertEquals(e.getAssetName(), a.getAssetName());
+            assertEquals(e.getTotalTrades(), a.getTotalTrades());
+            assertEquals(e.getWinningTrades(), a.getWinningTrades());
+            assertEquals(e.getLosingTrades(), a.getLosingTrades());
+            assertEquals(e.getTotalProfit(), a.getTotalProfit());
+            assertEquals(e.getTotalVolume(), a.getTotalVolume());
+            assertEquals(e.getBestTrade(), a.getBestTrade());
+            assertEquals(e.getWorstTrade(), a.getWorstTrade());
+            assertEquals(e.getMaxDrawdown(), a.getMaxDrawdown(), e.getAssetName());
+            assertEquals(e.getWinRate(), a.getWinRate());
+        }
+    }
+
+    private static TradeColumns columns(TradeAnalyticsRow... rows) {
+        TradeColumns.Builder builder = TradeColumns.builder();
+        for (TradeAnalyticsRow row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static TradeAnalyticsRow closed(long id, String asset, String profitLoss) {
+        return row(id, START, TradeStatus.CLOSED, asset, new BigDecimal(profitLoss), new BigDecimal("100.00"));
+    }
+
+    private static TradeAnalyticsRow row(long id, LocalDate date, TradeStatus status, String asset,
+                                         BigDecimal profitLoss, BigDecimal volume) {
+        return new TradeAnalyticsRow(id, date, date.atStartOfDay().plusMinutes(id), status, TradeType.LONG,
+                Currency.USD, asset, BigDecimal.ONE, BigDecimal.ONE, profitLoss, volume);
+    }
+}
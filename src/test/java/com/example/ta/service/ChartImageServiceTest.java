@@ -0,0 +1,30 @@
+package com.example.ta.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Имена миниатюр: изображения с одинаковым именем и разными расширениями не должны делить одну миниатюру
+ */
+class ChartImageServiceTest {
+
+    @Test
+    void thumbnailKeepsOriginalExtension() {
+        Path images = Path.of("images").toAbsolutePath();
+
+        assertEquals(images.resolve("thumbnails").resolve("chart.jpg.png"),
+                ChartImageService.thumbnailPath(images.resolve("chart.jpg")));
+    }
+
+    @Test
+    void sameBaseNameWithDifferentExtensionsDoesNotCollide() {
+        Path images = Path.of("images").toAbsolutePath();
+
+        assertNotEquals(ChartImageService.thumbnailPath(images.resolve("chart.jpg")),
+                ChartImageService.thumbnailPath(images.resolve("chart.png")));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.PerformanceMetrics;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import com.example.ta.repository.TradeAnalyticsRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Показатели эффективности сверяются с рассчитанными вручную по небольшому журналу сделок:
+ * просадка и ее длительность, серии, средние, ожидание, дневные коэффициенты Шарпа и Сортино
+ */
+class PerformanceMetricsCalculatorTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void matchesHandComputedJournal() {
+        // День   P/L сделок       P/L дня   Капитал   Пик (день)
+        // 1      +100, -30        +70       70        100 (1), просадка 30 = 30%
+        // 2      +50, +10         +60       130       130 (2), просадка закрыта через 1 день
+        // 3      0                0         130       130 (3)
+        // 4      +20              +20       150       150 (4)
+        // 5      -60              -60       90        просадка 60
+        // 6      без P/L          —
+        // 8      -40              -40       50        просадка 100 = 66.67%
+        // 9      +30              +30       80        просадка открыта до конца периода: 9 − 4 = 5 дней
+        TradeColumns columns = columns(
+                closed(1, 0, "100.00"),
+                closed(2, 0, "-30.00"),
+                closed(3, 1, "50.00"),
+                closed(4, 1, "10.00"),
+                closed(5, 2, "0.00"),
+                row(6, 2, TradeStatus.OPEN, null),
+                closed(7, 3, "20.00"),
+                closed(8, 4, "-60.00"),
+                row(9, 5, TradeStatus.CLOSED, null),
+                closed(10, 7, "-40.00"),
+                closed(11, 8, "30.00"));
+
+        PerformanceMetrics metrics = PerformanceMetricsCalculator.calculate(columns, 0, columns.size());
+
+        assertEquals(new BigDecimal("100.00"), metrics.getMaxDrawdown());
+        assertEquals(new BigDecimal("66.67"), metrics.getMaxDrawdownPercent());
+        assertEquals(5, metrics.getMaxDrawdownDurationDays());
+
+        // Нулевая сделка прерывает серию +50, +10 перед +20
+        assertEquals(2, metrics.getMaxWinStreak());
+        assertEquals(2, metrics.getMaxLossStreak());
+
+        assertEquals(new BigDecimal("210.00"), metrics.getGrossProfit());
+        assertEquals(new BigDecimal("130.00"), metrics.getGrossLoss());
+        assertEquals(new BigDecimal("1.62"), metrics.getProfitFactor());
+        assertEquals(new BigDecimal("42.00"), metrics.getAvgWin());
+        assertEquals(new BigDecimal("43.33"), metrics.getAvgLoss());
+        assertEquals(new BigDecimal("0.97"), metrics.getPayoffRatio());
+        // (210 − 130) / 9 сделок, нулевая сделка входит в их число
+        assertEquals(new BigDecimal("8.89"), metrics.getExpectancy());
+
+        // Дневной P/L: 70, 60, 0, 20, −60, −40, 30; среднее 80/7, выборочное отклонение √(14085.71/6),
+        // нижнее отклонение √((60² + 40²)/7), годовой множитель √252
+        assertEquals(7, metrics.getTradingDays());
+        assertEquals(new BigDecimal("3.74"), metrics.getSharpeRatio());
+        assertEquals(new BigDecimal("6.66"), metrics.getSortinoRatio());
+    }
+
+    @Test
+    void singleTradingDayHasNoRatios() {
+        TradeColumns columns = columns(
+                closed(1, 0, "100.00"),
+                closed(2, 0, "-40.00"));
+
+        PerformanceMetrics metrics = PerformanceMetricsCalculator.calculate(columns, 0, columns.size());
+
+        assertEquals(1, metrics.getTradingDays());
+        assertNull(metrics.getSharpeRatio());
+        assertNull(metrics.getSortinoRatio());
+        // Просадка внутри дня открыта до конца периода, длительность 0 дней
+        assertEquals(new BigDecimal("40.00"), metrics.getMaxDrawdown());
+        assertEquals(new BigDecimal("40.00"), metrics.getMaxDrawdownPercent());
+        assertEquals(0, metrics.getMaxDrawdownDurationDays());
+        assertEquals(new BigDecimal("2.50"), metrics.getPayoffRatio());
+    }
+
+    @Test
+    void lossFromStartHasNoDrawdownPercentAndRangeLimitsTrades() {
+        TradeColumns columns = columns(
+                closed(1, 0, "-10.00"),
+                closed(2, 1, "-20.00"),
+                closed(3, 2, "50.00"));
+
+        PerformanceMetrics fromStart = PerformanceMetricsCalculator.calculate(columns, 0, 2);
+
+        // Пик равен нулю — процент просадки не определен
+        assertEquals(new BigDecimal("30.00"), fromStart.getMaxDrawdown());
+        assertNull(fromStart.getMaxDrawdownPercent());
+        assertEquals(1, fromStart.getMaxDrawdownDurationDays());
+        assertEquals(new BigDecimal("0.00"), fromStart.getProfitFactor());
+        assertNull(fromStart.getPayoffRatio());
+        assertEquals(new BigDecimal("-15.00"), fromStart.getExpectancy());
+
+        PerformanceMetrics empty = PerformanceMetricsCalculator.calculate(columns, 1, 1);
+        assertEquals(0, empty.getTradingDays());
+        assertEquals(new BigDecimal("0.00"), empty.getExpectancy());
+        assertNull(empty.getSharpeRatio());
+    }
+
+    private static TradeColumns columns(TradeAnalyticsRow... rows) {
+        TradeColumns.Builder builder = TradeColumns.builder();
+        for (TradeAnalyticsRow row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static TradeAnalyticsRow closed(long id, int day, String profitLoss) {
+        return row(id, day, TradeStatus.CLOSED, new BigDecimal(profitLoss));
+    }
+
+    private static TradeAnalyticsRow row(long id, int day, TradeStatus status, BigDecimal profitLoss) {
+        LocalDate date = START.plusDays(day);
+        return new TradeAnalyticsRow(id, date, date.atStartOfDay().plusMinutes(id), status, TradeType.LONG,
+                Currency.USD, "BTC", BigDecimal.ONE, BigDecimal.ONE, profitLoss, new BigDecimal("100.00"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Trade;
+import com.example.ta.events.TradeDataChangedEvent.ChangeType;
+import com.example.ta.events.TradeDataChangedEvent.TradeChange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Объединение изменений одной сделки за окно публикации
+ */
+class TradeChangePublisherTest {
+
+    @Test
+    void keepsOrderOfFirstChangePerTrade() {
+        Trade first = trade(1, "10");
+        Trade second = trade(2, "20");
+
+        List<TradeChange> merged = TradeChangePublisher.coalesce(List.of(
+                TradeChange.created(first),
+                TradeChange.deleted(second),
+                TradeChange.updated(first, trade(1, "11"))));
+
+        assertEquals(List.of(1L, 2L), merged.stream().map(TradeChange::tradeId).toList());
+    }
+
+    @Test
+    void createdThenUpdatedStaysCreatedWithLatestState() {
+        Trade created = trade(1, "10");
+        Trade updated = trade(1, "12");
+
+        TradeChange merged = single(TradeChangePublisher.coalesce(List.of(
+                TradeChange.created(created),
+                TradeChange.updated(created, updated))));
+
+        assertEquals(ChangeType.CREATED, merged.type());
+        assertNull(merged.before());
+        assertSame(updated, merged.after());
+    }
+
+    @Test
+    void createdThenDeletedCancelsOut() {
+        Trade created = trade(1, "10");
+
+        assertTrue(TradeChangePublisher.coalesce(List.of(
+                TradeChange.created(created),
+                TradeChange.deleted(created))).isEmpty());
+    }
+
+    @Test
+    void updatesKeepFirstBeforeAndLastAfter() {
+        Trade original = trade(1, "10");
+        Trade middle = trade(1, "11");
+        Trade latest = trade(1, "12");
+
+        TradeChange merged = single(TradeChangePublisher.coalesce(List.of(
+                TradeChange.updated(original, middle),
+                TradeChange.updated(middle, latest))));
+
+        assertEquals(ChangeType.UPDATED, merged.type());
+        assertSame(original, merged.before());
+        assertSame(latest, merged.after());
+    }
+
+    @Test
+    void updatedThenDeletedIsDeletionOfOriginal() {
+        Trade original = trade(1, "10");
+        Trade updated = trade(1, "11");
+
+        TradeChange merged = single(TradeChangePublisher.coalesce(List.of(
+                TradeChange.updated(original, updated),
+                TradeChange.deleted(updated))));
+
+        assertEquals(ChangeType.DELETED, merged.type());
+        assertSame(original, merged.before());
+        assertNull(merged.after());
+    }
+
+    @Test
+    void deletedThenCreatedWithReusedIdIsUpdate() {
+        Trade deleted = trade(1, "10");
+        Trade created = trade(1, "30");
+
+        TradeChange merged = single(TradeChangePublisher.coalesce(List.of(
+                TradeChange.deleted(deleted),
+                TradeChange.created(created))));
+
+        assertEquals(ChangeType.UPDATED, merged.type());
+        assertSame(deleted, merged.before());
+        assertSame(created, merged.after());
+    }
+
+    private static TradeChange single(List<TradeChange> changes) {
+        assertEquals(1, changes.size());
+        return changes.getFirst();
+    }
+
+    private static Trade trade(long id, String entryPoint) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setEntryPoint(new BigDecimal(entryPoint));
+        return trade;
+    }
+}
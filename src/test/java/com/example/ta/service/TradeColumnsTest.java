@@ -0,0 +1,150 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import com.example.ta.events.TradeDataChangedEvent;
+import com.example.ta.events.TradeDataChangedEvent.TradeChange;
+import com.example.ta.repository.TradeAnalyticsRow;
+import com.example.ta.repository.TradeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Применение изменений к колоночному снимку: удаление по id, вставка в порядке trade_date, id
+ * и перенос сделки на другую дату без перечитывания БД
+ */
+class TradeColumnsTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 3, 2);
+    private static final LocalDate DAY_3 = LocalDate.of(2024, 3, 3);
+    private static final LocalDate DAY_4 = LocalDate.of(2024, 3, 4);
+
+    @Test
+    void removesRowsById() {
+        TradeColumns columns = columns(
+                row(1, DAY_1, "ETH", "10.00"),
+                row(2, DAY_1, "BTC", "-5.00"),
+                row(3, DAY_2, "BTC", "7.50"),
+                row(4, DAY_3, "ETH", "1.00"));
+
+        TradeColumns changed = columns.withChanges(new long[]{4, 2, 99}, List.of());
+
+        assertArrayEquals(new long[]{1, 3}, ids(changed));
+        assertEquals("ETH", changed.assetName(0));
+        assertEquals("BTC", changed.assetName(1));
+        assertEquals(750, changed.profitLoss(1));
+        // Исходный снимок не изменяется
+        assertArrayEquals(new long[]{1, 2, 3, 4}, ids(columns));
+    }
+
+    @Test
+    void insertsRowsInDateAndIdOrder() {
+        TradeColumns columns = columns(
+                row(1, DAY_1, "BTC", "1.00"),
+                row(3, DAY_2, "BTC", "3.00"),
+                row(5, DAY_2, "BTC", "5.00"),
+                row(7, DAY_4, "BTC", "7.00"));
+
+        TradeColumns changed = columns.withChanges(new long[0], List.of(
+                row(6, DAY_2, "ETH", "6.00"),
+                row(2, DAY_1, "ETH", "2.00"),
+                row(9, DAY_4.plusDays(1), "ETH", "9.00"),
+                row(8, DAY_3, "ETH", "8.00"),
+                row(4, DAY_2, "ETH", "4.00")));
+
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6, 8, 7, 9}, ids(changed));
+        for (int i = 0; i < changed.size(); i++) {
+            assertEquals(changed.id(i) * 100, changed.profitLoss(i), "id " + changed.id(i));
+        }
+        assertEquals(2, changed.fromIndex(DAY_2));
+        assertEquals(7, changed.toIndex(DAY_3));
+    }
+
+    @Test
+    void updateMovesTradeToAnotherDate() {
+        TradeColumns columns = columns(
+                row(1, DAY_1, "BTC", "1.00"),
+                row(3, DAY_2, "BTC", "3.00"),
+                row(5, DAY_2, "BTC", "5.00"),
+                row(7, DAY_4, "BTC", "7.00"));
+
+        // Изменение передается как удаление старой строки и вставка новой
+        TradeColumns changed = columns.withChanges(new long[]{3}, List.of(row(3, DAY_4, "BTC", "-3.00")));
+
+        assertArrayEquals(new long[]{1, 5, 3, 7}, ids(changed));
+        assertEquals(DAY_4, changed.tradeDate(2));
+        assertEquals(-300, changed.profitLoss(2));
+        assertEquals(1, changed.toIndex(DAY_1));
+        assertEquals(2, changed.toIndex(DAY_3));
+    }
+
+    @Test
+    void storeAppliesChangeEventsWithoutReloading() {
+        TradeRepository tradeRepository = mock(TradeRepository.class);
+        when(tradeRepository.streamAnalyticsRows()).thenAnswer(invocation -> List.of(
+                row(1, DAY_1, "BTC", "1.00"),
+                row(3, DAY_2, "BTC", "3.00"),
+                row(5, DAY_3, "BTC", "5.00")).stream());
+        TradeColumnStore store = new TradeColumnStore(tradeRepository, mock(PlatformTransactionManager.class));
+        store.columns();
+
+        store.onTradeDataChanged(new TradeDataChangedEvent(this, List.of(
+                TradeChange.created(trade(2, DAY_3, "2.00")),
+                TradeChange.updated(trade(3, DAY_2, "3.00"), trade(3, DAY_4, "-3.00")),
+                TradeChange.deleted(trade(1, DAY_1, "1.00")))));
+
+        TradeColumns columns = store.columns();
+        assertArrayEquals(new long[]{2, 5, 3}, ids(columns));
+        assertEquals(-300, columns.profitLoss(2));
+        verify(tradeRepository, times(1)).streamAnalyticsRows();
+
+        // Массовое изменение сбрасывает снимок — следующее чтение строит его из БД
+        store.onTradeDataChanged(TradeDataChangedEvent.bulk(this));
+        assertArrayEquals(new long[]{1, 3, 5}, ids(store.columns()));
+        verify(tradeRepository, times(2)).streamAnalyticsRows();
+    }
+
+    private static long[] ids(TradeColumns columns) {
+        return IntStream.range(0, columns.size()).mapToLong(columns::id).toArray();
+    }
+
+    private static TradeColumns columns(TradeAnalyticsRow... rows) {
+        TradeColumns.Builder builder = TradeColumns.builder();
+        for (TradeAnalyticsRow row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static TradeAnalyticsRow row(long id, LocalDate date, String asset, String profitLoss) {
+        return new TradeAnalyticsRow(id, date, date.atStartOfDay().plusMinutes(id), TradeStatus.CLOSED, TradeType.LONG,
+                Currency.USD, asset, BigDecimal.ONE, BigDecimal.ONE, new BigDecimal(profitLoss), new BigDecimal("100.00"));
+    }
+
+    private static Trade trade(long id, LocalDate date, String profitLoss) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setTradeDate(date);
+        trade.setStatus(TradeStatus.CLOSED);
+        trade.setAssetName("BTC");
+        trade.setEntryPoint(BigDecimal.ONE);
+        trade.setExitPoint(BigDecimal.ONE);
+        trade.setProfitLoss(new BigDecimal(profitLoss));
+        return trade;
+    }
+}
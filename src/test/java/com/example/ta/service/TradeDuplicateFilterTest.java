@@ -0,0 +1,90 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Trade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Повторный импорт: строки, совпадающие с загруженными сделками по активу, дате, времени и цене входа, отбрасываются
+ */
+class TradeDuplicateFilterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final LocalDateTime ENTRY_TIME = DATE.atTime(10, 15);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private TradeDuplicateFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE trades (id INTEGER PRIMARY KEY, asset_name TEXT, trade_date DATE, " +
+                "entry_time TIMESTAMP, entry_point NUMERIC)");
+        // Значения записываются так же, как их пишет импорт
+        jdbcTemplate.update("INSERT INTO trades (asset_name, trade_date, entry_time, entry_point) VALUES (?, ?, ?, ?)",
+                "BTCUSDT", Date.valueOf(DATE), Timestamp.valueOf(ENTRY_TIME), new BigDecimal("60000.50"));
+
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        filter = new TradeDuplicateFilter(jdbcTemplate, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void removesTradesAlreadyInDatabase() {
+        List<Trade> batch = new ArrayList<>(List.of(
+                trade("BTCUSDT", DATE, ENTRY_TIME, "60000.5"),
+                trade("BTCUSDT", DATE, ENTRY_TIME, "60001"),
+                trade("BTCUSDT", DATE, ENTRY_TIME.plusMinutes(1), "60000.50"),
+                trade("ETHUSDT", DATE, ENTRY_TIME, "60000.50"),
+                trade("BTCUSDT", DATE.plusDays(1), ENTRY_TIME, "60000.50")));
+
+        assertEquals(1, filter.removeExisting(batch));
+        assertEquals(4, batch.size());
+    }
+
+    @Test
+    void keepsIdenticalRowsOfSameFile() {
+        List<Trade> first = new ArrayList<>(List.of(trade("SBER", DATE, null, "280.5")));
+        assertEquals(0, filter.removeExisting(first));
+        jdbcTemplate.update("INSERT INTO trades (asset_name, trade_date, entry_time, entry_point) VALUES (?, ?, ?, ?)",
+                "SBER", Date.valueOf(DATE), null, new BigDecimal("280.5"));
+
+        // Та же строка в следующем пакете того же файла — частичное исполнение, а не повторный импорт
+        List<Trade> second = new ArrayList<>(List.of(trade("SBER", DATE, null, "280.5")));
+        assertEquals(0, filter.removeExisting(second));
+
+        // Новый импорт видит обе загруженные строки
+        List<Trade> reimport = new ArrayList<>(List.of(trade("SBER", DATE, null, "280.50")));
+        assertEquals(1, new TradeDuplicateFilter(jdbcTemplate, transactionManager).removeExisting(reimport));
+    }
+
+    private static Trade trade(String assetName, LocalDate tradeDate, LocalDateTime entryTime, String entryPoint) {
+        Trade trade = new Trade();
+        trade.setAssetName(assetName);
+        trade.setTradeDate(tradeDate);
+        trade.setEntryTime(entryTime);
+        trade.setEntryPoint(new BigDecimal(entryPoint));
+        return trade;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.TradeDailyRollup;
+import com.example.ta.domain.TradeStatistics;
+import com.example.ta.repository.TradeDailyRollupRepository;
+import com.example.ta.service.TradeRangeIndex.DayTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Индекс диапазонов дат: статистика за диапазон из дневных агрегатов, обновление дня и перестроение
+ */
+class TradeRangeIndexTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 3, 2);
+    private static final LocalDate DAY_5 = LocalDate.of(2024, 3, 5);
+
+    private final List<TradeDailyRollup> rollups = new ArrayList<>();
+    private TradeDailyRollupRepository rollupRepository;
+    private TradeRangeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        rollups.add(rollup(DAY_1, 2, 1, 1, "30.00", "500.00", "50.00", "-20.00"));
+        rollups.add(rollup(DAY_2, 1, 1, 0, "15.50", "100.00", "15.50", "15.50"));
+        rollups.add(rollup(DAY_5, 3, 1, 2, "-40.00", "900.00", "10.00", "-30.00"));
+
+        rollupRepository = mock(TradeDailyRollupRepository.class);
+        when(rollupRepository.findAllByOrderByTradeDate()).thenAnswer(invocation -> List.copyOf(rollups));
+        index = new TradeRangeIndex(rollupRepository);
+    }
+
+    @Test
+    void buildsOnFirstQuery() {
+        assertFalse(index.isBuilt());
+
+        index.getStatistics(null, null);
+
+        assertTrue(index.isBuilt());
+        verify(rollupRepository, times(1)).findAllByOrderByTradeDate();
+    }
+
+    @Test
+    void allTimeStatisticsSumAllDays() {
+        TradeStatistics stats = index.getStatistics(null, null);
+
+        assertEquals(6, stats.getTotalTrades());
+        assertEquals(3, stats.getWinningTrades());
+        assertEquals(3, stats.getLosingTrades());
+        assertEquals(new BigDecimal("5.50"), stats.getTotalProfit());
+        assertEquals(new BigDecimal("1500.00"), stats.getTotalVolume());
+        assertEquals(new BigDecimal("50.00"), stats.getMaxProfit());
+        assertEquals(new BigDecimal("-30.00"), stats.getMaxLoss());
+    }
+
+    @Test
+    void rangeIncludesBothEndDates() {
+        TradeStatistics stats = index.getStatistics(DAY_2, DAY_5);
+
+        assertEquals(4, stats.getTotalTrades());
+        assertEquals(new BigDecimal("-24.50"), stats.getTotalProfit());
+        assertEquals(new BigDecimal("15.50"), stats.getMaxProfit());
+        assertEquals(new BigDecimal("-30.00"), stats.getMaxLoss());
+    }
+
+    @Test
+    void rangeWithoutTradesHasNoExtremes() {
+        TradeStatistics stats = index.getStatistics(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 4));
+
+        assertEquals(0, stats.getTotalTrades());
+        assertEquals(new BigDecimal("0.00"), stats.getMaxProfit());
+        assertEquals(new BigDecimal("0.00"), stats.getMaxLoss());
+    }
+
+    @Test
+    void rangeOutsideIndexIsClamped() {
+        TradeStatistics stats = index.getStatistics(LocalDate.of(2020, 1, 1), DAY_1);
+
+        assertEquals(2, stats.getTotalTrades());
+        assertEquals(0, index.getStatistics(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31)).getTotalTrades());
+    }
+
+    @Test
+    void appliedDayReplacesPreviousTotalsWithoutReload() {
+        index.getStatistics(null, null);
+
+        // Вне транзакции изменения применяются сразу
+        index.applyAfterCommit(List.of(new DayTotals(DAY_2, 2, 1, 1, 500, 20_000, 1_500, -1_000)));
+
+        TradeStatistics stats = index.getStatistics(DAY_2, DAY_2);
+        assertEquals(2, stats.getTotalTrades());
+        assertEquals(new BigDecimal("5.00"), stats.getTotalProfit());
+        assertEquals(new BigDecimal("15.00"), stats.getMaxProfit());
+        assertEquals(new BigDecimal("-10.00"), stats.getMaxLoss());
+        assertEquals(7, index.getStatistics(null, null).getTotalTrades());
+        verify(rollupRepository, times(1)).findAllByOrderByTradeDate();
+    }
+
+    @Test
+    void emptyDayRemovesItsExtremes() {
+        index.getStatistics(null, null);
+
+        index.applyAfterCommit(List.of(DayTotals.empty(DAY_1)));
+
+        TradeStatistics stats = index.getStatistics(null, null);
+        assertEquals(4, stats.getTotalTrades());
+        assertEquals(new BigDecimal("15.50"), stats.getMaxProfit());
+    }
+
+    @Test
+    void dayOutsideCellsTriggersRebuild() {
+        index.getStatistics(null, null);
+        LocalDate earlier = LocalDate.of(2023, 12, 31);
+        rollups.addFirst(rollup(earlier, 1, 1, 0, "7.00", "70.00", "7.00", "7.00"));
+
+        index.applyAfterCommit(List.of(new DayTotals(earlier, 1, 1, 0, 700, 7_000, 700, 700)));
+
+        assertFalse(index.isBuilt());
+        assertEquals(7, index.getStatistics(null, null).getTotalTrades());
+        verify(rollupRepository, times(2)).findAllByOrderByTradeDate();
+    }
+
+    @Test
+    void invalidateRebuildsFromRepository() {
+        index.getStatistics(null, null);
+        rollups.removeLast();
+
+        index.invalidate();
+
+        assertEquals(3, index.getStatistics(null, null).getTotalTrades());
+        verify(rollupRepository, times(2)).findAllByOrderByTradeDate();
+    }
+
+    private static TradeDailyRollup rollup(LocalDate date, long count, long wins, long losses,
+                                           String profit, String volume, String maxProfit, String minProfit) {
+        TradeDailyRollup rollup = mock(TradeDailyRollup.class);
+        when(rollup.getTradeDate()).thenReturn(date);
+        when(rollup.getTradeCount()).thenReturn(count);
+        when(rollup.getWinningTrades()).thenReturn(wins);
+        when(rollup.getLosingTrades()).thenReturn(losses);
+        when(rollup.getTotalProfit()).thenReturn(new BigDecimal(profit));
+        when(rollup.getClosedVolume()).thenReturn(new BigDecimal(volume));
+        when(rollup.getMaxProfit()).thenReturn(new BigDecimal(maxProfit));
+        when(rollup.getMinProfit()).thenReturn(new BigDecimal(minProfit));
+        return rollup;
+    }
+}
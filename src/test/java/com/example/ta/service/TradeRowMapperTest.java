@@ -0,0 +1,136 @@
+package com.example.ta.service;
+
+import com.example.ta.domain.Currency;
+import com.example.ta.domain.Trade;
+import com.example.ta.domain.TradeStatus;
+import com.example.ta.domain.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Сопоставление колонок выписки по заголовку и разбор значений строки в сделку
+ */
+class TradeRowMapperTest {
+
+    @Test
+    void mapsEnglishHeaderToClosedTrade() {
+        TradeRowMapper mapper = TradeRowMapper.fromHeader(
+                List.of("Symbol", "Side", "Date", "Entry Price", "Exit Price", "Qty", "Exit Time", "Comment"),
+                TradeRowMapper.DETECT_DECIMAL_SEPARATOR);
+
+        Trade trade = mapper.map(List.of("BTCUSDT", "sell", "2024-03-01 10:15", "60000", "59000", "0.5", "18:30", " "));
+
+        assertEquals("BTCUSDT", trade.getAssetName());
+        assertEquals(TradeType.SHORT, trade.getTradeType());
+        assertEquals(LocalDate.of(2024, 3, 1), trade.getTradeDate());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15), trade.getEntryTime());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 18, 30), trade.getExitTime());
+        // Статус без колонки определяется по цене выхода, валюта по умолчанию — доллар
+        assertEquals(TradeStatus.CLOSED, trade.getStatus());
+        assertEquals(Currency.USD, trade.getCurrency());
+        assertEquals(new BigDecimal("500.0"), trade.getProfitLoss());
+        assertNull(trade.getComment());
+    }
+
+    @Test
+    void mapsRussianHeaderToOpenTrade() {
+        TradeRowMapper mapper = TradeRowMapper.fromHeader(
+                List.of("Актив", "Направление", "Дата сделки", "Цена входа", "Количество", "Валюта", "Время входа"),
+                TradeRowMapper.DETECT_DECIMAL_SEPARATOR);
+
+        Trade trade = mapper.map(List.of("SBER", "Покупка", "05.03.2024", "280,50", "10", "руб", "9:05"));
+
+        assertEquals(TradeType.LONG, trade.getTradeType());
+        assertEquals(TradeStatus.OPEN, trade.getStatus());
+        assertEquals(Currency.RUB, trade.getCurrency());
+        assertEquals(new BigDecimal("280.50"), trade.getEntryPoint());
+        assertEquals(LocalDateTime.of(2024, 3, 5, 9, 5), trade.getEntryTime());
+        assertNull(trade.getExitPoint());
+        assertNull(trade.getProfitLoss());
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumn() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> TradeRowMapper.fromHeader(List.of("Asset", "Date", "Price"), '.'));
+
+        assertEquals("В заголовке файла не найдена колонка volume (кол во)", error.getMessage());
+    }
+
+    @Test
+    void rejectsRowWithInvalidValues() {
+        TradeRowMapper mapper = TradeRowMapper.fromHeader(List.of("Asset", "Date", "Price", "Volume", "Type"), '.');
+
+        assertThrows(IllegalArgumentException.class, () -> mapper.map(List.of("", "2024-03-01", "1", "1", "")));
+        assertThrows(IllegalArgumentException.class, () -> mapper.map(List.of("BTC", "01-03-2024", "1", "1", "")));
+        assertThrows(IllegalArgumentException.class, () -> mapper.map(List.of("BTC", "2024-03-01", "0", "1", "")));
+        assertThrows(IllegalArgumentException.class, () -> mapper.map(List.of("BTC", "2024-03-01", "1", "1", "hold")));
+    }
+
+    @Test
+    void parsesNumbersWithUnambiguousSeparators() {
+        for (char separator : new char[]{'.', ',', TradeRowMapper.DETECT_DECIMAL_SEPARATOR}) {
+            assertEquals(new BigDecimal("1234.56"), TradeRowMapper.parseNumber("1 234,56", separator));
+            assertEquals(new BigDecimal("1234.56"), TradeRowMapper.parseNumber("1,234.56", separator));
+            assertEquals(new BigDecimal("1234.56"), TradeRowMapper.parseNumber("1.234,56", separator));
+            assertEquals(new BigDecimal("1234567"), TradeRowMapper.parseNumber("1,234,567", separator));
+            assertEquals(new BigDecimal("1234.5"), TradeRowMapper.parseNumber("$1234.5", separator));
+            assertEquals(new BigDecimal("-0.5"), TradeRowMapper.parseNumber("-0,5", separator));
+            assertEquals(new BigDecimal("0.125"), TradeRowMapper.parseNumber("0,125", separator));
+            assertEquals(new BigDecimal("1234.567"), TradeRowMapper.parseNumber("1234.567", separator));
+            assertThrows(IllegalArgumentException.class, () -> TradeRowMapper.parseNumber("n/a", separator));
+        }
+    }
+
+    @Test
+    void parsesAmbiguousNumberByDecimalPoint() {
+        assertEquals(new BigDecimal("1234"), TradeRowMapper.parseNumber("1,234", '.'));
+        assertEquals(new BigDecimal("-12500"), TradeRowMapper.parseNumber("-12,500", '.'));
+        assertEquals(new BigDecimal("1.234"), TradeRowMapper.parseNumber("1.234", '.'));
+    }
+
+    @Test
+    void parsesAmbiguousNumberByDecimalComma() {
+        assertEquals(new BigDecimal("1.234"), TradeRowMapper.parseNumber("1,234", ','));
+        assertEquals(new BigDecimal("-12.500"), TradeRowMapper.parseNumber("-12,500", ','));
+        assertEquals(new BigDecimal("1234"), TradeRowMapper.parseNumber("1.234", ','));
+    }
+
+    @Test
+    void rejectsAmbiguousNumberWithoutDecimalSeparator() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeRowMapper.parseNumber("1,234", TradeRowMapper.DETECT_DECIMAL_SEPARATOR));
+    }
+
+    @Test
+    void detectsDecimalSeparatorFromNumber() {
+        assertEquals(',', TradeRowMapper.detectDecimalSeparator("1 234,56"));
+        assertEquals('.', TradeRowMapper.detectDecimalSeparator("1,234.56"));
+        assertEquals('.', TradeRowMapper.detectDecimalSeparator("1,234,567"));
+        assertEquals(',', TradeRowMapper.detectDecimalSeparator("0,5"));
+        assertEquals(TradeRowMapper.DETECT_DECIMAL_SEPARATOR, TradeRowMapper.detectDecimalSeparator("1,234"));
+        assertEquals(TradeRowMapper.DETECT_DECIMAL_SEPARATOR, TradeRowMapper.detectDecimalSeparator("1234"));
+    }
+
+    @Test
+    void mapperRemembersDecimalSeparatorOfFile() {
+        List<String> header = List.of("Asset", "Date", "Price", "Volume");
+
+        TradeRowMapper commaFile = TradeRowMapper.fromHeader(header, TradeRowMapper.DETECT_DECIMAL_SEPARATOR);
+        assertThrows(IllegalArgumentException.class, () -> commaFile.map(List.of("SBER", "2024-03-01", "1,234", "1")));
+        commaFile.map(List.of("SBER", "2024-03-01", "280,50", "1"));
+        assertEquals(new BigDecimal("1.234"), commaFile.map(List.of("SBER", "2024-03-01", "1,234", "1")).getEntryPoint());
+
+        TradeRowMapper pointFile = TradeRowMapper.fromHeader(header, TradeRowMapper.DETECT_DECIMAL_SEPARATOR);
+        pointFile.map(List.of("BTC", "2024-03-01", "60,000.5", "1"));
+        assertEquals(new BigDecimal("1234"), pointFile.map(List.of("BTC", "2024-03-01", "1,234", "1")).getEntryPoint());
+    }
+}
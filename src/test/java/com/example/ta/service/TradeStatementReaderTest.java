@@ -0,0 +1,93 @@
+package com.example.ta.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Разбор CSV-выписки: определение разделителя, кавычки, переносы строк внутри значений и номера строк
+ */
+class TradeStatementReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void detectsSemicolonDelimiterAndStripsBom() throws IOException {
+        List<String> rows = read("\uFEFFАктив;Дата;Цена\nSBER;05.03.2024;280,50\n");
+
+        assertEquals(List.of("1:[Актив, Дата, Цена]", "2:[SBER, 05.03.2024, 280,50]"), rows);
+    }
+
+    @Test
+    void detectsCommaAndTabDelimiters() throws IOException {
+        assertEquals(List.of("1:[Asset, Date]", "2:[BTC, 2024-03-01]"), read("Asset,Date\nBTC,2024-03-01\n"));
+        assertEquals(List.of("1:[Asset, Comment]", "2:[BTC, a,b;c]"), read("Asset\tComment\nBTC\ta,b;c\n"));
+    }
+
+    @Test
+    void keepsDelimitersAndEscapedQuotesInsideQuotes() throws IOException {
+        List<String> rows = read("Asset,Price,Comment\n\"BTC\",\"1,234.56\",\"said \"\"hold\"\"\"\n");
+
+        assertEquals("2:[BTC, 1,234.56, said \"hold\"]", rows.get(1));
+    }
+
+    @Test
+    void multiLineCellKeepsNumberOfFirstLine() throws IOException {
+        List<String> rows = read("Asset;Comment\nBTC;\"first\nsecond\"\nETH;short\n");
+
+        assertEquals(List.of("1:[Asset, Comment]", "2:[BTC, first\nsecond]", "4:[ETH, short]"), rows);
+    }
+
+    @Test
+    void reportsEmptyCellsAtRowEnd() throws IOException {
+        assertEquals(List.of("1:[Asset, Exit, Comment]", "2:[BTC, , ]"), read("Asset;Exit;Comment\nBTC;;\n"));
+    }
+
+    @Test
+    void decimalSeparatorFollowsDelimiterUnlessConfigured() throws IOException {
+        assertEquals(',', decimalSeparator("Asset;Price\n", TradeRowMapper.DETECT_DECIMAL_SEPARATOR));
+        assertEquals('.', decimalSeparator("Asset,Price\n", TradeRowMapper.DETECT_DECIMAL_SEPARATOR));
+        assertEquals(TradeRowMapper.DETECT_DECIMAL_SEPARATOR,
+                decimalSeparator("Asset\tPrice\n", TradeRowMapper.DETECT_DECIMAL_SEPARATOR));
+        assertEquals('.', decimalSeparator("Asset;Price\n", '.'));
+    }
+
+    @Test
+    void supportsCsvTextAndExcelFiles() {
+        assertTrue(TradeStatementReader.isSupported(Path.of("statement.CSV")));
+        assertTrue(TradeStatementReader.isSupported(Path.of("statement.txt")));
+        assertTrue(TradeStatementReader.isSupported(Path.of("statement.xlsx")));
+        assertFalse(TradeStatementReader.isSupported(Path.of("statement.xls")));
+    }
+
+    private List<String> read(String content) throws IOException {
+        List<String> rows = new ArrayList<>();
+        reader(content, TradeRowMapper.DETECT_DECIMAL_SEPARATOR)
+                .read((rowNumber, cells) -> rows.add(rowNumber + ":" + cells));
+        return rows;
+    }
+
+    private char decimalSeparator(String content, char configured) throws IOException {
+        TradeStatementReader reader = reader(content, configured);
+        reader.read((rowNumber, cells) -> {
+        });
+        return reader.decimalSeparator();
+    }
+
+    private TradeStatementReader reader(String content, char csvDecimalSeparator) throws IOException {
+        Path file = directory.resolve("statement.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return new TradeStatementReader(file, csvDecimalSeparator);
+    }
+}
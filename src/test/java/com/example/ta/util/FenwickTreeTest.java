@@ -0,0 +1,76 @@
+package com.example.ta.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Суммы дерева Фенвика сверяются с прямым суммированием массива
+ */
+class FenwickTreeTest {
+
+    @Test
+    void rangeSumsMatchArrayAfterBuildAndUpdates() {
+        Random random = new Random(7);
+        long[] values = new long[37];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(2_000) - 1_000;
+        }
+        FenwickTree tree = FenwickTree.of(values);
+        assertRangeSums(values, tree);
+
+        for (int step = 0; step < 100; step++) {
+            int index = random.nextInt(values.length);
+            long delta = random.nextInt(2_000) - 1_000;
+            values[index] += delta;
+            tree.add(index, delta);
+        }
+        assertRangeSums(values, tree);
+    }
+
+    @Test
+    void buildMatchesIncrementalAdds() {
+        long[] values = {5, -3, 0, 12, 7, -8, 1};
+        FenwickTree incremental = new FenwickTree(values.length);
+        for (int i = 0; i < values.length; i++) {
+            incremental.add(i, values[i]);
+        }
+
+        FenwickTree built = FenwickTree.of(values);
+        for (int i = 0; i <= values.length; i++) {
+            assertEquals(incremental.prefixSum(i), built.prefixSum(i));
+        }
+        assertEquals(values.length, built.size());
+    }
+
+    @Test
+    void emptyAndReversedRangesAreZero() {
+        FenwickTree tree = FenwickTree.of(new long[]{4, 5, 6});
+
+        assertEquals(0, tree.rangeSum(1, 1));
+        assertEquals(0, tree.rangeSum(2, 1));
+        assertEquals(0, new FenwickTree(0).prefixSum(0));
+    }
+
+    @Test
+    void overflowIsReported() {
+        FenwickTree tree = FenwickTree.of(new long[]{Long.MAX_VALUE, 0});
+
+        assertThrows(ArithmeticException.class, () -> tree.add(0, 1));
+    }
+
+    private static void assertRangeSums(long[] values, FenwickTree tree) {
+        for (int from = 0; from <= values.length; from++) {
+            long expected = 0;
+            for (int to = from; to <= values.length; to++) {
+                assertEquals(expected, tree.rangeSum(from, to), "[" + from + ", " + to + ")");
+                if (to < values.length) {
+                    expected += values[to];
+                }
+            }
+        }
+    }
+}
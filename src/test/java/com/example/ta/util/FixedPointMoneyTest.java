@@ -0,0 +1,122 @@
+package com.example.ta.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static com.example.ta.util.FixedPointMoney.PRICE_SCALE;
+import static com.example.ta.util.FixedPointMoney.VOLUME_SCALE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Арифметика фиксированной точки сверяется с BigDecimal и RoundingMode.HALF_UP, переполнение — ArithmeticException
+ */
+class FixedPointMoneyTest {
+
+    @Test
+    void convertsBigDecimalWithHalfUpRounding() {
+        assertEquals(101, FixedPointMoney.fromBigDecimal(new BigDecimal("1.005"), PRICE_SCALE));
+        assertEquals(-101, FixedPointMoney.fromBigDecimal(new BigDecimal("-1.005"), PRICE_SCALE));
+        assertEquals(100, FixedPointMoney.fromBigDecimal(new BigDecimal("1.0049"), PRICE_SCALE));
+        assertEquals(0, FixedPointMoney.fromBigDecimal(null, PRICE_SCALE));
+        assertEquals(new BigDecimal("123.45"), FixedPointMoney.toBigDecimal(12_345, PRICE_SCALE));
+        assertEquals(123.45, FixedPointMoney.toDouble(12_345, PRICE_SCALE), 1e-9);
+    }
+
+    @Test
+    void conversionOverflowThrows() {
+        assertThrows(ArithmeticException.class,
+                () -> FixedPointMoney.fromBigDecimal(new BigDecimal("1E20"), PRICE_SCALE));
+    }
+
+    @Test
+    void addAndSubtractOverflowThrows() {
+        assertEquals(5, FixedPointMoney.add(7, -2));
+        assertEquals(9, FixedPointMoney.subtract(7, -2));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.subtract(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    void multipliesPriceByVolumeWithHalfUpRounding() {
+        // 100.50 × 0.5 = 50.25
+        assertEquals(5_025, FixedPointMoney.multiply(10_050, PRICE_SCALE, 50_000_000, VOLUME_SCALE, PRICE_SCALE));
+        // 0.01 × 0.5 = 0.005 → 0.01, отрицательные округляются от нуля
+        assertEquals(1, FixedPointMoney.multiply(1, PRICE_SCALE, 50_000_000, VOLUME_SCALE, PRICE_SCALE));
+        assertEquals(-1, FixedPointMoney.multiply(-1, PRICE_SCALE, 50_000_000, VOLUME_SCALE, PRICE_SCALE));
+        assertEquals(0, FixedPointMoney.multiply(-1, PRICE_SCALE, 49_999_999, VOLUME_SCALE, PRICE_SCALE));
+        // Результат с большим масштабом, чем у произведения
+        assertEquals(1_500, FixedPointMoney.multiply(5, 0, 3, 0, PRICE_SCALE));
+    }
+
+    @Test
+    void multiplyMatchesBigDecimal() {
+        Random random = new Random(13);
+        for (int i = 0; i < 1_000; i++) {
+            long price = random.nextLong(-10_000_000_000L, 10_000_000_000L);
+            long volume = random.nextLong(-100_000_000_000L, 100_000_000_000L);
+
+            BigDecimal expected = BigDecimal.valueOf(price, PRICE_SCALE)
+                    .multiply(BigDecimal.valueOf(volume, VOLUME_SCALE))
+                    .setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            assertEquals(expected.unscaledValue().longValueExact(),
+                    FixedPointMoney.multiply(price, PRICE_SCALE, volume, VOLUME_SCALE, PRICE_SCALE));
+        }
+    }
+
+    @Test
+    void multiplyFallsBackToBigDecimalWhenProductOverflows() {
+        // 10^15 × 0.00001: промежуточное 10^17 × 10^3 не помещается в long, результат 10^10 помещается
+        long price = 100_000_000_000_000_000L;
+        assertEquals(1_000_000_000_000L, FixedPointMoney.multiply(price, PRICE_SCALE, 1_000, VOLUME_SCALE, PRICE_SCALE));
+        assertEquals(-1_000_000_000_000L, FixedPointMoney.multiply(-price, PRICE_SCALE, 1_000, VOLUME_SCALE, PRICE_SCALE));
+    }
+
+    @Test
+    void multiplyOverflowOfResultThrows() {
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.multiply(Long.MAX_VALUE, 0, 100, 0, 0));
+        assertThrows(ArithmeticException.class,
+                () -> FixedPointMoney.multiply(Long.MAX_VALUE / 10, 0, 1, 0, PRICE_SCALE));
+    }
+
+    @Test
+    void dividesWithHalfUpRoundingForAllSigns() {
+        assertEquals(3, FixedPointMoney.divide(10, 4));
+        assertEquals(-3, FixedPointMoney.divide(-10, 4));
+        assertEquals(-3, FixedPointMoney.divide(10, -4));
+        assertEquals(3, FixedPointMoney.divide(-10, -4));
+        assertEquals(2, FixedPointMoney.divide(9, 4));
+        assertEquals(-2, FixedPointMoney.divide(-9, 4));
+        assertEquals(5, FixedPointMoney.divide(15, 3));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.divide(1, 0));
+    }
+
+    @Test
+    void divideMatchesBigDecimal() {
+        Random random = new Random(29);
+        for (int i = 0; i < 1_000; i++) {
+            long value = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            long divisor = random.nextLong(-1_000L, 1_000L);
+            if (divisor == 0) {
+                continue;
+            }
+            long expected = BigDecimal.valueOf(value)
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, FixedPointMoney.divide(value, divisor));
+        }
+    }
+
+    @Test
+    void ratioKeepsRequestedScale() {
+        assertEquals(6_667, FixedPointMoney.ratio(2, 3, 4));
+        assertEquals(3_333, FixedPointMoney.ratio(1, 3, 4));
+        assertEquals(-5_000, FixedPointMoney.ratio(-1, 2, 4));
+        assertEquals(10_000, FixedPointMoney.ratio(7, 7, 4));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.ratio(Long.MAX_VALUE, 1, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.ratio(1, 0, 4));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ta.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Минимум и максимум дерева отрезков сверяются с прямым просмотром массива, включая пустые элементы
+ */
+class MinMaxSegmentTreeTest {
+
+    @Test
+    void rangeExtremesMatchArray() {
+        Random random = new Random(11);
+        // Размер не степень двойки
+        int size = 29;
+        long[] mins = new long[size];
+        long[] maxes = new long[size];
+        Arrays.fill(mins, MinMaxSegmentTree.NO_MIN);
+        Arrays.fill(maxes, MinMaxSegmentTree.NO_MAX);
+        MinMaxSegmentTree tree = new MinMaxSegmentTree(size);
+
+        for (int step = 0; step < 200; step++) {
+            int index = random.nextInt(size);
+            if (random.nextInt(5) == 0) {
+                // Очистка элемента — день без закрытых сделок
+                mins[index] = MinMaxSegmentTree.NO_MIN;
+                maxes[index] = MinMaxSegmentTree.NO_MAX;
+            } else {
+                long a = random.nextInt(20_000) - 10_000;
+                long b = random.nextInt(20_000) - 10_000;
+                mins[index] = Math.min(a, b);
+                maxes[index] = Math.max(a, b);
+            }
+            tree.set(index, mins[index], maxes[index]);
+        }
+
+        for (int from = 0; from <= size; from++) {
+            for (int to = from; to <= size; to++) {
+                long expectedMin = MinMaxSegmentTree.NO_MIN;
+                long expectedMax = MinMaxSegmentTree.NO_MAX;
+                for (int i = from; i < to; i++) {
+                    expectedMin = Math.min(expectedMin, mins[i]);
+                    expectedMax = Math.max(expectedMax, maxes[i]);
+                }
+                assertEquals(expectedMin, tree.min(from, to), "min [" + from + ", " + to + ")");
+                assertEquals(expectedMax, tree.max(from, to), "max [" + from + ", " + to + ")");
+            }
+        }
+    }
+
+    @Test
+    void emptyTreeHasNoExtremes() {
+        MinMaxSegmentTree tree = new MinMaxSegmentTree(5);
+
+        assertEquals(MinMaxSegmentTree.NO_MIN, tree.min(0, 5));
+        assertEquals(MinMaxSegmentTree.NO_MAX, tree.max(0, 5));
+        assertEquals(5, tree.size());
+    }
+
+    @Test
+    void overwrittenElementNoLongerAffectsResult() {
+        MinMaxSegmentTree tree = new MinMaxSegmentTree(4);
+        tree.set(1, -500, 900);
+        tree.set(2, -10, 20);
+
+        tree.set(1, MinMaxSegmentTree.NO_MIN, MinMaxSegmentTree.NO_MAX);
+
+        assertEquals(-10, tree.min(0, 4));
+        assertEquals(20, tree.max(0, 4));
+    }
+}
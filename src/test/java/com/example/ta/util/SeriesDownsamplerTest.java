@@ -0,0 +1,135 @@
+package com.example.ta.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Прореживание ряда: первая и последняя точки и экстремумы каждой корзины сохраняются,
+ * ряд не длиннее ширины графика возвращается целиком
+ */
+class SeriesDownsamplerTest {
+
+    @Test
+    void keepsExtremesAndEndpoints() {
+        Random random = new Random(7);
+        int size = 10_000;
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i == 0 ? 0 : x[i - 1] + random.nextInt(3);
+            y[i] = random.nextGaussian() * 100;
+        }
+        // Одиночные выбросы посреди ряда
+        y[4_321] = 10_000;
+        y[6_789] = -10_000;
+
+        for (int[] range : new int[][]{{0, size}, {1_000, 8_000}}) {
+            int from = range[0];
+            int to = range[1];
+            int[] indexes = SeriesDownsampler.minMaxIndexes(x, y, from, to, 50);
+
+            assertTrue(indexes.length <= 50 * 4, "точек: " + indexes.length);
+            assertEquals(from, indexes[0]);
+            assertEquals(to - 1, indexes[indexes.length - 1]);
+            for (int i = 1; i < indexes.length; i++) {
+                assertTrue(indexes[i - 1] < indexes[i]);
+            }
+            assertTrue(contains(indexes, 4_321));
+            assertTrue(contains(indexes, 6_789));
+            assertTrue(contains(indexes, argMin(y, from, to)));
+            assertTrue(contains(indexes, argMax(y, from, to)));
+        }
+    }
+
+    @Test
+    void extremesOfEveryBucketSurvive() {
+        // 1000 точек на 10 корзин: по 100 точек, максимум и минимум каждой корзины известны
+        double[] x = IntStream.range(0, 1_000).asDoubleStream().toArray();
+        double[] y = new double[x.length];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = Math.sin(i * 0.37) * (i % 100);
+        }
+
+        int[] indexes = SeriesDownsampler.minMaxIndexes(x, y, 0, x.length, 10);
+
+        for (int bucket = 0; bucket < 10; bucket++) {
+            int from = SeriesDownsampler.lowerBound(x, bucket * 99.9);
+            int to = bucket == 9 ? x.length : SeriesDownsampler.lowerBound(x, (bucket + 1) * 99.9);
+            assertTrue(contains(indexes, argMin(y, from, to)), "корзина " + bucket);
+            assertTrue(contains(indexes, argMax(y, from, to)), "корзина " + bucket);
+        }
+    }
+
+    @Test
+    void widthCoveringAllPointsKeepsSeries() {
+        double[] x = IntStream.range(0, 100).asDoubleStream().toArray();
+        double[] y = x.clone();
+
+        assertArrayEquals(IntStream.range(0, 100).toArray(), SeriesDownsampler.minMaxIndexes(x, y, 0, 100, 100));
+        assertArrayEquals(IntStream.range(0, 100).toArray(), SeriesDownsampler.minMaxIndexes(x, y, 0, 100, 1_000));
+        assertArrayEquals(IntStream.range(10, 20).toArray(), SeriesDownsampler.minMaxIndexes(x, y, 10, 20, 5));
+        // Ширина еще неизвестна
+        assertArrayEquals(IntStream.range(0, 100).toArray(), SeriesDownsampler.minMaxIndexes(x, y, 0, 100, 0));
+    }
+
+    @Test
+    void emptyAndSinglePointSeries() {
+        assertArrayEquals(new int[0], SeriesDownsampler.minMaxIndexes(new double[0], new double[0], 0, 0, 10));
+
+        double[] x = {1, 2, 3};
+        double[] y = {5, 6, 7};
+        assertArrayEquals(new int[0], SeriesDownsampler.minMaxIndexes(x, y, 2, 2, 10));
+        assertArrayEquals(new int[]{1}, SeriesDownsampler.minMaxIndexes(x, y, 1, 2, 10));
+    }
+
+    @Test
+    void pointsWithSameXFormOneBucket() {
+        double[] x = new double[20];
+        double[] y = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8, 9, 7, 9, 3, 2, 3, 8, -4};
+        Arrays.fill(x, 42);
+
+        // Все точки в одной корзине: первая, максимум (первый из равных) и последняя, она же минимум
+        assertArrayEquals(new int[]{0, 5, 19}, SeriesDownsampler.minMaxIndexes(x, y, 0, x.length, 2));
+    }
+
+    @Test
+    void lowerBoundFindsFirstNotLess() {
+        double[] x = {1, 2, 2, 2, 5};
+
+        assertEquals(0, SeriesDownsampler.lowerBound(x, 0));
+        assertEquals(1, SeriesDownsampler.lowerBound(x, 2));
+        assertEquals(4, SeriesDownsampler.lowerBound(x, 3));
+        assertEquals(5, SeriesDownsampler.lowerBound(x, 6));
+    }
+
+    private static boolean contains(int[] indexes, int index) {
+        return Arrays.binarySearch(indexes, index) >= 0;
+    }
+
+    private static int argMin(double[] y, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++) {
+            if (y[i] < y[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private static int argMax(double[] y, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++) {
+            if (y[i] > y[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}